@@ -21,13 +21,17 @@ THE SOFTWARE.
 */
 package com.bluerobotics.blueberry.schema.parser.constants;
 
+import java.io.Serializable;
+
 import com.bluerobotics.blueberry.schema.parser.fields.SymbolName;
+import com.bluerobotics.blueberry.schema.parser.parsing.SchemaSnapshot;
 import com.bluerobotics.blueberry.schema.parser.types.Type;
 
 /**
  *
  */
-public abstract class AbstractConstant<T> implements Constant<T> {
+public abstract class AbstractConstant<T> implements Constant<T>, Serializable {
+	private static final long serialVersionUID = SchemaSnapshot.VERSION;
 	private final SymbolName m_name;
 	private final String m_comment;
 	private final Type m_type;
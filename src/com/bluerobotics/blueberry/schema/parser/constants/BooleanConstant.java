@@ -24,6 +24,7 @@ package com.bluerobotics.blueberry.schema.parser.constants;
 import java.math.BigDecimal;
 
 import com.bluerobotics.blueberry.schema.parser.fields.SymbolName;
+import com.bluerobotics.blueberry.schema.parser.parsing.SchemaSnapshot;
 import com.bluerobotics.blueberry.schema.parser.types.BaseType;
 import com.bluerobotics.blueberry.schema.parser.types.TypeId;
 
@@ -32,6 +33,7 @@ import com.bluerobotics.blueberry.schema.parser.types.TypeId;
  *
  */
 public class BooleanConstant extends AbstractConstant<Boolean> {
+	private static final long serialVersionUID = SchemaSnapshot.VERSION;
 	private final Boolean m_value;
 	public BooleanConstant(SymbolName name, Boolean value, String comment) {
 		super(BaseType.getBaseType(TypeId.BOOL), name, comment);
@@ -21,12 +21,16 @@ THE SOFTWARE.
 */
 package com.bluerobotics.blueberry.schema.parser.constants;
 
+import java.io.Serializable;
 import java.math.BigDecimal;
 
+import com.bluerobotics.blueberry.schema.parser.parsing.SchemaSnapshot;
+
 /**
  *
  */
-public class Number {
+public class Number implements Serializable {
+	private static final long serialVersionUID = SchemaSnapshot.VERSION;
 	public static final Number NAN = new Number();
 	private final BigDecimal m_value;
 	private final boolean m_integer;
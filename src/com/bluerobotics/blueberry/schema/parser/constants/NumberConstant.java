@@ -24,6 +24,7 @@ package com.bluerobotics.blueberry.schema.parser.constants;
 import java.math.BigDecimal;
 
 import com.bluerobotics.blueberry.schema.parser.fields.SymbolName;
+import com.bluerobotics.blueberry.schema.parser.parsing.SchemaSnapshot;
 import com.bluerobotics.blueberry.schema.parser.types.BaseType;
 import com.bluerobotics.blueberry.schema.parser.types.TypeId;
 
@@ -32,6 +33,7 @@ import com.bluerobotics.blueberry.schema.parser.types.TypeId;
  *
  */
 public class NumberConstant extends AbstractConstant<Number> {
+	private static final long serialVersionUID = SchemaSnapshot.VERSION;
 	private final Number m_value;
 	public NumberConstant(TypeId id, SymbolName name, Number value, String comment) {
 		super(BaseType.getBaseType(id), name, comment);
@@ -22,6 +22,7 @@ THE SOFTWARE.
 package com.bluerobotics.blueberry.schema.parser.constants;
 
 import com.bluerobotics.blueberry.schema.parser.fields.SymbolName;
+import com.bluerobotics.blueberry.schema.parser.parsing.SchemaSnapshot;
 import com.bluerobotics.blueberry.schema.parser.types.BaseType;
 import com.bluerobotics.blueberry.schema.parser.types.StringType;
 
@@ -29,6 +30,7 @@ import com.bluerobotics.blueberry.schema.parser.types.StringType;
  *
  */
 public class StringConstant extends AbstractConstant<String> {
+	private static final long serialVersionUID = SchemaSnapshot.VERSION;
 
 	private final String m_value;
 	public StringConstant(SymbolName name, String value, String comment) {
@@ -21,16 +21,19 @@ THE SOFTWARE.
 */
 package com.bluerobotics.blueberry.schema.parser.fields;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Consumer;
 
+import com.bluerobotics.blueberry.schema.parser.parsing.SchemaSnapshot;
 import com.bluerobotics.blueberry.schema.parser.tokens.Annotation;
 import com.bluerobotics.blueberry.schema.parser.tokens.Coord;
 import com.bluerobotics.blueberry.schema.parser.types.TypeId;
 
-public abstract class AbstractField implements Field {
+public abstract class AbstractField implements Field, Serializable {
+	private static final long serialVersionUID = SchemaSnapshot.VERSION;
 
 
 
@@ -50,6 +53,7 @@ public abstract class AbstractField implements Field {
 
 	private final TypeId m_typeId;
 	private ParentField m_parent = null;
+	private transient List<MultipleField.Index> m_indexChain = null;
 	private final ArrayList<Annotation> m_annotations = new ArrayList<>();
 	protected AbstractField(SymbolName name, ScopeName type, TypeId id, String comment, Coord c) {
 		m_name = name;
@@ -103,6 +107,7 @@ public abstract class AbstractField implements Field {
 	@Override
 	public void setOrdinal(int o) {
 		m_ordinal = o;
+		invalidateParentLayout();
 	}
 
 
@@ -156,6 +161,15 @@ public abstract class AbstractField implements Field {
 	@Override
 	public void setParent(ParentField p) {
 		m_parent = p;
+		invalidateParentLayout();
+	}
+	/**
+	 * the layout of the parent depends on the index, size and ordinal of this field so needs recomputing when these change
+	 */
+	private void invalidateParentLayout() {
+		if(m_parent != null) {
+			m_parent.invalidateLayout();
+		}
 	}
 	@Override
 	public boolean equals(Object obj) {
@@ -234,11 +248,28 @@ public abstract class AbstractField implements Field {
 	@Override
 	public void setIndex(int i) {
 		m_index = i;
+		invalidateParentLayout();
 	}
 	@Override
 	public int getNextIndex() {
 		return m_index + getByteCount();
 	}
+	@Override
+	public List<MultipleField.Index> getIndexChain() {
+		List<MultipleField.Index> result = m_indexChain;
+		if(result == null) {
+			result = MultipleField.makeIndexChain(this);
+		}
+		return result;
+	}
+	/**
+	 * stores the index chain of this field so that it doesn't need to be worked out again
+	 * This should only be done once the field's message has been packed
+	 * @param is
+	 */
+	void setIndexChain(List<MultipleField.Index> is) {
+		m_indexChain = is;
+	}
 
 
 	@Override
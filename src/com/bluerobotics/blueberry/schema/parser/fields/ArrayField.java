@@ -25,6 +25,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import com.bluerobotics.blueberry.schema.parser.fields.MultipleField.Index;
+import com.bluerobotics.blueberry.schema.parser.parsing.SchemaSnapshot;
 import com.bluerobotics.blueberry.schema.parser.tokens.Coord;
 import com.bluerobotics.blueberry.schema.parser.types.TypeId;
 
@@ -33,6 +34,7 @@ import com.bluerobotics.blueberry.schema.parser.types.TypeId;
  * Note that in this case, the name of the array type is the field name. The type that this field is an array of is the type name
  */
 public class ArrayField extends ParentField implements MultipleField {
+	private static final long serialVersionUID = SchemaSnapshot.VERSION;
 	@Override
 	public List<Index> getIndeces() {
 		List<Index> result = new ArrayList<>();
@@ -60,9 +62,9 @@ public class ArrayField extends ParentField implements MultipleField {
 
 	
 	@Override
-	public int getBitCount() {
+	protected int computeBitCount(int childBitCount) {
 
-		int n = super.getBitCount();
+		int n = childBitCount;
 		
 		for(int i : getNumber()) {
 			n *= i;
@@ -84,12 +86,12 @@ public class ArrayField extends ParentField implements MultipleField {
 		return f;
 	}
 	@Override
-	public int getMinAlignment() {
+	protected int computeMinAlignment() {
 		return getFirstChild().getMinAlignment();
 	}
 	@Override
-	public int getPaddedByteCount() {
-		return getBitCount()/8;
+	protected int computePaddedByteCount(int byteCount, int minAlignment) {
+		return byteCount;
 	}
 
 
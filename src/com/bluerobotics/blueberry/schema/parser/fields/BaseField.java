@@ -21,6 +21,7 @@ THE SOFTWARE.
 */
 package com.bluerobotics.blueberry.schema.parser.fields;
 
+import com.bluerobotics.blueberry.schema.parser.parsing.SchemaSnapshot;
 import com.bluerobotics.blueberry.schema.parser.tokens.Coord;
 import com.bluerobotics.blueberry.schema.parser.types.TypeId;
 
@@ -28,6 +29,7 @@ import com.bluerobotics.blueberry.schema.parser.types.TypeId;
  *
  */
 public class BaseField extends AbstractField {
+	private static final long serialVersionUID = SchemaSnapshot.VERSION;
 	public BaseField(SymbolName name, TypeId id, String comment, Coord c) {
 		super(name, null, id, comment, c);
 	}
@@ -21,24 +21,29 @@ THE SOFTWARE.
 */
 package com.bluerobotics.blueberry.schema.parser.fields;
 
+import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.function.Consumer;
 
 import com.bluerobotics.blueberry.schema.parser.constants.Constant;
 import com.bluerobotics.blueberry.schema.parser.parsing.SchemaParserException;
+import com.bluerobotics.blueberry.schema.parser.parsing.SchemaSnapshot;
 import com.bluerobotics.blueberry.schema.parser.tokens.Annotation;
 import com.bluerobotics.blueberry.schema.parser.tokens.Coord;
 
 /**
  * 
  */
-public class BlueModule implements AnnotationOwner {
+public class BlueModule implements AnnotationOwner, Serializable {
+	private static final long serialVersionUID = SchemaSnapshot.VERSION;
 	private final ScopeName m_name;
 	public static final BlueModule ROOT = new BlueModule(ScopeName.ROOT, null);
 	private final ArrayList<Annotation> m_annotations = new ArrayList<>();
 	private ArrayList<Constant<?>> m_constants = new ArrayList<>();
+	private HashMap<SymbolName, Constant<?>> m_constantIndex = new HashMap<>();//the first constant of each name
 	private FieldList m_defines = new FieldList();
 	private FieldList m_messages = new FieldList();
 	private final Coord m_coord;
@@ -110,19 +115,23 @@ public class BlueModule implements AnnotationOwner {
 			throw new SchemaParserException("Constant "+c.getName()+" already exists!", null);
 		}
 		m_constants.add(c);
+		m_constantIndex.putIfAbsent(c.getName(), c);
+	}
+	/**
+	 * removes all annotations, constants, defines and messages from this module
+	 */
+	public void clear() {
+		m_annotations.clear();
+		m_constants.clear();
+		m_constantIndex.clear();
+		m_defines.clear();
+		m_messages.clear();
 	}
 	public List<Constant<?>> getConstants(){
 		return m_constants;
 	}
 	public Constant<?> getConstant(SymbolName n) {
-		Constant<?> result = null;
-		for(Constant<?> c : m_constants) {
-			if(c.getName().equals(n)) {
-				result = c;
-				break;
-			}
-		}
-		return result;
+		return m_constantIndex.get(n);
 	}
 	
 	
@@ -22,7 +22,10 @@ THE SOFTWARE.
 package com.bluerobotics.blueberry.schema.parser.fields;
 
 import java.util.ArrayList;
-import java.util.ListIterator;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
 
 import com.bluerobotics.blueberry.schema.parser.parsing.SchemaParserException;
 
@@ -31,12 +34,24 @@ import com.bluerobotics.blueberry.schema.parser.parsing.SchemaParserException;
  * It will pack elements in order and appropriately byte-aligned but -
  * if a smaller word is packed it will be placed in the first available empty spot
  * Note that packing simply means assigning the index and next index of each field
+ * Messages can also be packed compactly, which places the largest aligned fields first to cut down on padding.
  */
 public class BlueberryFieldPacker {
 	/**
-	 * An array of booleans used to keep track of the message packing. Used bytes are true. Unused bytes are false.
+	 * A bitmap used to keep track of the message packing, one bit per byte. Used bytes are set. Unused bytes are clear.
 	 */
-	ArrayList<Boolean> m_bytes = new ArrayList<>();
+	private long[] m_used = new long[1];
+	/**
+	 * The number of bytes that the packed fields span so far, including any padding between them
+	 */
+	private int m_size = 0;
+	/**
+	 * For each alignment, the first aligned byte that is not used yet. No field with that alignment can be placed before it.
+	 * These only ever move forward because bytes are never freed.
+	 * The common alignments of 1, 2, 4 and 8 bytes are kept in an array and any others in a map.
+	 */
+	private final int[] m_firstFree = new int[4];
+	private final HashMap<Integer, Integer> m_firstFreeOther = new HashMap<>();
 	/**
 	 * Recursively computes the index of the specified field and all of its children
 	 * @param f
@@ -80,6 +95,95 @@ public class BlueberryFieldPacker {
 		});
 	}
 
+	/**
+	 * Packs a message so that it takes as few bytes as possible.
+	 * The header is packed first, in order. Then the reorderable fields are placed largest alignment first,
+	 * so that smaller fields fill in behind larger ones instead of leaving padding.
+	 * Structs are placed whole at their own alignment, with their fields in declaration order, so no other field ends up amongst their fields.
+	 * Fields with the same alignment keep their declaration order.
+	 * Any fields after the reorderable ones are then packed in declaration order,
+	 * so that fields added to the end of a message in a later version of the schema do not move the ones that were there before.
+	 * @param f - the message
+	 * @param count - the number of fields after the header that can be reordered, or -1 for all of them
+	 */
+	public static void packCompact(MessageField f, int count) {
+		BlueberryFieldPacker bfp = new BlueberryFieldPacker();
+		List<Field> cs = f.getChildren().getList();
+		int n = Math.min(MessageField.HEADER_FIELD_COUNT, cs.size());
+		int firstOrdinal = 0;
+		for(int i = 0; i < n; ++i) {
+			Field c = cs.get(i);
+			bfp.pack(c);
+			if(c.isNotFiller()) {
+				++firstOrdinal;
+			}
+		}
+		ArrayList<Field> reorder = new ArrayList<>();
+		ArrayList<Field> rest = new ArrayList<>();
+		for(int i = n; i < cs.size(); ++i) {
+			Field c = cs.get(i);
+			if(count < 0 || getOrdinal(c) < firstOrdinal + count) {
+				reorder.add(c);
+			} else {
+				rest.add(c);
+			}
+		}
+		reorder.sort(Comparator.comparingInt(Field::getMinAlignment).reversed());
+		for(Field c : reorder) {
+			bfp.packWhole(c);
+		}
+		for(Field c : rest) {
+			bfp.pack(c);
+		}
+	}
+	/**
+	 * the ordinal of a field as it was declared. Bool field fields don't have their own so they use their first bool's.
+	 */
+	private static int getOrdinal(Field f) {
+		if(f instanceof BoolFieldField) {
+			f = ((BoolFieldField)f).getFirstChild();
+		}
+		return f.getOrdinal();
+	}
+	/**
+	 * packs a field so that all of its bytes are in one block that nothing else is placed in.
+	 * Structs and defined types are packed on their own first, with any structs in them kept whole too,
+	 * and then the whole block is moved to the first place it fits.
+	 * @param f
+	 */
+	private void packWhole(Field f) {
+		if(f instanceof StructField || f instanceof DefinedTypeField) {
+			ParentField pf = (ParentField)f;
+			BlueberryFieldPacker bfp = new BlueberryFieldPacker();
+			pf.getChildren().forEach(ft -> {
+				bfp.packWhole(ft);
+			});
+			f.setIndex(pf.getFirstChild().getIndex());
+			int byteNum = bfp.m_size;
+			int i = byteNum > 0 ? findSpace(byteNum, f.getMinAlignment()) : 0;
+			setUsed(i, byteNum);
+			moveIndeces(f, i);
+		} else {
+			pack(f);
+		}
+	}
+	/**
+	 * moves a struct or defined type and the fields in it by the specified number of bytes.
+	 * The fields of arrays, sequences and bool field fields are not moved because their indeces are relative to their parent.
+	 * @param f
+	 * @param offset
+	 */
+	private static void moveIndeces(Field f, int offset) {
+		if(f instanceof StructField) {
+			((StructField)f).getChildren().forEach(ft -> {
+				moveIndeces(ft, offset);
+			});
+		} else if(f instanceof DefinedTypeField) {
+			moveIndeces(((DefinedTypeField)f).getFirstChild(), offset);
+		}
+		f.setIndex(f.getIndex() + offset);
+	}
+
 	private void pack(StructField f) {
 		f.getChildren().forEach(ft -> {
 			pack(ft);
@@ -128,46 +232,128 @@ public class BlueberryFieldPacker {
 		if(alignment <= 0) {
 			throw new RuntimeException("Field alginement cannot be zero or less ("+alignment+") "+f);
 		}
-		int i = 0;
-		while(i < m_bytes.size()) {
-			if(isEmpty(i, byteNum)) {
+		int i = byteNum > 0 ? findSpace(byteNum, alignment) : 0;
+		
+		//fill in assigned bytes, adding padding if necessary
+		//e.g. if bytes size is 3 and i is 4, then the byte at 3 is left unused
+		setUsed(i, byteNum);
+		
+		//now set the result as the index to the field in question
+		f.setIndex(i);
+	}
+	/**
+	 * finds the first aligned place where the specified number of bytes are all unused.
+	 * Bytes beyond the end of what has been packed so far are all unused.
+	 * @param byteNum - greater than zero
+	 * @param alignment
+	 * @return the index of the first byte
+	 */
+	private int findSpace(int byteNum, int alignment) {
+		int i = getFirstFree(alignment);
+		while(i < m_size) {
+			int used = nextUsed(i, i + byteNum);
+			if(used < 0) {
 				break;
 			} else {
-				i += alignment;
+				//nothing that starts at or before this used byte can fit, nor anything that starts on the used bytes after it
+				i = roundUp(nextUnused(used), alignment);
 			}
 		}
-		
-		//add padding if necessary
-		//e.g. if bytes size is 3 and i is 4, then we would need to add one
-		while(m_bytes.size() < i) {
-			m_bytes.add(false);
-		}
-		//fill in assigned bytes
-		for(int j = i; j < byteNum + i; ++j) {
-			if(j == m_bytes.size()) {
-				m_bytes.add(true);
-			} else if(j > m_bytes.size()) {
-				throw new RuntimeException("Can put stuff beyond the end of the list.");
-			} else {
-				m_bytes.set(j, true);
+		return i;
+	}
+	/**
+	 * advances the first free aligned byte of the specified alignment past any bytes that have been used since it was last checked
+	 * @param alignment
+	 * @return
+	 */
+	private int getFirstFree(int alignment) {
+		int slot = Integer.numberOfTrailingZeros(alignment);
+		boolean common = alignment == Integer.lowestOneBit(alignment) && slot < m_firstFree.length;
+		int i = common ? m_firstFree[slot] : m_firstFreeOther.getOrDefault(alignment, 0);
+		while(isUsed(i)) {
+			i = roundUp(nextUnused(i), alignment);
+		}
+		if(common) {
+			m_firstFree[slot] = i;
+		} else {
+			m_firstFreeOther.put(alignment, i);
+		}
+		return i;
+	}
+	private static int roundUp(int i, int alignment) {
+		int m = i % alignment;
+		return m == 0 ? i : i + alignment - m;
+	}
+	private boolean isUsed(int i) {
+		return i < m_size && (m_used[i >>> 6] & (1L << i)) != 0;
+	}
+	/**
+	 * finds the first used byte in a range
+	 * @param from - the first byte to check
+	 * @param to - one past the last byte to check
+	 * @return the index of the used byte or -1 if they are all unused
+	 */
+	private int nextUsed(int from, int to) {
+		to = Math.min(to, m_size);
+		int result = -1;
+		int w = from >>> 6;
+		long word = from < to ? m_used[w] & (-1L << from) : 0;
+		while(from < to) {
+			if(word != 0) {
+				int i = (w << 6) + Long.numberOfTrailingZeros(word);
+				if(i < to) {
+					result = i;
+				}
+				break;
 			}
+			++w;
+			if((w << 6) >= to) {
+				break;
+			}
+			word = m_used[w];
 		}
-		
-		//now set the result as the index to the field in question
-		f.setIndex(i);
+		return result;
 	}
-
-
-	private boolean isEmpty(int i, int byteNum) {
-		boolean result = true;
-		for(int j = 0; j < byteNum; ++j) {
-			if(m_bytes.get(j + i)){
-				result = false;
+	/**
+	 * finds the first unused byte at or after the specified one
+	 * @param from
+	 * @return the index of the unused byte, which might be the end of the packed bytes
+	 */
+	private int nextUnused(int from) {
+		int result = m_size;
+		int w = from >>> 6;
+		long word = from < m_size ? ~m_used[w] & (-1L << from) : 0;
+		while(from < m_size) {
+			if(word != 0) {
+				result = Math.min((w << 6) + Long.numberOfTrailingZeros(word), m_size);
 				break;
 			}
+			++w;
+			if((w << 6) >= m_size) {
+				break;
+			}
+			word = ~m_used[w];
 		}
 		return result;
 	}
+	/**
+	 * marks a range of bytes as used, extending the packed bytes if needed
+	 * @param from
+	 * @param byteNum
+	 */
+	private void setUsed(int from, int byteNum) {
+		int to = from + byteNum;
+		if(to > m_size) {
+			m_size = to;
+			int words = ((to - 1) >>> 6) + 1;
+			if(words > m_used.length) {
+				m_used = Arrays.copyOf(m_used, Math.max(words, m_used.length * 2));
+			}
+		}
+		for(int j = from; j < to; ++j) {
+			m_used[j >>> 6] |= 1L << j;
+		}
+	}
 
 	
 	
@@ -21,8 +21,8 @@ THE SOFTWARE.
 */
 package com.bluerobotics.blueberry.schema.parser.fields;
 
-import java.util.ListIterator;
 
+import com.bluerobotics.blueberry.schema.parser.parsing.SchemaSnapshot;
 import com.bluerobotics.blueberry.schema.parser.tokens.Coord;
 import com.bluerobotics.blueberry.schema.parser.types.TypeId;
 
@@ -30,6 +30,7 @@ import com.bluerobotics.blueberry.schema.parser.types.TypeId;
  * A Field to contain 8 booleans
  */
 public class BoolFieldField extends ParentField {
+	private static final long serialVersionUID = SchemaSnapshot.VERSION;
 
 	public BoolFieldField(Coord c) {
 		super(null, null, TypeId.BOOLFIELD, null, c);
@@ -54,31 +55,23 @@ public class BoolFieldField extends ParentField {
 	}
 
 	@Override
-	public int getMinAlignment() {
+	protected int computeMinAlignment() {
 		return 1;
 	}
 
 	@Override
-	public int getPaddedByteCount() {
-		return getByteCount();
+	protected int computePaddedByteCount(int byteCount, int minAlignment) {
+		return byteCount;
 	}
 
 	@Override
-	public int getBitCount() {
+	protected int computeBitCount(int childBitCount) {
 		return 8;
 	}
 
 	@Override
 	public int getOrdinal() {
-		int result = -1;
-		ListIterator<Field> fs = getChildren().getIterator();
-		while(fs.hasNext()) {
-			Field f = fs.next();
-			if(f.getOrdinal() > result) {
-				result = f.getOrdinal();
-			}
-		}
-		return result;
+		return getLayout().getMaxOrdinal();
 	}
 
 	
@@ -21,6 +21,7 @@ THE SOFTWARE.
 */
 package com.bluerobotics.blueberry.schema.parser.fields;
 
+import com.bluerobotics.blueberry.schema.parser.parsing.SchemaSnapshot;
 import com.bluerobotics.blueberry.schema.parser.tokens.Coord;
 import com.bluerobotics.blueberry.schema.parser.types.TypeId;
 
@@ -28,6 +29,7 @@ import com.bluerobotics.blueberry.schema.parser.types.TypeId;
  * An interface for a deferred field. That means the type must be looked up later
  */
 public class DeferredField extends AbstractField {
+	private static final long serialVersionUID = SchemaSnapshot.VERSION;
 	private final ScopeName[] m_imports;
 	public DeferredField(SymbolName name, ScopeName type, ScopeName[] imports, String comment, Coord c) {
 		super(name, type, TypeId.DEFERRED, comment, c);
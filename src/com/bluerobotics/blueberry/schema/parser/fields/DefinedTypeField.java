@@ -24,6 +24,7 @@ package com.bluerobotics.blueberry.schema.parser.fields;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.bluerobotics.blueberry.schema.parser.parsing.SchemaSnapshot;
 import com.bluerobotics.blueberry.schema.parser.tokens.Coord;
 import com.bluerobotics.blueberry.schema.parser.types.TypeId;
 
@@ -36,13 +37,14 @@ import com.bluerobotics.blueberry.schema.parser.types.TypeId;
  * Note that if this turns out to be referencing an array type then probably this field will get replaced later by an array field
  */
 public class DefinedTypeField extends ParentField {
+	private static final long serialVersionUID = SchemaSnapshot.VERSION;
 	public DefinedTypeField(SymbolName name, ScopeName type, String comment, Coord c) {
 		super(name, type, TypeId.DEFINED, comment, c);
 		
 	}
 	
 	@Override
-	public int getBitCount() {
+	protected int computeBitCount(int childBitCount) {
 		return getFirstChild().getBitCount();
 	}
 	@Override
@@ -62,12 +64,12 @@ public class DefinedTypeField extends ParentField {
 	}
 
 	@Override
-	public int getMinAlignment() {
+	protected int computeMinAlignment() {
 		return getFirstChild().getMinAlignment();
 	}
 
 	@Override
-	public int getPaddedByteCount() {
+	protected int computePaddedByteCount(int byteCount, int minAlignment) {
 		return getFirstChild().getPaddedByteCount();
 	}
 	
@@ -21,10 +21,13 @@ THE SOFTWARE.
 */
 package com.bluerobotics.blueberry.schema.parser.fields;
 
+import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.ListIterator;
 
+import com.bluerobotics.blueberry.schema.parser.parsing.SchemaSnapshot;
 import com.bluerobotics.blueberry.schema.parser.types.TypeId;
 import com.bluerobotics.blueberry.schema.parser.writers.WriterUtils;
 import com.bluerobotics.blueberry.schema.parser.constants.Number;
@@ -34,15 +37,19 @@ import com.bluerobotics.blueberry.schema.parser.tokens.Coord;
  * 
  */
 public class EnumField extends AbstractField {
-	public class NameValue {
+	private static final long serialVersionUID = SchemaSnapshot.VERSION;
+	public class NameValue implements Serializable {
+		private static final long serialVersionUID = SchemaSnapshot.VERSION;
 		SymbolName name;
 		Number value;
 		boolean isValue;
 		String comment;
-		public NameValue(SymbolName n, Number v, String c) {
+		Coord coord;
+		public NameValue(SymbolName n, Number v, String c, Coord cd) {
 			name = n;
 			value = v;
 			comment = c;
+			coord = cd;
 		}
 		public SymbolName getName() {
 			return name;
@@ -53,6 +60,13 @@ public class EnumField extends AbstractField {
 		public String getComment() {
 			return comment;
 		}
+		/**
+		 * where this item was defined
+		 * @return
+		 */
+		public Coord getCoord() {
+			return coord;
+		}
 
 		public String toString() {
 			return getClass().getSimpleName() + "(" + name.toUpperSnakeString() + " = " + value + ")";
@@ -67,8 +81,8 @@ public class EnumField extends AbstractField {
 		super(name, type, id, comment, c);
 	}
 	
-	public void addNameValue(SymbolName name, Number value, String comment) {
-		m_nameValues.add(new NameValue(name,value, comment));
+	public void addNameValue(SymbolName name, Number value, String comment, Coord c) {
+		m_nameValues.add(new NameValue(name,value, comment, c));
 	}
 	
 
@@ -97,16 +111,20 @@ public class EnumField extends AbstractField {
 
 	 */
 	public void fillInMissingValues() {
-		long maxV = Long.MIN_VALUE;
+		HashSet<Long> used = new HashSet<>();
+		for(NameValue nv : m_nameValues) {
+			used.add(nv.getValue().asLong());
+		}
 		long i = 0;
 		ListIterator<NameValue> nvs = m_nameValues.listIterator();
 		while(nvs.hasNext()) {
 			NameValue nv = nvs.next();
 			if(nv.getValue().isNan()) {
-				while(exists(i)){
+				while(used.contains(i)){
 					++i;
 				}
-				NameValue nv2 = new NameValue(nv.getName(), new Number(i), nv.getComment());
+				used.add(i);
+				NameValue nv2 = new NameValue(nv.getName(), new Number(i), nv.getComment(), nv.getCoord());
 				nvs.set(nv2);
 			} else {
 				
@@ -118,16 +136,6 @@ public class EnumField extends AbstractField {
 	}
 
 	
-	private boolean exists(long v) {
-		boolean result = false;
-		for(NameValue nv : m_nameValues) {
-			if(nv.getValue().asLong() == v) {
-				result = true;
-				break;
-			}
-		}
-		return result;
-	}
 	private long getMin() {
 		long v = Long.MAX_VALUE;
 		for(NameValue nv : m_nameValues) {
@@ -142,4 +142,10 @@ public interface Field extends ThingFromFile, AnnotationOwner {
 	 * @param o
 	 */
 	public void setOrdinal(int o);
+	/**
+	 * gets the indeces of all the arrays and sequences that contain this field, from the message down
+	 * These are computed once the message has been packed. Before that they are worked out on each call.
+	 * @return an unmodifiable list
+	 */
+	public List<MultipleField.Index> getIndexChain();
 }
\ No newline at end of file
@@ -21,25 +21,82 @@ THE SOFTWARE.
 */
 package com.bluerobotics.blueberry.schema.parser.fields;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
+import com.bluerobotics.blueberry.schema.parser.parsing.SchemaSnapshot;
+
 /**
  * 
  */
-public class FieldList {
+public class FieldList implements Serializable {
+	private static final long serialVersionUID = SchemaSnapshot.VERSION;
 	private final ArrayList<Field> m_fields = new ArrayList<Field>();
+	/**
+	 * the parent field whose children these are, if any. It is told whenever the list changes so it can drop its cached layout.
+	 */
+	private final ParentField m_owner;
+	/**
+	 * the list that the owner of this list was last added to, if that list has an owner too.
+	 * Changes are passed up through these, much like ParentField.invalidateLayout, so that the deep indeces above see changes below them.
+	 * Lists without an owner, such as temporary copies, never get changes passed up to them and never pass theirs on.
+	 */
+	private FieldList m_container = null;
+	/**
+	 * counts changes to this list, so its indeces can tell if they are out of date
+	 */
+	private transient volatile long m_version = 0;
+	/**
+	 * counts changes to this list and to all of the lists below it, so its deep indeces can tell if they are out of date
+	 */
+	private transient volatile long m_deepVersion = 0;
+	/**
+	 * lookups into this list that are built when first needed and dropped when this list changes
+	 */
+	private transient volatile Indeces m_indeces = null;
+	/**
+	 * lookups through this list and all the lists below it, which are dropped when any of them change.
+	 * Only lists with an owner keep these, because other lists don't hear about changes below them.
+	 */
+	private transient volatile DeepIndeces m_deepIndeces = null;
+	private static final class Indeces {
+		private final long version;
+		private final ConcurrentHashMap<Class<?>, List<Field>> byClass = new ConcurrentHashMap<>();
+		private volatile HashMap<SymbolName, Field> byName = null;
+		private Indeces(long v) {
+			version = v;
+		}
+	}
+	private static final class DeepIndeces {
+		private final long version;
+		private final ConcurrentHashMap<Class<?>, List<Field>> byClass = new ConcurrentHashMap<>();
+		private volatile List<Field> deep = null;
+		private DeepIndeces(long v) {
+			version = v;
+		}
+	}
 	public void add(Field f){
 		m_fields.add(f);
+		contain(f);
+		changed();
 	}
 	public FieldList() {
+		m_owner = null;
+	}
+	FieldList(ParentField owner) {
+		m_owner = owner;
 	}
 	private FieldList(ArrayList<Field> fs) {
+		m_owner = null;
 		for(Field f : fs) {
 			m_fields.add(f);
 		}
@@ -48,6 +105,27 @@ public class FieldList {
 
 	private void sort(Comparator<Field> comp) {
 		Collections.sort(m_fields, comp);
+		changed();
+	}
+	private void changed() {
+		++m_version;
+		FieldList fl = this;
+		while(fl != null) {
+			++fl.m_deepVersion;
+			fl = fl.m_container;
+		}
+		if(m_owner != null) {
+			m_owner.invalidateLayout();
+		}
+	}
+	/**
+	 * makes this list the container of a parent field's children, if this list has an owner, so that changes to them are passed up to this list
+	 * @param f
+	 */
+	private void contain(Field f) {
+		if(m_owner != null && f instanceof ParentField) {
+			((ParentField)f).getChildren().m_container = this;
+		}
 	}
 	public FieldList makeListSortedByName() {
 		FieldList result = new FieldList(m_fields);
@@ -87,15 +165,94 @@ public class FieldList {
 	 * @param con
 	 */
 	public <T extends Field> void forEachOfType(Class<T> c, boolean deep, Consumer<T> con) {
-		for(Field f : m_fields) {
-			if(c.isInstance(f)) {
-				T cf = c.cast(f);
-				con.accept(cf);
-			} else if(f instanceof ParentField && deep) {
-				ParentField pf = (ParentField)f;
-				pf.getChildren().forEachOfType(c, deep, con);
+		for(Field f : getOfType(c, deep)) {
+			con.accept(c.cast(f));
+		}
+	}
+	/**
+	 * gets the indeces for this list, starting over if this list has changed since they were made
+	 * @return
+	 */
+	private Indeces getIndeces() {
+		Indeces result = m_indeces;
+		long v = m_version;
+		if(result == null || result.version != v) {
+			result = new Indeces(v);
+			m_indeces = result;
+		}
+		return result;
+	}
+	/**
+	 * gets the deep indeces for this list, starting over if this or any list below it has changed since they were made
+	 * @return null if this list has no owner, so can't keep deep indeces
+	 */
+	private DeepIndeces getDeepIndeces() {
+		DeepIndeces result = null;
+		if(m_owner != null) {
+			result = m_deepIndeces;
+			long v = m_deepVersion;
+			if(result == null || result.version != v) {
+				result = new DeepIndeces(v);
+				m_deepIndeces = result;
 			}
 		}
+		return result;
+	}
+	/**
+	 * gets all members of this list that are of the specified type, in order.
+	 * A deep search also looks through the children of parent fields that are not of the type.
+	 * @param c
+	 * @param deep
+	 * @return an unmodifiable list, which is the same one each time until something changes
+	 */
+	List<Field> getOfType(Class<?> c, boolean deep) {
+		Map<Class<?>, List<Field>> byClass;
+		if(deep) {
+			DeepIndeces dis = getDeepIndeces();
+			byClass = dis == null ? null : dis.byClass;
+		} else {
+			byClass = getIndeces().byClass;
+		}
+		List<Field> result = byClass == null ? null : byClass.get(c);
+		if(result == null) {
+			ArrayList<Field> fs = new ArrayList<>();
+			for(Field f : m_fields) {
+				if(c.isInstance(f)) {
+					fs.add(f);
+				} else if(f instanceof ParentField && deep) {
+					ParentField pf = (ParentField)f;
+					fs.addAll(pf.getChildren().getOfType(c, deep));
+				}
+			}
+			result = Collections.unmodifiableList(fs);
+			if(byClass != null) {
+				byClass.putIfAbsent(c, result);
+			}
+		}
+		return result;
+	}
+	/**
+	 * gets every field in this list and all of their children, recursively, with each parent before its children
+	 * @return an unmodifiable list
+	 */
+	private List<Field> getDeep() {
+		DeepIndeces dis = getDeepIndeces();
+		List<Field> result = dis == null ? null : dis.deep;
+		if(result == null) {
+			ArrayList<Field> fs = new ArrayList<>();
+			for(Field f : m_fields) {
+				fs.add(f);
+				if(f instanceof ParentField) {
+					ParentField pf = (ParentField)f;
+					fs.addAll(pf.getChildren().getDeep());
+				}
+			}
+			result = Collections.unmodifiableList(fs);
+			if(dis != null) {
+				dis.deep = result;
+			}
+		}
+		return result;
 	}
 	/**
 	 * Applies the specified consumer to all members of this list that are of the specified type and whose type name is in the specified scope
@@ -156,16 +313,13 @@ public class FieldList {
 	 * @param con - consumer to apply to each element
 	 */
 	public void forEach(boolean deep, Consumer<Field> con) {
-		for(Field f : m_fields) {
+		for(Field f : deep ? getDeep() : m_fields) {
 			con.accept(f);
-			if(f instanceof ParentField && deep) {
-				ParentField pf = (ParentField)f;
-				pf.getChildren().forEach(deep, con);
-			}
 		}
 	}
 	public void clear() {
 		m_fields.clear();
+		changed();
 	}
 	public int size() {
 		return m_fields.size();
@@ -175,12 +329,61 @@ public class FieldList {
 	}
 	public void set(int i, Field f) {
 		m_fields.set(i, f);
+		contain(f);
+		changed();
 	}
 	public List<Field> getList(){
-		return m_fields;
+		return Collections.unmodifiableList(m_fields);
 	}
+	/**
+	 * an iterator that can also be used to change this list
+	 * @return
+	 */
 	public ListIterator<Field> getIterator(){
-		return m_fields.listIterator();
+		ListIterator<Field> li = m_fields.listIterator();
+		return new ListIterator<Field>() {
+			@Override
+			public boolean hasNext() {
+				return li.hasNext();
+			}
+			@Override
+			public Field next() {
+				return li.next();
+			}
+			@Override
+			public boolean hasPrevious() {
+				return li.hasPrevious();
+			}
+			@Override
+			public Field previous() {
+				return li.previous();
+			}
+			@Override
+			public int nextIndex() {
+				return li.nextIndex();
+			}
+			@Override
+			public int previousIndex() {
+				return li.previousIndex();
+			}
+			@Override
+			public void remove() {
+				li.remove();
+				changed();
+			}
+			@Override
+			public void set(Field f) {
+				li.set(f);
+				contain(f);
+				changed();
+			}
+			@Override
+			public void add(Field f) {
+				li.add(f);
+				contain(f);
+				changed();
+			}
+		};
 	}
 	public Field getFirst() {
 		return m_fields.getFirst();
@@ -194,14 +397,18 @@ public class FieldList {
 	 * @return
 	 */
 	public Field getByName(SymbolName n) {
-		Field result = null;
-		for(Field f : m_fields) {
-			if(f.getName() != null && f.getName().equals(n)) {
-				result = f;
-				break;
+		Indeces is = getIndeces();
+		HashMap<SymbolName, Field> byName = is.byName;
+		if(byName == null) {
+			byName = new HashMap<>();
+			for(Field f : m_fields) {
+				if(f.getName() != null) {
+					byName.putIfAbsent(f.getName(), f);
+				}
 			}
+			is.byName = byName;
 		}
-		return result;
+		return byName.get(n);
 	}
 	/**
 	 * scans the children for instances of the specified class.
@@ -211,21 +418,7 @@ public class FieldList {
 	 * @return
 	 */
 	public<T extends Field> boolean isChildrenOfType(Class<T> c, boolean deep) {
-		boolean result = false;
-		for(Field f : m_fields) {
-			if(c.isInstance(f)) {
-				result = true;
-				break;
-			} else if(deep && f instanceof ParentField) {
-				ParentField pf = (ParentField)f;
-				if(pf.getChildren().isChildrenOfType(c, true)) {
-					result = true;
-					break;
-				}
-			}
-		}
-		
-		return result;
+		return !getOfType(c, deep).isEmpty();
 	}
 	public FieldList duplicate() {
 		FieldList result = new FieldList(m_fields);
@@ -233,5 +426,6 @@ public class FieldList {
 	}
 	public void remove(Field f) {
 		m_fields.remove(f);
+		changed();
 	}
 }
@@ -21,6 +21,7 @@ THE SOFTWARE.
 */
 package com.bluerobotics.blueberry.schema.parser.fields;
 
+import com.bluerobotics.blueberry.schema.parser.parsing.SchemaSnapshot;
 import com.bluerobotics.blueberry.schema.parser.tokens.Coord;
 import com.bluerobotics.blueberry.schema.parser.types.TypeId;
 
@@ -28,6 +29,7 @@ import com.bluerobotics.blueberry.schema.parser.types.TypeId;
  * A field that will not be encoded but takes up space
  */
 public class FillerByteField extends BaseField {
+	private static final long serialVersionUID = SchemaSnapshot.VERSION;
 	private static int m_protoNum = 0;
 	private static final int m_num = getNextNum();
 
@@ -25,6 +25,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import com.bluerobotics.blueberry.schema.parser.parsing.SchemaParserException;
+import com.bluerobotics.blueberry.schema.parser.parsing.SchemaSnapshot;
 import com.bluerobotics.blueberry.schema.parser.tokens.Annotation;
 import com.bluerobotics.blueberry.schema.parser.tokens.Coord;
 import com.bluerobotics.blueberry.schema.parser.types.TypeId;
@@ -33,9 +34,12 @@ import com.bluerobotics.blueberry.schema.parser.constants.Number;
  *
  */
 public class MessageField extends ParentField {
+	private static final long serialVersionUID = SchemaSnapshot.VERSION;
 	public static final SymbolName MODULE_MESSAGE_KEY_FIELD_NAME = SymbolName.fromCamel("moduleMessageKey");
 	public static final SymbolName MAX_ORDINAL_FIELD_NAME = SymbolName.fromCamel("maxOrdinal");
 	public static final SymbolName LENGTH_FIELD_NAME = SymbolName.fromCamel("length");
+	public static final int HEADER_FIELD_COUNT = 4;//the number of header fields that the constructor adds, including filler
+	public static final String COMPACT_PACKING = "compact";
 
 
 	public MessageField(SymbolName name, ScopeName typeName, String comment, Coord c) {
@@ -71,16 +75,27 @@ public class MessageField extends ParentField {
 	}
 
 	@Override
-	public int getMinAlignment() {
+	protected int computeMinAlignment() {
 		return 4;
 	}
 	@Override
-	public int getPaddedByteCount() {
-		int result = getByteCount();
-		int m = result % getMinAlignment();
+	protected int computePaddedByteCount(int byteCount, int minAlignment) {
+		int result = byteCount;
+		int m = result % minAlignment;
 		result += m;
 		return result;
 	}
+	/**
+	 * computes and stores the index chain of every field in this message.
+	 * This should be called once the message has been packed because the chains include the element sizes
+	 */
+	public void computeIndexChains() {
+		scanThroughDeepFields(f -> {
+			if(f instanceof AbstractField) {
+				((AbstractField)f).setIndexChain(MultipleField.makeIndexChain(f));
+			}
+		});
+	}
 	/**
 	 * looks for a serialization annotation and checks for a value of CDR
 	 * @return
@@ -97,6 +112,37 @@ public class MessageField extends ParentField {
 		}
 		return result;
 	}
+	/**
+	 * looks for a packing annotation and checks for a value of compact
+	 * @return
+	 */
+	public boolean useCompactPacking() {
+		boolean result = false;
+		Annotation a = getAnnotation(Annotation.KnownAnnotation.PACKING.getName());
+		if(a != null) {
+			Object s = a.getParameter(Object.class);
+			if(s != null && s.toString().equalsIgnoreCase(COMPACT_PACKING)) {
+				result = true;
+			}
+		}
+		return result;
+	}
+	/**
+	 * the number of fields after the header that compact packing may reorder.
+	 * Fields declared after these are packed in order so that adding fields to a message does not move the existing ones.
+	 * @return the number of fields or -1 if all fields can be reordered
+	 */
+	public int getCompactFieldCount() {
+		int result = -1;
+		Annotation a = getAnnotation(Annotation.KnownAnnotation.PACKING.getName());
+		if(a != null) {
+			Number n = a.getParameter(Number.class);
+			if(n != null) {
+				result = n.asInt();
+			}
+		}
+		return result;
+	}
 	/**
 	 * looks for a topic annotation and returns the string value of the parameter
 	 * @return
@@ -164,11 +210,7 @@ public class MessageField extends ParentField {
 	}
 
 	public int getMaxOrdinal() {
-		Field f = getLastChild();
-		if(f.getBitCount() == 1) {
-			f = f.getParent();
-		}
-		return f.getOrdinal();
+		return getLayout().getMaxOrdinal();
 	}
 
 }
@@ -22,6 +22,7 @@ THE SOFTWARE.
 package com.bluerobotics.blueberry.schema.parser.fields;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.function.Function;
 
@@ -42,7 +43,7 @@ public interface MultipleField extends Field {
 		public final String type;//either "array" or "sequence"
 		public final boolean arrayNotSequence;//true if p is an array, false if p is a sequence
 		public final int bytesPerElement;
-		public String paramName;
+		public final String paramName;//the name of the index parameter in generated code. Only set for indeces in an index chain
 		Index(MultipleField pf, int j, int ofM, int num, int bpe){
 			p = pf;
 			i = j;
@@ -53,13 +54,45 @@ public interface MultipleField extends Field {
 			paramName = "";
 			bytesPerElement = bpe;
 		}
+		private Index(Index idx, String pn) {
+			p = idx.p;
+			i = idx.i;
+			n = idx.n;
+			ofN = idx.ofN;
+			arrayNotSequence = idx.arrayNotSequence;
+			type = idx.type;
+			paramName = pn;
+			bytesPerElement = idx.bytesPerElement;
+		}
+		/**
+		 * makes a copy of this index with the specified parameter name
+		 * @param pn
+		 * @return
+		 */
+		public Index withParamName(String pn) {
+			return new Index(this, pn);
+		}
 		
 	}
 	
 	
 	public List<Index> getIndeces();
 		
+	/**
+	 * gets the indeces of all the arrays and sequences that contain the specified field, from the message down.
+	 * This is the index chain that was computed when the message was packed, if there is one.
+	 * @param f
+	 * @return
+	 */
 	public static List<Index> getIndeces(Field f){
+		return f.getIndexChain();
+	}
+	/**
+	 * Scans upward from the specified field to its message and notes any array fields along the way
+	 * @param f
+	 * @return an unmodifiable list of indeces, from the top down
+	 */
+	public static List<Index> makeIndexChain(Field f) {
 		return getIndeces(f, ft -> (ft.getTypeId() != TypeId.MESSAGE));
 	}
 	
@@ -67,7 +100,7 @@ public interface MultipleField extends Field {
 	 * Scans upward from the specified field to the specified ParentField and note any array fields along the way
 	 * @param f
 	 * @param keepGoing - a function that checks the current field and returns true if it should keep scanning upwards, false if it should stop
-	 * @return
+	 * @return an unmodifiable list of indeces, from the top down
 	 */
 	public static List<Index> getIndeces(Field f, Function<Field, Boolean> keepGoing) {
 		
@@ -90,18 +123,15 @@ public interface MultipleField extends Field {
 		for(ParentField pft : pfs) {
 			
 			if(pft instanceof MultipleField) {
-				result.addAll(((MultipleField)pft).getIndeces());
+				for(Index pi : ((MultipleField)pft).getIndeces()) {
+					result.add(pi.withParamName("i"+result.size()));
+				}
 			}
 			
 			
 		}
 		
-		for(int i = 0; i < result.size(); ++i) {
-			Index pi = result.get(i);
-			pi.paramName = "i"+i;
-		}
-		
-		return result;
+		return Collections.unmodifiableList(result);
 	}
 		
 	
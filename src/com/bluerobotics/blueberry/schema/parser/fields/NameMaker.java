@@ -81,6 +81,14 @@ public class NameMaker {
 		
 		return mf.getTypeName().deScope().append("max","ordinal").toUpperSnakeString();
 	}
+	/**
+	 * makes the name of the per-thread reusable instance of a message
+	 * @param mf
+	 * @return
+	 */
+	public static String makeMessageViewName(MessageField mf) {
+		return mf.getTypeName().deScope().append("view").toUpperSnakeString();
+	}
 
 	/**
 	 * Traverse the parent hierarchy of this field until a message field is reached
@@ -205,6 +213,9 @@ public class NameMaker {
 	public static String makeStringCopierName(StringField f, boolean toNotFrom, boolean includeMessage) {
 		return "copy"+(toNotFrom ? "To" : "From")+makeScopeName(f, includeMessage).toSymbolName().toUpperCamelString();
 	}
+	public static String makeArrayCopierName(Field f, boolean toNotFrom, boolean includeMessage) {
+		return "copy"+(toNotFrom ? "To" : "From")+makeScopeName(f, includeMessage).toSymbolName().toUpperCamelString();
+	}
 	public static String makeStringLengthGetterName(StringField f, boolean includeMessage) {
 		ScopeName name = NameMaker.makeScopeName(f, includeMessage);
 
@@ -217,6 +228,38 @@ public class NameMaker {
 	public static String makeSequenceInitName(SequenceField sf, boolean includeMessage) {
 		return "init"+NameMaker.makeScopeName(sf, includeMessage).toSymbolName().toUpperCamelString();
 	}
+	/**
+	 * makes the name of the cursor type that is used to step through the elements of a sequence
+	 * @param sf
+	 * @param includeMessage
+	 * @return
+	 */
+	public static String makeSequenceCursorName(SequenceField sf, boolean includeMessage) {
+		return makeScopeName(sf, includeMessage).toSymbolName().append("cursor").toUpperCamelString();
+	}
+	/**
+	 * makes a name for a field from all the names between it and the sequence that contains it
+	 * This is used to name the members of a sequence cursor. If there are no names in between then "element" is used.
+	 * @param f
+	 * @param sf - a sequence that contains the field
+	 * @return
+	 */
+	public static SymbolName makeCursorRelativeName(Field f, SequenceField sf) {
+		ScopeName result = ScopeName.wrap(SymbolName.EMPTY);
+		Field ft = f;
+		while(ft != null && ft != sf) {
+			result = result.addLevelAbove(ft.getName());
+			ft = ft.getParent();
+		}
+		SymbolName sn = result.toSymbolName();
+		if(sn.isEmpty()) {
+			sn = SymbolName.fromCamel("element");
+		}
+		return sn;
+	}
+	public static String makeCMessageDispatchFileName(boolean headerNotSource) {
+		return headerNotSource ? "message_dispatch.h" : "message_dispatch.c";
+	}
 	public static String makeCModuleFileName(BlueModule m, boolean headerNotSource) {
 //		String result = m.getName().deScope().toLowerCamel().toString();
 		String result = m.getName().makeRelative().toLowerSnake("_");
@@ -237,6 +280,17 @@ public class NameMaker {
 	public static SymbolName makeJavaMessageClass(MessageField msg) {
 		return msg.getTypeName().deScope().toUpperCamel();
 	}
+	public static String makeJavaDispatcherClass() {
+		return "MessageDispatcher";
+	}
+	/**
+	 * makes the name of the method or function pointer that handles a received message in a message dispatcher
+	 * @param msg
+	 * @return
+	 */
+	public static String makeMessageHandlerName(MessageField msg) {
+		return msg.getTypeName().deScope().prepend("on").toLowerCamelString();
+	}
 
 	public static SymbolName makeMessageModuleMessageConstant(MessageField mf) {
 		return mf.getTypeName().deScope().append("module","message", "key").toUpperSnake();
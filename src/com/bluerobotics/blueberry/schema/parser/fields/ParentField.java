@@ -27,6 +27,7 @@ import java.util.ListIterator;
 import java.util.function.Consumer;
 
 import com.bluerobotics.blueberry.schema.parser.parsing.SchemaParserException;
+import com.bluerobotics.blueberry.schema.parser.parsing.SchemaSnapshot;
 import com.bluerobotics.blueberry.schema.parser.tokens.Coord;
 import com.bluerobotics.blueberry.schema.parser.types.BaseType;
 import com.bluerobotics.blueberry.schema.parser.types.Type;
@@ -36,27 +37,176 @@ import com.bluerobotics.blueberry.schema.parser.types.TypeId;
  * An abstract field that adds the concept of child fields
  */
 public abstract class ParentField extends AbstractField {
-	private final FieldList m_children = new FieldList();
+	private static final long serialVersionUID = SchemaSnapshot.VERSION;
+	/**
+	 * created on first use rather than during construction so that this field is fully constructed before the list refers to it
+	 */
+	private FieldList m_children = null;
+	/**
+	 * the layout metrics of this field, computed on demand and dropped whenever the tree below it changes
+	 */
+	private transient Layout m_layout = null;
 	protected ParentField(SymbolName name, ScopeName typeName, TypeId typeId, String comment, Coord c) {
 		super(name, typeName, typeId, comment, c);
 	}
 	public void add(Field f) {
-		m_children.add(f);
+		getChildren().add(f);
+	}
+	
+	/**
+	 * A summary of the size and placement of a parent field and its children.
+	 * These are all derived from the indeces and sizes of the children so they only change when the children do.
+	 */
+	public static final class Layout {
+		private final int m_bitCount;
+		private final int m_childBitCount;
+		private final int m_minAlignment;
+		private final int m_paddedByteCount;
+		private final int m_minIndex;
+		private final int m_maxIndex;
+		private final int m_minOrdinal;
+		private final int m_maxOrdinal;
+		private Layout(ParentField pf) {
+			FieldList cs = pf.getChildren();
+			int n = cs.size();
+			Field fMin = n > 0 ? cs.get(0) : null;
+			Field fMax = fMin;
+			int minOrdinal = Integer.MAX_VALUE;
+			int maxOrdinal = -1;
+			int end = Integer.MIN_VALUE;
+			for(int j = 0; j < n; ++j) {
+				Field f = cs.get(j);
+				
+				if(fMin.getIndex() > f.getIndex()) {
+					fMin = f;
+				} else if(fMax.getIndex() < f.getIndex()) {
+					fMax = f;
+				}
+				//the last child to start is not always the last to end, e.g. a struct whose fields were packed around a later one
+				end = Math.max(end, f.getNextIndex());
+				int o = f.getOrdinal();
+				if(o >= 0) {
+					minOrdinal = Math.min(minOrdinal, o);
+					maxOrdinal = Math.max(maxOrdinal, o);
+				}
+			}
+			m_minIndex = fMin == null ? -1 : fMin.getIndex();
+			m_maxIndex = fMax == null ? -1 : fMax.getIndex();
+			m_minOrdinal = maxOrdinal < 0 ? -1 : minOrdinal;
+			m_maxOrdinal = maxOrdinal;
+			m_childBitCount = fMax == null ? 0 : (end - m_minIndex) * 8;
+			m_bitCount = pf.computeBitCount(m_childBitCount);
+			m_minAlignment = pf.computeMinAlignment();
+			m_paddedByteCount = pf.computePaddedByteCount(m_bitCount / 8, m_minAlignment);
+		}
+		/**
+		 * the number of bits this field takes up
+		 * @return
+		 */
+		public int getBitCount() {
+			return m_bitCount;
+		}
+		public int getByteCount() {
+			return m_bitCount / 8;
+		}
+		/**
+		 * the number of bits from the start of the first child to the end of the last one
+		 * @return
+		 */
+		public int getChildBitCount() {
+			return m_childBitCount;
+		}
+		public int getMinAlignment() {
+			return m_minAlignment;
+		}
+		public int getPaddedByteCount() {
+			return m_paddedByteCount;
+		}
+		/**
+		 * the lowest index of any child
+		 * @return -1 if there are no children
+		 */
+		public int getMinIndex() {
+			return m_minIndex;
+		}
+		/**
+		 * the highest index of any child
+		 * @return -1 if there are no children
+		 */
+		public int getMaxIndex() {
+			return m_maxIndex;
+		}
+		/**
+		 * the lowest ordinal of any child
+		 * @return -1 if no children have an ordinal
+		 */
+		public int getMinOrdinal() {
+			return m_minOrdinal;
+		}
+		/**
+		 * the highest ordinal of any child
+		 * @return -1 if no children have an ordinal
+		 */
+		public int getMaxOrdinal() {
+			return m_maxOrdinal;
+		}
+	}
+	/**
+	 * gets the layout metrics of this field, computing them if anything has changed since they were last asked for
+	 * @return
+	 */
+	public Layout getLayout() {
+		Layout result = m_layout;
+		if(result == null) {
+			result = new Layout(this);
+			m_layout = result;
+		}
+		return result;
+	}
+	/**
+	 * drops the cached layout of this field and all of its ancestors, as they all depend on it
+	 */
+	void invalidateLayout() {
+		ParentField pf = this;
+		while(pf != null) {
+			pf.m_layout = null;
+			pf = pf.getParent();
+		}
 	}
+	/**
+	 * computes the number of bits this field takes up
+	 * @param childBitCount - the number of bits from the start of the first child to the end of the last one
+	 * @return
+	 */
+	protected int computeBitCount(int childBitCount) {
+		return childBitCount;
+	}
+	/**
+	 * computes the minimum alignment of this field
+	 * @return
+	 */
+	protected abstract int computeMinAlignment();
+	/**
+	 * computes the number of bytes this field needs if placed end to end with itself
+	 * @param byteCount - the number of bytes this field takes up
+	 * @param minAlignment - the minimum alignment of this field
+	 * @return
+	 */
+	protected abstract int computePaddedByteCount(int byteCount, int minAlignment);
 
 	/**
 	 * Applies this specified consumer to all children of only the first level of this parental hierarchy
 	 * @param c
 	 */
 	public void scanThroughFields(Consumer<Field> c) {
-		m_children.forEach(c);
+		getChildren().forEach(c);
 	}
 	/**
 	 * Applies the specified consumer to all children of this parent field, recursively.
 	 * @param c
 	 */
 	public void scanThroughDeepFields(Consumer<Field> c) {
-		m_children.forEach(f -> {
+		getChildren().forEach(f -> {
 			if(f instanceof ParentField) {
 				ParentField pf = (ParentField)f;
 				pf.scanThroughDeepFields(c);
@@ -77,10 +227,15 @@ public abstract class ParentField extends AbstractField {
 		});
 	}
 	public FieldList getChildren(){
-		return m_children;
+		FieldList result = m_children;
+		if(result == null) {
+			result = new FieldList(this);
+			m_children = result;
+		}
+		return result;
 	}
 	public int size() {
-		return m_children.size();
+		return getChildren().size();
 	}
 	/**
 	 * Gets the first assigned child field
@@ -89,7 +244,7 @@ public abstract class ParentField extends AbstractField {
 	 */
 	public Field getFirstChild() throws SchemaParserException {
 		checkSize();
-		return m_children.getFirst();
+		return getChildren().getFirst();
 	}
 	/**
 	 * Gets the last assigned child field
@@ -98,53 +253,29 @@ public abstract class ParentField extends AbstractField {
 	 */
 	public Field getLastChild() throws SchemaParserException {
 		checkSize();
-		return m_children.getLast();
+		return getChildren().getLast();
 	}
 	/**
 	 * Checks to be sure there have been children-fields added
 	 * @throws SchemaParserException - if there are no children
 	 */
 	protected void checkSize() throws SchemaParserException {
-		if(m_children.size() <= 0) {
+		if(getChildren().size() <= 0) {
 			throw new SchemaParserException(getClass().getSimpleName() + " has not had a child assigned.", getCoord());
 		}
 	}
 	
 	@Override
-	public int getBitCount() {
-		//scan all children and locate maximum index
-		int n = m_children.size();
-		if(n == 0) {
-			return 0;
-		}
-		
-		Field fMin = m_children.get(0);
-		Field fMax = fMin;
-		
-		
-		for(int j = 0; j < n; ++j) {
-			Field f = m_children.get(j);
-			
-			if(fMin.getIndex() > f.getIndex()) {
-				fMin = f;
-			} else if(fMax.getIndex() < f.getIndex()) {
-				fMax = f;
-			}
-		}
-		
-	
-		
-		//compute the size per element first
-		int result = -fMin.getIndex();
-		result += fMax.getIndex();
-		result += fMax.getByteCount();
-		result *= 8;
-		
-		return result;
+	public final int getBitCount() {
+		return getLayout().getBitCount();
+	}
+	@Override
+	public final int getMinAlignment() {
+		return getLayout().getMinAlignment();
+	}
+	@Override
+	public final int getPaddedByteCount() {
+		return getLayout().getPaddedByteCount();
 	}
-	
-
-	
 
-	
 }
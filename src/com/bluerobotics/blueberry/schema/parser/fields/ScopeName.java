@@ -21,6 +21,8 @@ THE SOFTWARE.
 */
 package com.bluerobotics.blueberry.schema.parser.fields;
 
+import com.bluerobotics.blueberry.schema.parser.parsing.SchemaSnapshot;
+
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -30,16 +32,42 @@ import java.util.ListIterator;
  * 
  */
 public class ScopeName extends SymbolName {
+	private static final long serialVersionUID = SchemaSnapshot.VERSION;
 	private static final String SEPARATOR = " | ";//probably doesn't matter what this is so long as it's unique and unlikely to occur in a string.
-	public static final ScopeName ROOT = new ScopeName(Case.LOWER_SNAKE, SEPARATOR); 
+	public static final ScopeName ROOT = of(Case.LOWER_SNAKE, SEPARATOR); 
+	private transient volatile SymbolName[] m_levels = null;//the names between the separators, worked out when first needed
+	private transient String m_string = null;
+	private final transient Rendering[] m_scopedRenderings = new Rendering[Case.values().length];//the last rendering with a separator for each case
+	
+	/**
+	 * A rendering of this name with a particular separator
+	 */
+	private static final class Rendering {
+		final String sep;
+		final String text;
+		Rendering(String sep, String text) {
+			this.sep = sep;
+			this.text = text;
+		}
+	}
+	
 	private ScopeName(Case c, String... ss) {
 		super(c, ss);
 		
 		
 	}
-	
-	private ScopeName(Case c, List<String> ss) {
-		this(c, ss.toArray(new String[ss.size()]));
+	private static ScopeName of(Case c, String... ss) {
+		return intern(new ScopeName(c, ss));
+	}
+	private static ScopeName of(Case c, List<String> ss) {
+		return of(c, ss.toArray(new String[ss.size()]));
+	}
+	/**
+	 * deserialized names are swapped for their pooled instance
+	 * @return
+	 */
+	private Object readResolve() {
+		return of(getCase(), m_name);
 	}
 	
 	private ScopeName makeFromSymbols(List<SymbolName> sns, boolean absolute) {
@@ -52,12 +80,12 @@ public class ScopeName extends SymbolName {
 			}
 			result.addAll(Arrays.asList(sn.m_name));
 		}
-		return new ScopeName(getCase(), result);
+		return of(getCase(), result);
 	}
 	public static ScopeName make(Case c, String sep, String input) {
 		 
 		String[] ss = input.split(sep);
-		ScopeName result = new ScopeName(c);
+		ScopeName result = of(c);
 		for(String s : ss) {
 			result = result.addLevelBelow(SymbolName.parse(c, s));
 		}
@@ -70,15 +98,25 @@ public class ScopeName extends SymbolName {
 		} else if(sn == null) {
 			return null;
 		}
-		return new ScopeName(sn.getCase(), sn.m_name);
+		return of(sn.getCase(), sn.m_name);
 	}
 	/**
 	 * Splits this name by the specified scope separator
 	 * and create a list of symbol names for each chunk
+	 * The list is a fresh copy that the caller can change.
 	 * @param separator
 	 * @return
 	 */
 	private ArrayList<SymbolName> splitScope() {
+		SymbolName[] levels = m_levels;
+		if(levels == null) {
+			List<SymbolName> ls = computeLevels();
+			levels = ls.toArray(new SymbolName[ls.size()]);
+			m_levels = levels;
+		}
+		return new ArrayList<>(Arrays.asList(levels));
+	}
+	private ArrayList<SymbolName> computeLevels() {
 		ArrayList<SymbolName> result = new ArrayList<>();
 		ArrayList<String> ss = new ArrayList<>();
 		ListIterator<String> li = Arrays.asList(m_name).listIterator();
@@ -96,7 +134,7 @@ public class ScopeName extends SymbolName {
 				
 			if(addIt) {
 				if(!ss.isEmpty()) {
-					result.add(new SymbolName(getCase(), ss.toArray(new String[ss.size()])));
+					result.add(intern(new SymbolName(getCase(), ss.toArray(new String[ss.size()]))));
 					ss.clear();
 				}
 			}
@@ -250,8 +288,12 @@ public class ScopeName extends SymbolName {
 		return ScopeName.wrap(sn1).addLevelBelow(sn2);
 	}
 	public String toString() {
+		String result = m_string;
+		if(result != null) {
+			return result;
+		}
 		List<SymbolName> sns = splitScope();
-		String result = "";
+		result = "";
 		
 		boolean firstTime = !isAbsolute();
 		for(SymbolName sn : sns) {
@@ -264,7 +306,7 @@ public class ScopeName extends SymbolName {
 			result += sn.toLowerSnakeString();
 		
 		}
-
+		m_string = result;
 		return result;
 	}
 	/**
@@ -293,6 +335,10 @@ public class ScopeName extends SymbolName {
 		return toCase(Case.UPPER_CAMEL, sep);
 	}
 	protected String toCase(Case c, String sep) {
+		Rendering r = m_scopedRenderings[c.ordinal()];
+		if(r != null && r.sep.equals(sep)) {
+			return r.text;
+		}
 		List<SymbolName> sns = splitScope();
 		String result = "";
 		
@@ -307,7 +353,7 @@ public class ScopeName extends SymbolName {
 			result += sn.toCase(c);
 		
 		}
-
+		m_scopedRenderings[c.ordinal()] = new Rendering(sep, result);
 		return result;
 	}
 	/**
@@ -25,12 +25,14 @@ import java.util.ArrayList;
 import java.util.List;
 
 import com.bluerobotics.blueberry.schema.parser.fields.MultipleField.Index;
+import com.bluerobotics.blueberry.schema.parser.parsing.SchemaSnapshot;
 import com.bluerobotics.blueberry.schema.parser.tokens.Coord;
 import com.bluerobotics.blueberry.schema.parser.types.TypeId;
 /**
  *
  */
 public class SequenceField extends ParentField implements MultipleField {
+	private static final long serialVersionUID = SchemaSnapshot.VERSION;
 	private int m_limit;
 	public SequenceField(SymbolName name, ScopeName typeName, String comment, Coord c) {
 		super(name, typeName, TypeId.SEQUENCE, comment, c);
@@ -53,11 +55,11 @@ public class SequenceField extends ParentField implements MultipleField {
 	}
 
 	@Override
-	public int getMinAlignment() {	
+	protected int computeMinAlignment() {	
 		return 4;
 	}
 	@Override
-	public int getPaddedByteCount() {
+	protected int computePaddedByteCount(int byteCount, int minAlignment) {
 		return 4;
 	}
 	
@@ -66,14 +68,14 @@ public class SequenceField extends ParentField implements MultipleField {
 	 * @return
 	 */
 	public int getBytesPerElement(){
-		int result = super.getBitCount()/8;
+		int result = getLayout().getChildBitCount()/8;
 		return result;
 	}
 	
 	
 
 	@Override
-	public int getBitCount() {
+	protected int computeBitCount(int childBitCount) {
 		return 32;//sequence placeholder is 32 bits long
 	}
 
@@ -21,6 +21,7 @@ THE SOFTWARE.
 */
 package com.bluerobotics.blueberry.schema.parser.fields;
 
+import com.bluerobotics.blueberry.schema.parser.parsing.SchemaSnapshot;
 import com.bluerobotics.blueberry.schema.parser.tokens.Coord;
 import com.bluerobotics.blueberry.schema.parser.types.TypeId;
 
@@ -28,6 +29,7 @@ import com.bluerobotics.blueberry.schema.parser.types.TypeId;
  * 
  */
 public class StringField extends AbstractField {
+	private static final long serialVersionUID = SchemaSnapshot.VERSION;
 	private final int m_maxSize;
 	public StringField(SymbolName fieldName, ScopeName typeName, int maxSize, String comment, Coord c) {
 		super(fieldName, typeName, TypeId.STRING, comment, c);
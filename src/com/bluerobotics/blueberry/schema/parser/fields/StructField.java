@@ -21,12 +21,14 @@ THE SOFTWARE.
 */
 package com.bluerobotics.blueberry.schema.parser.fields;
 
+import com.bluerobotics.blueberry.schema.parser.parsing.SchemaSnapshot;
 import com.bluerobotics.blueberry.schema.parser.tokens.Coord;
 import com.bluerobotics.blueberry.schema.parser.types.TypeId;
 /**
  *
  */
 public class StructField extends ParentField {
+	private static final long serialVersionUID = SchemaSnapshot.VERSION;
 
 	public StructField(SymbolName name, ScopeName typeName, String comment, Coord c) {
 		super(name, typeName, TypeId.STRUCT, comment, c);
@@ -38,7 +40,7 @@ public class StructField extends ParentField {
 		return result;
 	}
 	@Override
-	public int getMinAlignment() {
+	protected int computeMinAlignment() {
 		int result = 1;
 		for(Field f : getChildren().getList()) {
 			int m = f.getMinAlignment();
@@ -49,17 +51,12 @@ public class StructField extends ParentField {
 		return result;
 	}
 	@Override
-	public int getPaddedByteCount() {
-		int result = getByteCount();
-		int m = result % getMinAlignment();
+	protected int computePaddedByteCount(int byteCount, int minAlignment) {
+		int result = byteCount;
+		int m = result % minAlignment;
 		result += m;
 		return result;
 	}
-	@Override
-	public int getBitCount() {
-		// TODO Auto-generated method stub
-		return super.getBitCount();
-	}
 	
 	
 	
@@ -21,13 +21,25 @@ THE SOFTWARE.
 */
 package com.bluerobotics.blueberry.schema.parser.fields;
 
+import java.io.Serializable;
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.WeakHashMap;
+
+import com.bluerobotics.blueberry.schema.parser.parsing.SchemaSnapshot;
 
 /**
  * A class that wraps a hierarchical string name that can be easily expressed as various cases
+ * Names are interned, so building the same name twice gives the same instance while the first one is still in use.
+ * The pools only hold names weakly, so the names of an old parsing session can be collected once nothing refers to them.
+ * Each instance works out its case renderings once, when they are first asked for.
+ * Names that are equal but were made with a different case still have their own instances,
+ * but they share the same interned key so equals only has to compare key references.
  */
-public class SymbolName {
+public class SymbolName implements Serializable {
+	private static final long serialVersionUID = SchemaSnapshot.VERSION;
 	public enum Case {
 		UNSPECIFIED,
 		UPPER_CAMEL,
@@ -40,10 +52,61 @@ public class SymbolName {
 		MIXED_DOT,
 		
 	}
-	public static final SymbolName EMPTY = new SymbolName(Case.UNSPECIFIED, new String[0]);
+	private static final WeakHashMap<Key, WeakReference<SymbolName>> POOL = new WeakHashMap<>();//every name that is still in use. Each entry is kept alive by its name's m_poolKey.
+	private static final WeakHashMap<String, WeakReference<String>> KEYS = new WeakHashMap<>();//the canonical instance of each equality key that is still in use
+	
+	private static final int UPPER_CAMEL = 0;
+	private static final int LOWER_CAMEL = 1;
+	private static final int UPPER_SNAKE = 2;
+	private static final int LOWER_SNAKE = 3;
+	private static final int UPPER_DOT = 4;
+	private static final int LOWER_DOT = 5;
+	private static final int TITLE = 6;
+	private static final int LOWER_CASE = 7;
+	private static final int PATH = 8;
+	private static final int RENDERING_COUNT = 9;
+	
+	public static final SymbolName EMPTY = intern(new SymbolName(Case.UNSPECIFIED, new String[0]));
 	private final Case m_case;
 	protected final String[] m_name;
+	private final transient String[] m_renderings = new String[RENDERING_COUNT];//filled in as they are first needed. Racing threads just compute the same string.
+	private transient String m_key = null;//interned upper camel rendering, which is what equality is based on
+	private transient Key m_poolKey = null;//the key of this name's pool entry, which keeps the entry alive as long as this name is
 	
+	/**
+	 * The identity of a name in the pool. The class and case are included so that interning never changes what a name prints as.
+	 */
+	private static final class Key {
+		private final Class<?> m_type;
+		private final Case m_case;
+		private final String[] m_name;
+		private final int m_hash;
+		Key(SymbolName sn) {
+			m_type = sn.getClass();
+			m_case = sn.m_case;
+			m_name = sn.m_name;
+			m_hash = (m_type.hashCode() * 31 + m_case.hashCode()) * 31 + Arrays.hashCode(m_name);
+		}
+		@Override
+		public boolean equals(Object o) {
+			boolean result = false;
+			if(o instanceof Key) {
+				Key k = (Key)o;
+				result = k.m_type == m_type && k.m_case == m_case && Arrays.equals(k.m_name, m_name);
+			}
+			return result;
+		}
+		@Override
+		public int hashCode() {
+			return m_hash;
+		}
+	}
+	
+	/**
+	 * this should only be used to make a candidate for intern
+	 * @param c
+	 * @param ss
+	 */
 	protected SymbolName(Case c, String... ss) {
 		int n = ss.length;
 		String[] ssn = new String[n];
@@ -53,6 +116,39 @@ public class SymbolName {
 		m_name = ssn;
 		m_case = c;
 	}
+	/**
+	 * returns the pooled instance that is identical to the specified name, adding it to the pool if there isn't one yet
+	 * @param <T>
+	 * @param sn - a newly made name
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	protected static <T extends SymbolName> T intern(T sn) {
+		Key k = new Key(sn);
+		SymbolName result;
+		synchronized(POOL) {
+			WeakReference<SymbolName> ref = POOL.get(k);
+			result = ref != null ? ref.get() : null;
+			if(result == null) {
+				//remove first so that the entry gets the new key rather than keeping the one of the collected name
+				POOL.remove(k);
+				POOL.put(k, new WeakReference<>(sn));
+				((SymbolName)sn).m_poolKey = k;
+				result = sn;
+			}
+		}
+		return (T)result;
+	}
+	private static SymbolName of(Case c, String... ss) {
+		return intern(new SymbolName(c, ss));
+	}
+	/**
+	 * deserialized names are swapped for their pooled instance
+	 * @return
+	 */
+	private Object readResolve() {
+		return of(m_case, m_name);
+	}
 	public static SymbolName parse(Case c, String input) {
 		SymbolName result = null;
 		switch(c) {
@@ -100,7 +196,7 @@ public class SymbolName {
 					ss.remove(i);
 				}
 			}
-			result = new SymbolName(Case.UNSPECIFIED, ss.toArray(new String[ss.size()]));
+			result = of(Case.UNSPECIFIED, ss.toArray(new String[ss.size()]));
 		}
 		
 		return result;
@@ -125,7 +221,7 @@ public class SymbolName {
 		} else if(isAllUpperCase(n)) {
 			c = Case.LOWER_DOT;
 		}
-		return new SymbolName(c, breakUpDot(n));
+		return of(c, breakUpDot(n));
 	}
 	public static SymbolName fromCamel(String n) {
 		return make(breakUpCamel(n));
@@ -137,7 +233,7 @@ public class SymbolName {
 		} else if(isAllUpperCase(n)) {
 			c = Case.LOWER_SNAKE;
 		}
-		return new SymbolName(c, breakUpSnake(n));
+		return of(c, breakUpSnake(n));
 	}
 	private static String[] breakUpDot(String s) {
 		return s.toLowerCase().split("\\.");
@@ -171,7 +267,11 @@ public class SymbolName {
 	}
 
 	private String toSnake(boolean upperNotLower) {
-		String result = "";
+		String result = m_renderings[upperNotLower ? UPPER_SNAKE : LOWER_SNAKE];
+		if(result != null) {
+			return result;
+		}
+		result = "";
 		boolean firstTime = true;
 		for(String w : m_name) {
 			if(!firstTime) {
@@ -183,10 +283,15 @@ public class SymbolName {
 		if(upperNotLower) {
 			result = result.toUpperCase();
 		}
+		m_renderings[upperNotLower ? UPPER_SNAKE : LOWER_SNAKE] = result;
 		return result;
 	}
 	private String toCamel(boolean upperNotLower) {
-		String result = "";
+		String result = m_renderings[upperNotLower ? UPPER_CAMEL : LOWER_CAMEL];
+		if(result != null) {
+			return result;
+		}
+		result = "";
 		boolean firstTime = true;
 		for(String s : m_name) {
 			if((!upperNotLower) && firstTime) {
@@ -196,6 +301,7 @@ public class SymbolName {
 			}
 			firstTime = false;
 		}
+		m_renderings[upperNotLower ? UPPER_CAMEL : LOWER_CAMEL] = result;
 		return result;
 	}
 	
@@ -205,7 +311,7 @@ public class SymbolName {
 	 * @return
 	 */
 	public SymbolName append(String... ss) {
-		return append(new SymbolName(getCase(), ss));
+		return append(of(getCase(), ss));
 	}
 	/**
 	 * Indicates the case of the string this was derived from
@@ -231,7 +337,7 @@ public class SymbolName {
 				ss[i] = f.m_name[i - m];
 			}
 		}
-		return new SymbolName(getCase(), ss);
+		return of(getCase(), ss);
 	}
 	/**
 	 * Make a new SymbolName by adding the specified array of Strings to the front of this SymbolName
@@ -239,7 +345,7 @@ public class SymbolName {
 	 * @return
 	 */
 	public SymbolName prepend(String... ss) {
-		return prepend(new SymbolName(getCase(),ss));
+		return prepend(of(getCase(),ss));
 	}
 	/**
 	 * Make a new SymbolName by adding the specified SymbolName to the front of this SymbolName
@@ -261,7 +367,7 @@ public class SymbolName {
 				ss[i] = m_name[i - m];
 			}
 		}
-		return new SymbolName(getCase(), ss);
+		return of(getCase(), ss);
 	}
 	public String toString() {
 		return toCase(m_case);
@@ -270,14 +376,42 @@ public class SymbolName {
 	@Override
 	public boolean equals(Object obj) {
 		boolean result = false;
-		if(obj instanceof SymbolName) {
+		if(obj == this) {
+			result = true;
+		} else if(obj instanceof SymbolName) {
 			SymbolName fn = (SymbolName)obj;
-			if(fn.toCamel(true).equals(toCamel(true))) {
+			if(fn.getKey() == getKey()) {
 				result = true;
 			}
 		}
 		return result;
 	}
+	@Override
+	public int hashCode() {
+		return getKey().hashCode();
+	}
+	/**
+	 * the canonical instance of the upper camel rendering. Two names are equal if they have the same key.
+	 * @return
+	 */
+	private String getKey() {
+		String result = m_key;
+		if(result == null) {
+			result = toCamel(true);
+			synchronized(KEYS) {
+				WeakReference<String> ref = KEYS.get(result);
+				String canonical = ref != null ? ref.get() : null;
+				if(canonical == null) {
+					KEYS.remove(result);
+					KEYS.put(result, new WeakReference<>(result));
+				} else {
+					result = canonical;
+				}
+			}
+			m_key = result;
+		}
+		return result;
+	}
 
 
 	private String toFirstCap(String s) {
@@ -296,7 +430,11 @@ public class SymbolName {
 	 * @return
 	 */
 	public String toTitle() {
-		String result = "";
+		String result = m_renderings[TITLE];
+		if(result != null) {
+			return result;
+		}
+		result = "";
 		boolean firstTime = true;
 		for(String s : m_name) {
 			if(!firstTime) {
@@ -305,43 +443,52 @@ public class SymbolName {
 			result += toFirstCap(s);
 			firstTime = false;
 		}
+		m_renderings[TITLE] = result;
 		return result;
 	}
 	public SymbolName toLowerCamel() {
-		return new SymbolName(Case.LOWER_CAMEL, m_name);
+		return of(Case.LOWER_CAMEL, m_name);
 	}
 	public String toLowerCamelString() {
 		return toCamel(false);
 	}
 	public SymbolName toUpperCamel() {
-		return new SymbolName(Case.UPPER_CAMEL, m_name);
+		return of(Case.UPPER_CAMEL, m_name);
 	}
 	public String toUpperCamelString() {
 		return toCamel(true);
 	}
 	public SymbolName toLowerSnake() {
-		return new SymbolName(Case.LOWER_SNAKE, m_name);
+		return of(Case.LOWER_SNAKE, m_name);
 	}
 	public String toLowerSnakeString() {
 		return toSnake(false);
 	}
 
 	public SymbolName toUpperSnake() {
-		return new SymbolName(Case.UPPER_SNAKE, m_name);
+		return of(Case.UPPER_SNAKE, m_name);
 	}
 	public String toUpperSnakeString() {
 		return toSnake(true);
 	}
 	public String toLowerCaseString() {
-		String result = "";
+		String result = m_renderings[LOWER_CASE];
+		if(result != null) {
+			return result;
+		}
+		result = "";
 		for(String w : m_name) {
 			result += w;
 		}
-
+		m_renderings[LOWER_CASE] = result;
 		return result;
 	}
 	protected String toDot(boolean upperNotLower) {
-		String result = "";
+		String result = m_renderings[upperNotLower ? UPPER_DOT : LOWER_DOT];
+		if(result != null) {
+			return result;
+		}
+		result = "";
 		boolean firstTime = true;
 		for(String w : m_name) {
 			if(!firstTime) {
@@ -350,7 +497,7 @@ public class SymbolName {
 			firstTime = false;
 			result += upperNotLower ? w.toUpperCase() : w.toLowerCase();
 		}
-
+		m_renderings[upperNotLower ? UPPER_DOT : LOWER_DOT] = result;
 		return result;
 	}
 	public String toDotString() {
@@ -363,14 +510,18 @@ public class SymbolName {
 		return toDot(true);
 	}
 	public String toPath() {
-		String result = "";
+		String result = m_renderings[PATH];
+		if(result != null) {
+			return result;
+		}
+		result = "";
 		for(String w : m_name) {
 
 
 			result += w;
 			result += "/";
 		}
-
+		m_renderings[PATH] = result;
 		return result;
 	}
 	/**
@@ -12,14 +12,12 @@ import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
 import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.stream.Stream;
+import java.util.List;
 
 import javax.swing.BorderFactory;
 import javax.swing.JButton;
@@ -43,8 +41,11 @@ import com.bluerobotics.blueberry.schema.parser.parsing.Constants;
 import com.bluerobotics.blueberry.schema.parser.parsing.ParserIssue;
 import com.bluerobotics.blueberry.schema.parser.parsing.ParserIssue.Type;
 import com.bluerobotics.blueberry.schema.parser.parsing.ParserIssueLogger;
+import com.bluerobotics.blueberry.schema.parser.parsing.SchemaLoader;
 import com.bluerobotics.blueberry.schema.parser.parsing.SchemaParserException;
+import com.bluerobotics.blueberry.schema.parser.parsing.SchemaSnapshot;
 import com.bluerobotics.blueberry.schema.parser.tokens.Coord;
+import com.bluerobotics.blueberry.schema.parser.tokens.SchemaText;
 import com.bluerobotics.blueberry.schema.parser.writers.CWriter;
 import com.bluerobotics.blueberry.schema.parser.writers.JavaWriter;
 import com.bluerobotics.blueberry.schema.parser.writers.PrettyWriter;
@@ -144,6 +145,7 @@ public class BlueberrySchemaParserGui implements Constants {
 	 */
 	public BlueberrySchemaParserGui(Settings s) {
 		m_settings = s;
+		m_parser.setIncremental(true);//unchanged files are not lexed again when parse is pressed repeatedly
 		JFrame f = new JFrame();
 		f.setIconImage(BLUEBERRY_LOGO);
 		m_frame = f;
@@ -243,6 +245,7 @@ public class BlueberrySchemaParserGui implements Constants {
 		resizer.addMoveComponent(toolbar);
 		cp.add(toolbar, BorderLayout.NORTH);
 		Key[] keys = new Key[] {Key.SCHEMA_DIRECTORY,
+				Key.SCHEMA_FILE_EXTENSIONS,
 				Key.JAVA_DIRECTORY,
 				Key.JAVA_PACKAGE_NAME,
 				Key.C_DIRECTORY,
@@ -468,12 +471,28 @@ public class BlueberrySchemaParserGui implements Constants {
 		try {
 			m_parser.clear();
 			
-			loadFiles(dir, dir);
+			SchemaLoader loader = new SchemaLoader(m_log, m_settings.getString(Key.SCHEMA_FILE_EXTENSIONS).trim().split("[\\s,]+"));
+			List<SchemaText> files = loader.load(dir.toPath());
+			File snapshot = SchemaSnapshot.getFile(dir);
+			if(m_parser.loadSnapshot(snapshot, files)) {
+				append("Loaded unchanged schema from \""+snapshot+"\"\n");
+				appendDone();
+				return;
+			}
+			for(SchemaText f : files) {
+				append("Loading \""+f.getPath()+"\"\n");
+			}
+			m_parser.appendAll(files);
 			append("Starting Parser");
 			m_parser.parse();
 			appendDone();
+			if(!m_log.isError()) {
+				m_parser.writeSnapshot(snapshot, files);
+			}
 		} catch(SchemaParserException e) {
 			append(e.toString());
+		} catch(IOException e) {
+			append(e.toString());
 		}
 	}
 	private void appendDone() {
@@ -483,34 +502,6 @@ public class BlueberrySchemaParserGui implements Constants {
 		int n = m_log.getIssueCountOfType(Type.NOTE);
 		append("Parsing Done: "+e+" Errors, "+w+" Warnings, "+s+" Skipped, "+n+" Notes.");
 	}
-	private void loadFiles(File root, File f) throws SchemaParserException {
-		append("Loading \""+f+"\"\n");
-		if(f.isDirectory()) {
-			File[] fs = f.listFiles();
-			for(File cf : fs) {
-				loadFiles(root, cf);
-			}
-		} else if(f.isFile()) {
-			BufferedReader br;
-			String[] ss = null;
-			try {
-				br = new BufferedReader(new FileReader(f));
-				Stream<String> lines = br.lines();
-				ss = lines.toArray(String[]::new);
-			} catch (IOException e) {
-				// TODO Auto-generated catch block
-				append(e.toString());
-			}
-
-			if(ss != null) {
-				
-				Path p = root.toPath().relativize(f.toPath());
-				m_parser.append(p.toString(), ss);
-				
-			}
-		}
-	}
-
 	public static void main(String...args){
 		Settings settings = new Settings(BlueberrySchemaParserGui.class);
 		ResourceTools.setFonts();
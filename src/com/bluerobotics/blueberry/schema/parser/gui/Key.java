@@ -25,6 +25,7 @@ package com.bluerobotics.blueberry.schema.parser.gui;
 import java.io.File;
 import java.net.URI;
 
+import com.bluerobotics.blueberry.schema.parser.parsing.SchemaLoader;
 import com.starfishmedical.settings.SettingsKey;
 
 
@@ -39,6 +40,7 @@ public enum Key implements SettingsKey {
 	CODE_HEADER_FILE_PATH(URI.class, (new File(System.getProperty("user.dir"))).toURI()),
 	IDL_HEADER_FILE_PATH(URI.class, (new File(System.getProperty("user.dir"))).toURI()),
 	SCHEMA_DIRECTORY(File.class, (new File(System.getProperty("user.dir")))),
+	SCHEMA_FILE_EXTENSIONS(String.class, String.join(", ", SchemaLoader.DEFAULT_EXTENSIONS)),
 	JAVA_DIRECTORY(File.class, (new File(System.getProperty("user.dir")))),
 	JAVA_PACKAGE_NAME(String.class, "com.bluerobotics.blueberry.bb"),
 	C_DIRECTORY(File.class, (new File(System.getProperty("user.dir")))),
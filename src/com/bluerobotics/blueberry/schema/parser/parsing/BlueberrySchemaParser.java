@@ -21,11 +21,19 @@ THE SOFTWARE.
 */
 package com.bluerobotics.blueberry.schema.parser.parsing;
 
+import java.io.File;
+import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.ListIterator;
+import java.util.stream.IntStream;
 
 import com.bluerobotics.blueberry.schema.parser.constants.BooleanConstant;
 import com.bluerobotics.blueberry.schema.parser.constants.Constant;
@@ -62,6 +70,7 @@ import com.bluerobotics.blueberry.schema.parser.tokens.FilePathToken;
 import com.bluerobotics.blueberry.schema.parser.tokens.IdentifierToken;
 import com.bluerobotics.blueberry.schema.parser.tokens.NameValueToken;
 import com.bluerobotics.blueberry.schema.parser.tokens.NumberToken;
+import com.bluerobotics.blueberry.schema.parser.tokens.SchemaText;
 import com.bluerobotics.blueberry.schema.parser.tokens.ScopeNameToken;
 import com.bluerobotics.blueberry.schema.parser.tokens.SingleWordToken;
 import com.bluerobotics.blueberry.schema.parser.tokens.StringToken;
@@ -78,7 +87,20 @@ import com.starfishmedical.comms.Crc1021;
  * This reads the schema file, tokenizes and then builds a data structure of fields to represent the schema
  */
 public class BlueberrySchemaParser implements Constants, TokenConstants {
-
+	/**
+	 * The lexers that can be used to tokenize schema files
+	 */
+	public enum Lexer {
+		SCANNER,//cursor based scanner that only makes Coords for the tokens it emits
+		COORD,//original lexer that steps through the file one Coord at a time
+	}
+	/**
+	 * The front ends that can be used to turn tokens into fields
+	 */
+	public enum FrontEnd {
+		COLLAPSE,//rewrites the whole token list in a series of passes before assembling fields
+		DESCENT,//recursive descent that classifies tokens as they are consumed and builds fields in one pass. Input with errors is handed to COLLAPSE.
+	}
 
 //	private static final String SEP = TokenIdentifier.SCOPE_SEPARATOR.id();
 
@@ -91,18 +113,75 @@ public class BlueberrySchemaParser implements Constants, TokenConstants {
 	private final ArrayList<Annotation> m_annotations = new ArrayList<>();//temporary storage of annotations
 	private final ArrayList<BlueModule> m_moduleStack = new ArrayList<>();//keeps track of the current module that the token being currently processed is within.
 	private final ArrayList<BlueModule> m_modules = new ArrayList<>();
+	private final SymbolTable m_symbols = new SymbolTable(m_modules);//hash indexes of the modules and defined types
 	private final ArrayList<IdentifierToken> m_moduleEnd = new ArrayList<>();
 	private String m_fileName = null;//indicates the filename that the present tokens are from
 	private String m_lastComment = null;//temporary storage for the last processed comment
 
-	private final ParserIssueLogger m_log;
+	private ParserIssueLogger m_log;
+	private final SchemaScanner m_scanner;
+	private Lexer m_lexer = Lexer.SCANNER;
+	private FrontEnd m_frontEnd = FrontEnd.COLLAPSE;
+	private boolean m_incremental = false;
+	private final HashMap<String, Segment> m_segments = new HashMap<>();//lexed tokens of each file, kept between sessions in incremental mode
+	private final HashSet<String> m_segmentsUsed = new HashSet<>();//the files whose segments were used since the last clear
 	
+	/**
+	 * The tokens that the lexer produced for one file, along with the hash of the text they were made from
+	 */
+	private static class Segment {
+		final byte[] digest;
+		final Token[] tokens;
+		final ParserIssueLogger log;
+		Segment(byte[] d, Token[] ts, ParserIssueLogger l) {
+			digest = d;
+			tokens = ts;
+			log = l;
+		}
+	}
 	
 	
 	
 	public BlueberrySchemaParser(ParserIssueLogger log) {
 
 		m_log = log;
+		m_scanner = new SchemaScanner(m_tokens, log);
+	}
+	/**
+	 * Selects which lexer is used by subsequent calls to append
+	 * @param lexer
+	 */
+	public void setLexer(Lexer lexer) {
+		m_lexer = lexer;
+	}
+	public Lexer getLexer() {
+		return m_lexer;
+	}
+	/**
+	 * Selects which front end is used by subsequent calls to parse
+	 * @param frontEnd
+	 */
+	public void setFrontEnd(FrontEnd frontEnd) {
+		m_frontEnd = frontEnd;
+	}
+	public FrontEnd getFrontEnd() {
+		return m_frontEnd;
+	}
+	/**
+	 * In incremental mode the tokens of each file are kept between parsing sessions.
+	 * A file whose text has not changed is not lexed again by appendAll.
+	 * Only the scanner lexer is cached. Turning this off drops the cache.
+	 * @param incremental
+	 */
+	public void setIncremental(boolean incremental) {
+		m_incremental = incremental;
+		if(!incremental) {
+			m_segments.clear();
+			m_segmentsUsed.clear();
+		}
+	}
+	public boolean isIncremental() {
+		return m_incremental;
 	}
 	
 	/**
@@ -120,11 +199,16 @@ public class BlueberrySchemaParser implements Constants, TokenConstants {
 		m_moduleStack.clear();
 		m_moduleStack.add(BlueModule.ROOT);
 		m_modules.add(BlueModule.ROOT);
+		m_symbols.clear();
 		m_moduleEnd.clear();
 		m_fileName = null;
 		m_lastComment = null;
 		
-
+		//forget the segments of files that were not part of the last session
+		if(!m_segmentsUsed.isEmpty()) {
+			m_segments.keySet().retainAll(m_segmentsUsed);
+			m_segmentsUsed.clear();
+		}
 	}
 	/**
 	 * this reads through the contents of a file and adds tokens to the current token list
@@ -132,12 +216,110 @@ public class BlueberrySchemaParser implements Constants, TokenConstants {
 	 * @param schema - a string containing the schema to parse
 	 */
 	public void append(String filePath, String[] schemaLines) {
+		append(SchemaText.of(filePath, schemaLines));
+	}
+	/**
+	 * this reads through the contents of a file and adds tokens to the current token list
+	 * @param text - the text of the file
+	 */
+	public void append(SchemaText text) {
+		if(m_lexer == Lexer.SCANNER) {
+			m_scanner.scan(text);
+		} else {
+			appendWithCoords(text);
+		}
+	}
+	/**
+	 * tokenizes a whole set of files and adds the tokens to the current token list.
+	 * Each file is lexed into its own token list on a worker thread and the results are then joined in path order,
+	 * so the resulting token list does not depend on thread scheduling or on the order of the collection.
+	 * Only the scanner lexer can run in parallel. The Coord lexer just appends the files one at a time in path order.
+	 * In incremental mode, files whose text has not changed since they were last lexed reuse their cached tokens.
+	 * @param files - the text of each file
+	 */
+	public void appendAll(Collection<SchemaText> files) {
+		SchemaText[] texts = files.toArray(new SchemaText[files.size()]);
+		Arrays.sort(texts, Comparator.comparing(SchemaText::getPath));
+		if(m_lexer != Lexer.SCANNER) {
+			for(SchemaText text : texts) {
+				append(text);
+			}
+			return;
+		}
+		Segment[] segments = new Segment[texts.length];
+		if(m_incremental) {
+			for(int i = 0; i < texts.length; ++i) {
+				Segment seg = m_segments.get(texts[i].getPath());
+				if(seg != null && Arrays.equals(seg.digest, texts[i].getDigest())) {
+					segments[i] = seg;
+				}
+			}
+		}
+		IntStream.range(0, texts.length).parallel().forEach(i -> {
+			if(segments[i] == null) {
+				TokenList tl = new TokenList();
+				ParserIssueLogger log = new ParserIssueLogger((s, t) -> {});
+				new SchemaScanner(tl, log).scan(texts[i]);
+				segments[i] = new Segment(m_incremental ? texts[i].getDigest() : null, tl.toArray(), log);
+			}
+		});
+		for(int i = 0; i < texts.length; ++i) {
+			m_tokens.addAll(segments[i].tokens);
+			m_log.addAll(segments[i].log);
+			if(m_incremental) {
+				m_segments.put(texts[i].getPath(), segments[i]);
+				m_segmentsUsed.add(texts[i].getPath());
+			}
+		}
+	}
+	/**
+	 * replaces the parsed model with one from a snapshot file, if the snapshot was made from exactly the specified files.
+	 * The issues that were logged when the snapshot was made are logged again.
+	 * This should be called after clear and instead of appending and parsing.
+	 * @param f - the snapshot file
+	 * @param inputs - the current text of all the schema files
+	 * @return true if the snapshot was loaded, false if it is missing, stale or unreadable
+	 */
+	public boolean loadSnapshot(File f, Collection<SchemaText> inputs) {
+		SchemaSnapshot ss = SchemaSnapshot.read(f, m_frontEnd.name(), inputs);
+		if(ss == null) {
+			return false;
+		}
+		m_modules.clear();
+		m_modules.addAll(ss.modules);
+		m_symbols.clear();
+		m_defines.clear();
+		ss.defines.forEach(d -> m_defines.add(d));
+		m_messages.clear();
+		ss.messages.forEach(m -> m_messages.add(m));
+		m_messages.forEachOfType(MessageField.class, false, mf -> {
+			mf.computeIndexChains();
+		});
+		m_log.replay(ss.issues, ss.counts);
+		return true;
+	}
+	/**
+	 * writes the parsed model to a snapshot file so that a later session can skip parsing if the files have not changed
+	 * @param f - the snapshot file
+	 * @param inputs - the text of all the schema files that were parsed
+	 * @throws IOException
+	 */
+	public void writeSnapshot(File f, Collection<SchemaText> inputs) throws IOException {
+		ArrayList<BlueModule> ms = new ArrayList<>(m_modules);
+		ArrayList<ParserIssue> is = new ArrayList<>(m_log.getIssues());
+		new SchemaSnapshot(ms, m_defines, m_messages, is, m_log.getCounts()).write(f, m_frontEnd.name(), inputs);
+	}
+	/**
+	 * the original lexer, which steps through the file by making a new Coord for every move
+	 * @param text - the text of the schema to parse
+	 */
+	private void appendWithCoords(SchemaText text) {
 		//split into lines
 
-		Coord c = new Coord(filePath, 0,0, schemaLines);	
+		Coord c = new Coord(text.getPath(), 0,0, text);	
 
 
-		m_tokens.add(new FilePathToken(c, filePath));
+		m_tokens.add(new FilePathToken(c, text.getPath()));
 
 
 		while(c != null) {
@@ -157,27 +339,30 @@ public class BlueberrySchemaParser implements Constants, TokenConstants {
 	 */
 	public void parse() {
 		try {
-			collapseIdentifiers();
-			collapseNumbers();
-			collapseSymbolNames();
-			collapseLongLong();
-			collapseBaseTypes();
-			collapseScope();
-			collapseWhiteSpace();
-			collapseUnsigned();
-			collapseComments();
-			
-
-			collapseTypedefs();
-			collapseEols();
-			
-			collapseNameValues();
-//			collapseSemicolons();
-			
-			//check all brackets of all kinds to be sure they all match
-			matchBracket(null);
-
-			assembleFields();
+			m_symbols.clear();
+			if(m_frontEnd != FrontEnd.DESCENT || !parseDescent()) {
+				collapseIdentifiers();
+				collapseNumbers();
+				collapseSymbolNames();
+				collapseLongLong();
+				collapseBaseTypes();
+				collapseScope();
+				collapseWhiteSpace();
+				collapseUnsigned();
+				collapseComments();
+				
+	
+				collapseTypedefs();
+				collapseEols();
+				
+				collapseNameValues();
+	//			collapseSemicolons();
+				
+				//check all brackets of all kinds to be sure they all match
+				matchBracket(null);
+	
+				assembleFields();
+			}
 			fillInMissingEnumValues();
 			checkForDuplicateEnumValues();
 			checkForDuplicateAnnotations();
@@ -193,8 +378,9 @@ public class BlueberrySchemaParser implements Constants, TokenConstants {
 			checkForMessageKeys();
 			checkForMessageTopics();
 			
-			processDeferredFields(m_defines.getIterator(), m_defines);	
-			processDeferredFields(m_messages.getIterator(), m_defines);
+			m_symbols.build(m_defines, m_log);
+			processDeferredFields(m_defines.getIterator());	
+			processDeferredFields(m_messages.getIterator());
 			
 			applyDeferredParameters(m_defines);
 			applyDeferredParameters(m_messages);
@@ -226,6 +412,32 @@ public class BlueberrySchemaParser implements Constants, TokenConstants {
 		System.out.println("BlueberrySchemaParser.parse done.");
 
 	}
+	/**
+	 * runs the recursive descent front end over the token list.
+	 * Issues are held back until it is done. If it found an error, everything it built is thrown away
+	 * so that the collapsing front end can parse the same tokens and report its usual errors.
+	 * @return true if the tokens were parsed without errors
+	 */
+	private boolean parseDescent() {
+		ParserIssueLogger log = m_log;
+		ParserIssueLogger held = new ParserIssueLogger((s, t) -> {});
+		m_log = held;
+		try {
+			new SchemaDescentParser(this, held).parse(m_tokens);
+		} finally {
+			m_log = log;
+		}
+		boolean result = !held.isError();
+		if(result) {
+			m_log.addAll(held);
+		} else {
+			m_modules.clear();
+			m_defines.clear();
+			m_messages.clear();
+			BlueModule.ROOT.clear();
+		}
+		return result;
+	}
 	/**
 	 * sort of the field lists so the output files will have a pleasant order
 	 */
@@ -273,43 +485,50 @@ public class BlueberrySchemaParser implements Constants, TokenConstants {
 	 * checks each annotation owner for duplicate annotations
 	 */
 	private void checkForDuplicateAnnotations() {
+		DuplicateFinder<SymbolName, Annotation> names = new DuplicateFinder<>();
 		for(BlueModule mod : m_modules) {
-			checkForDuplicateAnnotations(mod);
+			checkForDuplicateAnnotations(mod, names);
 			mod.getDefines().forEach(true, f -> {
-				checkForDuplicateAnnotations(f);
+				checkForDuplicateAnnotations(f, names);
 			});
 			mod.getMessages().forEach(true, f -> {
-				checkForDuplicateAnnotations(f);
+				checkForDuplicateAnnotations(f, names);
 			});
 		}
 	}
 
-	private void checkForDuplicateAnnotations(AnnotationOwner ao) {
-		ao.scanAnnotations(a1 -> {
-			ao.scanAnnotations(a2 -> {
-				if(a1 != a2 && a1.matchesByName(a2)) {
-					if(a1.matchesByParameters(a2)) {
-						m_log.issueWarning("Duplicate annotation found with same parameters.", a1.getSource(), a2.getSource());
-					} else {
-						m_log.issueError("Duplicate annotation found with unmatching parameters.",a1.getSource(), a2.getSource());
- 
-					}
+	private void checkForDuplicateAnnotations(AnnotationOwner ao, DuplicateFinder<SymbolName, Annotation> names) {
+		names.clear();
+		ao.scanAnnotations(a2 -> {
+			Annotation a1 = names.add(a2.getName(), a2);
+			if(a1 != null && a1 != a2) {
+				if(a1.matchesByParameters(a2)) {
+					m_log.issueWarning("Duplicate annotation found with same parameters.", a2.getSource(), a1.getSource());
+				} else {
+					m_log.issueError("Duplicate annotation found with unmatching parameters.",a2.getSource(), a1.getSource());
+
 				}
-			});
+			}
 		});
 		
 	}
 
 	/**
 	 * any instance of two longs in a row should be collapsed to a long long
+	 * This runs before white space is collapsed so there may be spaces between them
 	 */
 	private void collapseLongLong() {
 		m_tokens.resetIndex();
 		while(m_tokens.isMore()) {
 			IdentifierToken long1 = m_tokens.gotoNextId(TokenIdentifier.LONG);
-			IdentifierToken long2 = m_tokens.relativeId(1, TokenIdentifier.LONG);
+			int i = 1;
+			while(m_tokens.relativeId(i, TokenIdentifier.SPACE) != null) {
+				++i;
+			}
+			IdentifierToken long2 = m_tokens.relativeId(i, TokenIdentifier.LONG);
 			if(long1 != null && long2 != null) {
 				
+				m_tokens.remove(long1, long2);
 				m_tokens.remove(long2);
 				IdentifierToken longLong = new IdentifierToken(long1.getStart(), long2.getEnd(), TokenIdentifier.LONG_LONG);
 				m_tokens.replace(long1, longLong);
@@ -447,19 +666,17 @@ public class BlueberrySchemaParser implements Constants, TokenConstants {
 	 * this should be called after fillInMessageKeyValues()
 	 */
 	private void checkForDuplicateMessageKeys() {
-		final ArrayList<Annotation> keys = new ArrayList<>();
+		final DuplicateFinder<Long, Annotation> keys = new DuplicateFinder<>();
 		m_modules.forEach(mod -> {
 			keys.clear();
 			mod.getMessages().forEachOfType(MessageField.class, false, msg -> {
 				Annotation a = msg.getAnnotation(Annotation.KnownAnnotation.MESSAGE_KEY.getName());
-				
-				if(a != null) {
-					for(Annotation at : keys) {
-						if(at.matchesByParameters(a)) {
-							m_log.issueError("Duplicate message key detected in "+msg.getName(), a.getSource(), at.getSource());
-						}
+				Number n = a != null ? a.getParameter(Number.class) : null;
+				if(n != null) {
+					Annotation at = keys.add(n.asLong(), a);
+					if(at != null) {
+						m_log.issueError("Duplicate message key detected in "+msg.getName(), a.getSource(), at.getSource());
 					}
-					keys.add(a);
 				}
 			});
 		});
@@ -479,6 +696,7 @@ public class BlueberrySchemaParser implements Constants, TokenConstants {
 	}
 	/**
 	 * Calculates the field indeces for messages, based on the word packing rules
+	 * Once a message is packed, the index chains of its fields are computed too
 	 */
 	private void computeIndeces() {
 		
@@ -489,9 +707,22 @@ public class BlueberrySchemaParser implements Constants, TokenConstants {
 			if(mf.useCdrNotBlueberry()) {
 				m_log.issueSkipped("CDR serialization not supported yet", mf.getCoord());
 				//TODO: add a field packer for CDR packing
+			} else if(mf.useCompactPacking()) {
+				BlueberryFieldPacker.pack(mf);
+				int before = mf.getPaddedByteCount();
+				BlueberryFieldPacker.packCompact(mf, mf.getCompactFieldCount());
+				int saved = before - mf.getPaddedByteCount();
+				if(saved < 0) {
+					//structs are kept whole so they can't always be packed as tightly as in declaration order, where other fields can fill the gaps in them
+					BlueberryFieldPacker.pack(mf);
+					m_log.issueNote("Compact packing of "+mf.getTypeName()+" saved nothing so declaration order was kept ("+before+" bytes)", mf.getCoord());
+				} else {
+					m_log.issueNote("Compact packing of "+mf.getTypeName()+" saved "+saved+" bytes ("+before+" -> "+mf.getPaddedByteCount()+")", mf.getCoord());
+				}
 			} else {
 				BlueberryFieldPacker.pack(mf);
 			}
+			mf.computeIndexChains();
 		});
 		
 	}
@@ -501,6 +732,15 @@ public class BlueberrySchemaParser implements Constants, TokenConstants {
 	 * Only the second from the top level gets a key, every child module assumes the same key
 	 */
 	private void fillInMissingModuleKeyValues() {
+		KeyAllocator keys = new KeyAllocator();
+		for(BlueModule m : m_modules) {
+			Number k = getKey(m, Annotation.KnownAnnotation.MODULE_KEY);
+			if(k != null) {
+				keys.use(k.asLong());
+			}
+		}
+		//this assumes that the lowest value module should be the lowest possible value
+		long first = Math.max(keys.getLowest(), 0);
 		ListIterator<BlueModule> ms = m_modules.listIterator();
 		while(ms.hasNext()) {
 			BlueModule m = ms.next();
@@ -529,7 +769,7 @@ public class BlueberrySchemaParser implements Constants, TokenConstants {
 				if(a == null) {
 					//ok, so it doesn't have a module key
 					a = new Annotation(Annotation.KnownAnnotation.MODULE_KEY.getName(),null);
-					long k = getNextModuleKey();
+					long k = keys.allocate(first);
 					a.addParameter(new Number(k));
 					m.addAnnotation(a);
 					m_log.issueNote("Adding module key for "+sn.toUpperCamel("::")+" --> "+WriterUtils.formatAsHex(k), m.getCoord());
@@ -541,19 +781,23 @@ public class BlueberrySchemaParser implements Constants, TokenConstants {
 	}
 	/**
 	 * scan through all messages and assign any message keys that have not been assigned.
+	 * Each message gets the hash of its name as a key unless another message of the same module already uses that key,
+	 * in which case it gets the next free key after it.
 	 */
 	private void fillInMissingMessageKeyValues() {
 		for(BlueModule m : m_modules) {
+			KeyAllocator keys = new KeyAllocator();
+			m.getMessages().forEachOfType(MessageField.class, false, mf -> {
+				Number k = getKey(mf, Annotation.KnownAnnotation.MESSAGE_KEY);
+				if(k != null) {
+					keys.use(k.asLong());
+				}
+			});
 			m.getMessages().forEachOfType(MessageField.class, false, mf -> {
 				Annotation a = mf.getAnnotation(Annotation.KnownAnnotation.MESSAGE_KEY.getName());
 				if(a == null || a.getParameter(Number.class) == null) {
 					 a = new Annotation(Annotation.KnownAnnotation.MESSAGE_KEY.getName(), null);
-					 long h = makeHashKey(mf);
-//					 long i = getNextMessageKey(m);
-					 
-					 while(doesMessageKeyExist(m, h)) {
-						 ++h;
-					 }
+					 long h = keys.allocate(makeHashKey(mf));
 					 
 					a.addParameter(new Number(h));
 					mf.addAnnotation(a);
@@ -564,37 +808,15 @@ public class BlueberrySchemaParser implements Constants, TokenConstants {
 		}
 		
 	}
-	private boolean doesModuleKeyExist(long i) {
-		boolean result = false;
-		for(BlueModule m : m_modules) {
-			Annotation a = m.getAnnotation(Annotation.KnownAnnotation.MODULE_KEY.getName());
-			if(a != null) {
-				Number n = a.getParameter(Number.class);
-				if(n != null && n.asLong() == i) {
-					result = true;
-					break;
-				}
-			}
-		
-		}
-		return result;
-	}
-	private boolean doesMessageKeyExist(BlueModule m, long h) {
-		boolean result = false;
-		int n = m.getMessages().size();
-		for(int i = 0; i < n; ++i) {
-			MessageField msg = (MessageField)m.getMessages().get(i);
-			Annotation a = msg.getAnnotation(Annotation.KnownAnnotation.MODULE_KEY.getName());
-			if(a != null) {
-				Number nt = a.getParameter(Number.class);
-				if(nt != null && nt.asLong() == h) {
-					result = true;
-					break;
-				}
-			}
-		
-		}
-		return result;
+	/**
+	 * gets the number of a key annotation
+	 * @param owner - the module or message
+	 * @param ka - the kind of key
+	 * @return the key or null if there is no key annotation or it has no number yet
+	 */
+	private Number getKey(AnnotationOwner owner, Annotation.KnownAnnotation ka) {
+		Annotation a = owner.getAnnotation(ka.getName());
+		return a != null ? a.getParameter(Number.class) : null;
 	}
 
 	/**
@@ -625,84 +847,6 @@ public class BlueberrySchemaParser implements Constants, TokenConstants {
 		return crc.getCrc();
 	}
 
-	/**
-	 * picks the next available message key value
-	 * @return
-	 */
-	private long getNextMessageKey(BlueModule m) {
-		final ArrayList<Integer> keys = new ArrayList<>();
-		m.getMessages().forEachOfType(MessageField.class, false, mf -> {
-			Annotation a = mf.getAnnotation(Annotation.KnownAnnotation.MESSAGE_KEY.getName());
-			if(a != null) {
-				Number an = a.getParameter(Number.class);
-				if(an != null) {
-					keys.add(an.asInt());
-				}
-			}
-			
-		});
-		Collections.sort(keys);
-		int i = 0;
-		//this assumes that the lowest value module should be the lowest possible value
-		if(keys.size() > 0) {
-			i = keys.get(0);
-		}
-		//find the first value that does not exist
-		boolean done = false;
-		while(!done) {
-			done = true;
-			for(Integer k : keys) {
-				if(i == k) {
-					++i;
-					done = false;
-					break;
-				} else if(k > i){
-					done = true;
-				}
-			}
-		}
-		
-		return i;
-	}
-	/**
-	 * picks the next available message key value
-	 * @return
-	 */
-	private long getNextModuleKey() {
-		final ArrayList<Integer> keys = new ArrayList<>();
-		m_modules.forEach(m -> {
-			Annotation a = m.getAnnotation(Annotation.KnownAnnotation.MODULE_KEY.getName());
-			if(a != null) {
-				Number an = a.getParameter(Number.class);
-				if(an != null) {
-					keys.add(an.asInt());
-				}
-			}
-			
-		});
-		Collections.sort(keys);
-		int i = 0;
-		//this assumes that the lowest value module should be the lowest possible value
-		if(keys.size() > 0) {
-			i = keys.get(0);
-		}
-		//find the first value that does not exist
-		boolean done = false;
-		while(!done) {
-			done = true;
-			for(Integer k : keys) {
-				if(i == k) {
-					++i;
-					done = false;
-					break;
-				} else if(k > i){
-					done = true;
-				}
-			}
-		}
-		
-		return i;
-	}
 	/**
 	 * scans through all SingleWordTokens and converts them to SymbolNameTokens
 	 * Note that this should be called after scanning for numbers
@@ -788,7 +932,7 @@ public class BlueberrySchemaParser implements Constants, TokenConstants {
 		fs.forEach(f -> {
 			f.scanAnnotations(a -> {
 				a.replaceDeferredParameters(dp -> {
-					Constant<?> c = lookupConstant(dp.name, dp.imports);
+					Constant<?> c = m_symbols.lookupConstant(dp.name, dp.imports);
 					if(c == null) {
 						m_log.issueError("Cannot find constant of name: \""+dp.name.toLowerSnakeString()+"\"", a.getSource());
 					}
@@ -804,10 +948,10 @@ public class BlueberrySchemaParser implements Constants, TokenConstants {
 
 	/**
 	 * method that returns a replacement field for a deferred field
+	 * The definitions are looked up in the symbol table, so it must have been built already.
 	 * @param fs - this list to check for deferred fields
-	 * @param defines - the defines that hopefully contains the definition for those fields
 	 */
-	private <T extends Field> void processDeferredFields(ListIterator<Field> fi, FieldList defines) {	
+	private <T extends Field> void processDeferredFields(ListIterator<Field> fi) {	
 		while(fi.hasNext()) {
 			Field f = fi.next();
 			if(f instanceof DeferredField) {
@@ -819,18 +963,12 @@ public class BlueberrySchemaParser implements Constants, TokenConstants {
 				} else if(typeName != null) {
 				
 				
-					for(Field df : defines.getList()) {
-						if(df.getTypeName() == null) {
-							m_log.issueError("Somehow there's a defined type without a type name.", df.getCoord());
-						}
-						
-						if(df.getTypeName().isMatch(imports, typeName)) {
-							if(dft != null) {
-								m_log.issueWarning("Type shadowing: "+typeName.toUpperCamelString(), df.getCoord(), dft.getCoord());
-							} else {
-								dft = df;
-							}	
-						}
+					for(Field df : m_symbols.lookupTypes(typeName, imports)) {
+						if(dft != null) {
+							m_log.issueWarning("Type shadowing: "+typeName.toUpperCamelString(), df.getCoord(), dft.getCoord());
+						} else {
+							dft = df;
+						}	
 					}
 					if(dft == null) {
 						m_log.issueError("Could not find a type definition for \""+typeName+"\"", f.getCoord());
@@ -839,7 +977,7 @@ public class BlueberrySchemaParser implements Constants, TokenConstants {
 					}
 				}
 			} else if(f instanceof ParentField) {
-				processDeferredFields(((ParentField)f).getChildren().getIterator(), defines);
+				processDeferredFields(((ParentField)f).getChildren().getIterator());
 			}
 		}
 		
@@ -891,25 +1029,8 @@ public class BlueberrySchemaParser implements Constants, TokenConstants {
 					m_log.issueError("Unsigned keyword must be followed by a base type.", it.getEnd());
 					m_tokens.gotoSemi();
 				} else {
-					switch(btt.getKeyword()) {
-					case BYTE:
-					case INT8:
-						newTi = TokenIdentifier.UINT8;
-						break;
-					case SHORT:
-					case INT16:
-						newTi = TokenIdentifier.UINT16;
-						break;
-					case LONG:
-					case INT:
-					case INT32:
-						newTi = TokenIdentifier.UINT32;
-						break;
-					case INT64:
-					case LONG_LONG:
-						newTi = TokenIdentifier.UINT64;
-						break;
-					default:
+					newTi = BaseTypeToken.toUnsigned(btt.getKeyword());
+					if(newTi == null) {
 						m_log.issueError("Unsigned keyword makes no sense combined with "+btt.getName(), btt.getStart());
 					}
 					BaseTypeToken newBtt = new BaseTypeToken(it.getStart(), btt.getEnd(), newTi);
@@ -1362,9 +1483,9 @@ public class BlueberrySchemaParser implements Constants, TokenConstants {
 	 * @param name
 	 * @return
 	 */
-	private int lookupConstInt(SymbolName name, ScopeName[] imports) {
+	int lookupConstInt(SymbolName name, ScopeName[] imports) {
 		NumberConstant result = null;
-		Constant<?> c = lookupConstant(name, imports);
+		Constant<?> c = m_symbols.lookupConstant(name, imports);
 		if(c instanceof NumberConstant) {
 			result = (NumberConstant)c;
 		}
@@ -1372,29 +1493,12 @@ public class BlueberrySchemaParser implements Constants, TokenConstants {
 	}
 	
 	/**
-	 * scans through all known modules to find a constant with the specified name, given the list of imports
-	 * @param n
-	 * @param imports
-	 * @return
+	 * finds a module that has already been added to the module list
+	 * @param name - the absolute module name
+	 * @return the module or null if there is none of that name yet
 	 */
-	private Constant<?> lookupConstant(SymbolName n, ScopeName[] imports){
-		Constant<?> result = null;
-		for(ScopeName sn : imports) {
-			BlueModule found = null;
-			for(int i = 0; i < m_modules.size(); ++i) {
-				BlueModule m = m_modules.get(i);
-				if(m.getName().equals(sn)) {
-					found = m;
-					break;
-				}
-			}
-			if(found != null) {
-				result = found.getConstant(n);
-				break;
-			}
-		}
-		
-		return result;
+	BlueModule lookupModule(ScopeName name) {
+		return m_symbols.lookupModule(name);
 	}
 	private void assembleEnum(IdentifierToken enumT) {
 
@@ -1440,10 +1544,10 @@ public class BlueberrySchemaParser implements Constants, TokenConstants {
 					n = (Number)nvt.getValue();
 				}
 				if(nameToken != null) {
-					et.addNameValue(nameToken.getSymbolName(), Number.NAN, comment);
+					et.addNameValue(nameToken.getSymbolName(), Number.NAN, comment, nameToken.getStart());
 				} else if(n != null) {
 					try {
-						et.addNameValue(nvt.getSymbolName(), n, comment);
+						et.addNameValue(nvt.getSymbolName(), n, comment, nvt.getStart());
 					} catch(RuntimeException e) {
 						System.out.println("BlueberrySchemaParser.processEnum ");
 					}
@@ -1468,9 +1572,31 @@ public class BlueberrySchemaParser implements Constants, TokenConstants {
 
 		BaseTypeToken btt = m_tokens.relative(1, BaseTypeToken.class);
 		NameValueToken<?> nvt = m_tokens.relative(2, NameValueToken.class);
+		Constant<?> c = makeConstant(it, btt, nvt, m_lastComment);
+		if(c != null) {
+			c.setFileName(m_fileName);
+			m_lastComment = null;
+			m_moduleStack.getLast().addConstant(c);
+		}
+
+		m_tokens.gotoSemi();
+
+
+	}
+	/**
+	 * makes a constant from the tokens of a const statement
+	 * Any problems with the statement are logged
+	 * @param it - the const keyword token
+	 * @param btt - the type of the constant, if one was found
+	 * @param nvt - the name and value of the constant, if one was found
+	 * @param comment - the comment to attach to the constant
+	 * @return the new constant or null if one could not be made
+	 */
+	Constant<?> makeConstant(IdentifierToken it, BaseTypeToken btt, NameValueToken<?> nvt, String comment) {
+		Constant<?> result = null;
 		boolean nvtGood = nvt != null;
-		SymbolName name = nvtGood ? m_tokens.relative(2, NameValueToken.class).getSymbolName() : null;
-		Object val = nvtGood ? m_tokens.relative(2, NameValueToken.class).getValue() : null;
+		SymbolName name = nvtGood ? nvt.getSymbolName() : null;
+		Object val = nvtGood ? nvt.getValue() : null;
 		Number nVal = val instanceof Number ? (Number)val : null;
 		String sVal = val instanceof String ? (String)val : null;
 		
@@ -1479,22 +1605,12 @@ public class BlueberrySchemaParser implements Constants, TokenConstants {
 		TokenIdentifier ti = btt != null ? btt.getKeyword() : null;
 		if(btt == null) {
 			m_log.issueSkipped("Only base types and Strings can be declared const so far.", it.getStart());
-			m_tokens.gotoSemi();
 		} else if(ti == TokenIdentifier.STRING || ti == TokenIdentifier.CHAR) {
 			if(sVal == null) {
 				m_log.issueError("Const string must include a string value", it.getStart());
-				m_tokens.gotoSemi();
 			} else {
-				StringConstant c = new StringConstant(name, sVal, m_lastComment);
-				c.setFileName(m_fileName);
-				m_lastComment = null;
-				m_moduleStack.getLast().addConstant(c);
-			
+				result = new StringConstant(name, sVal, comment);
 			}
-			
-			
-
-
 		
 		} else if(btt.getKeyword() == TokenIdentifier.BOOLEAN) {
 			//check for boolean
@@ -1522,12 +1638,7 @@ public class BlueberrySchemaParser implements Constants, TokenConstants {
 			}
 			
 			if(b != null) {
-			
-				BooleanConstant c = new BooleanConstant(name, b, m_lastComment);
-				c.setFileName(m_fileName);
-				m_lastComment = null;
-				
-				m_moduleStack.getLast().addConstant(c);
+				result = new BooleanConstant(name, b, comment);
 			}
 			
 		} else {
@@ -1548,25 +1659,11 @@ public class BlueberrySchemaParser implements Constants, TokenConstants {
 				if(typeId == null) {
 					m_log.issueError("Something wrong with base type \""+btt.getKeyword()+"\"", btt.getStart());
 				} else {
-				
-			
-			
-				
-					NumberConstant c = new NumberConstant(typeId, name, nVal, m_lastComment);
-					c.setFileName(m_fileName);
-					m_lastComment = null;
-				
-			
-					m_moduleStack.getLast().addConstant(c);
+					result = new NumberConstant(typeId, name, nVal, comment);
 				}
 			}
-		
-	
 		}
-
-		m_tokens.gotoSemi();
-
-
+		return result;
 	}
 	private void assembleModule(IdentifierToken it) {
 		m_lastComment = null;
@@ -1588,9 +1685,9 @@ public class BlueberrySchemaParser implements Constants, TokenConstants {
 				m_tokens.setIndex(m_tokens.getLast());
 			}
 			BlueModule m = m_moduleStack.getLast().makeChild(moduleName.getSymbolName(), moduleName.getStart());
-			int i = m_modules.indexOf(m);
-			if(i >= 0) {
-				m = m_modules.get(i);
+			BlueModule existing = lookupModule(m.getName());
+			if(existing != null) {
+				m = existing;
 			} else {
 				
 				m_modules.add(m);
@@ -1618,22 +1715,32 @@ public class BlueberrySchemaParser implements Constants, TokenConstants {
 	 * Scans enum tokens and checks for duplicate values
 	 */
 	private void checkForDuplicateEnumValues() {
+		DuplicateFinder<SymbolName, NameValue> names = new DuplicateFinder<>();
+		DuplicateFinder<Long, NameValue> values = new DuplicateFinder<>();
 		m_defines.forEachOfType(EnumField.class, true, ef -> {
-			for(NameValue nv1 : ef.getNameValues()) {
-				for(NameValue nv2 : ef.getNameValues()) {
-					if(nv1 == nv2) {
-						//don't do anything, they're the same item
-					} else if(nv1.getName().equals(nv2.getName())){
-						//they have the same name
-						m_log.issueError("Duplicate enum item names: "+nv1.getName().toUpperSnakeString(), ef.getCoord());
-					} else if(nv1.getValue().equals(nv2.getValue())) {
+			names.clear();
+			values.clear();
+			for(NameValue nv2 : ef.getNameValues()) {
+				NameValue nv1 = names.add(nv2.getName(), nv2);
+				if(nv1 != null){
+					//they have the same name
+					m_log.issueError("Duplicate enum item names: "+nv2.getName().toUpperSnakeString(), getCoord(ef, nv2), getCoord(ef, nv1));
+				} else {
+					nv1 = values.add(nv2.getValue().asLong(), nv2);
+					if(nv1 != null) {
 						//they have the same value
-						m_log.issueError("Duplicate enum item values: "+nv1.getName().toUpperSnakeString()+" = "+nv1.getValue(), ef.getCoord());
+						m_log.issueError("Duplicate enum item values: "+nv2.getName().toUpperSnakeString()+" = "+nv2.getValue()+" is also "+nv1.getName().toUpperSnakeString(), getCoord(ef, nv2), getCoord(ef, nv1));
 					}
 				}
 			}
 		});
 	}
+	/**
+	 * the source of an enum item or of the whole enum if the item's source is not known
+	 */
+	private Coord getCoord(EnumField ef, NameValue nv) {
+		return nv.getCoord() != null ? nv.getCoord() : ef.getCoord();
+	}
 	/**
 	 * Scans for enum tokens that are missing values for their elements.
 	 * Fills them in with the smallest, unused, positive, integer value.
@@ -1682,10 +1789,10 @@ public class BlueberrySchemaParser implements Constants, TokenConstants {
 			result = TypeId.UINT8;
 			break;
 		case UINT64:
-		case LONG_LONG:
 			result = TypeId.UINT64;
 			break;
 		case INT64:
+		case LONG_LONG:
 			result = TypeId.INT64;
 			break;
 		case CHAR:
@@ -2278,6 +2385,13 @@ public class BlueberrySchemaParser implements Constants, TokenConstants {
 	public ArrayList<BlueModule> getModules(){
 		return m_modules;
 	}
+	/**
+	 * the tokens that have been appended so far, in order
+	 * @return a copy of the token list
+	 */
+	Token[] getTokens() {
+		return m_tokens.toArray();
+	}
 
 
 
@@ -0,0 +1,48 @@
+/*
+Copyright (c) 2026  Blue Robotics
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of
+this software and associated documentation files (the "Software"), to deal in
+the Software without restriction, including without limitation the rights to
+use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+of the Software, and to permit persons to whom the Software is furnished to do
+so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.bluerobotics.blueberry.schema.parser.parsing;
+
+import java.util.HashMap;
+
+/**
+ * Finds items that share a key, in a single pass over the items.
+ * The first item seen with each key is remembered so that any later item with the same key can be reported against it.
+ * This means each duplicate is reported once, rather than once for every pair of items.
+ * @param <K> - the type of the key that must be unique
+ * @param <T> - the type of the items
+ */
+class DuplicateFinder<K, T> {
+	private final HashMap<K, T> m_first = new HashMap<>();
+	
+	/**
+	 * records an item
+	 * @param key - the key that should be unique
+	 * @param item
+	 * @return the first item that had the same key or null if this is the first item with this key
+	 */
+	T add(K key, T item) {
+		return m_first.putIfAbsent(key, item);
+	}
+	void clear() {
+		m_first.clear();
+	}
+}
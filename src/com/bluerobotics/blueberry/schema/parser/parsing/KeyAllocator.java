@@ -0,0 +1,86 @@
+/*
+Copyright (c) 2026  Blue Robotics
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of
+this software and associated documentation files (the "Software"), to deal in
+the Software without restriction, including without limitation the rights to
+use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+of the Software, and to permit persons to whom the Software is furnished to do
+so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.bluerobotics.blueberry.schema.parser.parsing;
+
+import java.util.BitSet;
+import java.util.HashSet;
+
+/**
+ * Keeps track of which keys of a 16 bit key space are in use and hands out free ones.
+ * This is used for module keys and for the message keys within a module.
+ * Keys that were specified outside the 16 bit range are remembered so they can still be checked for duplicates,
+ * but they are never handed out.
+ */
+class KeyAllocator {
+	public static final int KEY_COUNT = 0x10000;
+	private final BitSet m_used = new BitSet(KEY_COUNT);
+	private final HashSet<Long> m_outOfRange = new HashSet<>();
+	
+	/**
+	 * marks a key as used
+	 * @param key
+	 * @return true if the key was free, false if it was already used
+	 */
+	boolean use(long key) {
+		boolean result;
+		if(key >= 0 && key < KEY_COUNT) {
+			result = !m_used.get((int)key);
+			m_used.set((int)key);
+		} else {
+			result = m_outOfRange.add(key);
+		}
+		return result;
+	}
+	boolean isUsed(long key) {
+		boolean result;
+		if(key >= 0 && key < KEY_COUNT) {
+			result = m_used.get((int)key);
+		} else {
+			result = m_outOfRange.contains(key);
+		}
+		return result;
+	}
+	/**
+	 * the lowest key that is in use
+	 * @return the key or -1 if no key in the 16 bit range is used
+	 */
+	long getLowest() {
+		return m_used.nextSetBit(0);
+	}
+	/**
+	 * picks the first free key at or after the preferred one, wrapping around at the end of the key space, and marks it as used
+	 * @param preferred - the key to try first, usually a hash of the name of whatever is being keyed
+	 * @return the key
+	 */
+	long allocate(long preferred) {
+		int start = (int)(preferred & (KEY_COUNT - 1));
+		int result = m_used.nextClearBit(start);
+		if(result >= KEY_COUNT) {
+			result = m_used.nextClearBit(0);
+			if(result >= start) {
+				throw new SchemaParserException("All "+KEY_COUNT+" keys are already in use.", null);
+			}
+		}
+		m_used.set(result);
+		return result;
+	}
+}
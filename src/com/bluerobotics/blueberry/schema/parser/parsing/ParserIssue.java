@@ -21,6 +21,7 @@ THE SOFTWARE.
 */
 package com.bluerobotics.blueberry.schema.parser.parsing;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.ListIterator;
@@ -30,7 +31,8 @@ import com.bluerobotics.blueberry.schema.parser.tokens.Coord;
 /**
  * 
  */
-public class ParserIssue {
+public class ParserIssue implements Serializable {
+	private static final long serialVersionUID = SchemaSnapshot.VERSION;
 	private final Coord[] m_locations;
 	private final String m_description;
 	public enum Type {
@@ -4,6 +4,8 @@
 package com.bluerobotics.blueberry.schema.parser.parsing;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 import com.bluerobotics.blueberry.schema.parser.gui.BlueberrySchemaParserGui.TextOutput;
 import com.bluerobotics.blueberry.schema.parser.parsing.ParserIssue.Type;
@@ -52,6 +54,38 @@ public class ParserIssueLogger {
 	}
 	
 	
+	/**
+	 * logs all the issues of another logger, in the order they were logged there
+	 * @param other
+	 */
+	public void addAll(ParserIssueLogger other) {
+		replay(other.m_issues, other.m_counts);
+	}
+
+	/**
+	 * the issues logged so far, in order
+	 * @return
+	 */
+	public List<ParserIssue> getIssues() {
+		return Collections.unmodifiableList(m_issues);
+	}
+	int[] getCounts() {
+		return m_counts.clone();
+	}
+	/**
+	 * logs issues that were recorded by another logger, along with that logger's counts
+	 * @param issues
+	 * @param counts
+	 */
+	void replay(List<ParserIssue> issues, int[] counts) {
+		for(int i = 0; i < m_counts.length && i < counts.length; ++i) {
+			m_counts[i] += counts[i];
+		}
+		for(ParserIssue pi : issues) {
+			logIssue(pi);
+		}
+	}
+
 	private void logIssue(ParserIssue pi) {
 		if(pi.getType() == ParserIssue.Type.ERROR) {
 			m_errorDetected = true;
@@ -0,0 +1,988 @@
+/*
+Copyright (c) 2026  Blue Robotics
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of
+this software and associated documentation files (the "Software"), to deal in
+the Software without restriction, including without limitation the rights to
+use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+of the Software, and to permit persons to whom the Software is furnished to do
+so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.bluerobotics.blueberry.schema.parser.parsing;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import com.bluerobotics.blueberry.schema.parser.constants.Constant;
+import com.bluerobotics.blueberry.schema.parser.constants.Number;
+import com.bluerobotics.blueberry.schema.parser.fields.ArrayField;
+import com.bluerobotics.blueberry.schema.parser.fields.BaseField;
+import com.bluerobotics.blueberry.schema.parser.fields.BlueModule;
+import com.bluerobotics.blueberry.schema.parser.fields.DeferredField;
+import com.bluerobotics.blueberry.schema.parser.fields.DefinedTypeField;
+import com.bluerobotics.blueberry.schema.parser.fields.EnumField;
+import com.bluerobotics.blueberry.schema.parser.fields.Field;
+import com.bluerobotics.blueberry.schema.parser.fields.MessageField;
+import com.bluerobotics.blueberry.schema.parser.fields.ParentField;
+import com.bluerobotics.blueberry.schema.parser.fields.ScopeName;
+import com.bluerobotics.blueberry.schema.parser.fields.SequenceField;
+import com.bluerobotics.blueberry.schema.parser.fields.StringField;
+import com.bluerobotics.blueberry.schema.parser.fields.StructField;
+import com.bluerobotics.blueberry.schema.parser.fields.SymbolName;
+import com.bluerobotics.blueberry.schema.parser.tokens.Annotation;
+import com.bluerobotics.blueberry.schema.parser.tokens.BaseTypeToken;
+import com.bluerobotics.blueberry.schema.parser.tokens.CommentToken;
+import com.bluerobotics.blueberry.schema.parser.tokens.Coord;
+import com.bluerobotics.blueberry.schema.parser.tokens.EolToken;
+import com.bluerobotics.blueberry.schema.parser.tokens.FilePathToken;
+import com.bluerobotics.blueberry.schema.parser.tokens.IdentifierToken;
+import com.bluerobotics.blueberry.schema.parser.tokens.NameValueToken;
+import com.bluerobotics.blueberry.schema.parser.tokens.NumberToken;
+import com.bluerobotics.blueberry.schema.parser.tokens.ScopeNameToken;
+import com.bluerobotics.blueberry.schema.parser.tokens.SingleWordToken;
+import com.bluerobotics.blueberry.schema.parser.tokens.StringToken;
+import com.bluerobotics.blueberry.schema.parser.tokens.SymbolNameToken;
+import com.bluerobotics.blueberry.schema.parser.tokens.Token;
+import com.bluerobotics.blueberry.schema.parser.tokens.TokenConstants;
+import com.bluerobotics.blueberry.schema.parser.tokens.TokenList;
+import com.bluerobotics.blueberry.schema.parser.types.TypeId;
+
+/**
+ * A recursive descent front end for the schema parser.
+ * This reads the raw tokens from the lexer and classifies them only as they are consumed,
+ * so none of the collapse passes over the whole token list are needed.
+ * Fields, constants and modules are built in a single pass and added to the parser
+ * in the same way that the collapsing front end does it.
+ * Line breaks are not significant to this front end.
+ */
+public class SchemaDescentParser implements TokenConstants {
+	private static final HashMap<String, TokenIdentifier> KEYWORDS = new HashMap<>();//lower case word to identifier
+	static {
+		for(TokenIdentifier ti : TokenIdentifier.values()) {
+			KEYWORDS.putIfAbsent(ti.id().toLowerCase(), ti);
+		}
+	}
+
+	private final BlueberrySchemaParser m_parser;
+	private final ParserIssueLogger m_log;
+	private TokenList m_tokens = null;//the raw tokens from the lexer
+	private final ArrayList<Token> m_ahead = new ArrayList<>();//tokens that have been classified but not consumed yet
+	private Token m_previous = null;//the last consumed token
+	private Token m_previous2 = null;//the token consumed before the last one
+
+	private final ArrayList<ScopeName> m_imports = new ArrayList<>();
+	private final ArrayList<Annotation> m_annotations = new ArrayList<>();
+	private final ArrayList<BlueModule> m_moduleStack = new ArrayList<>();
+	private String m_fileName = null;
+	private String m_lastComment = null;
+
+	public SchemaDescentParser(BlueberrySchemaParser parser, ParserIssueLogger log) {
+		m_parser = parser;
+		m_log = log;
+	}
+
+	/**
+	 * reads through all the specified tokens and adds modules, constants, defines and messages to the parser
+	 * @param tokens - the tokens produced by the lexer
+	 */
+	public void parse(TokenList tokens) {
+		m_tokens = tokens;
+		m_tokens.resetIndex();
+		m_ahead.clear();
+		m_previous = null;
+		m_previous2 = null;
+		m_imports.clear();
+		m_annotations.clear();
+		m_moduleStack.clear();
+		m_parser.getModules().clear();
+		m_fileName = null;
+		m_lastComment = null;
+
+		while(peek(0) != null) {
+			parseStatement();
+		}
+		m_tokens = null;
+	}
+
+	/**
+	 * parses one statement at file or module level
+	 */
+	private void parseStatement() {
+		Token t = take();
+		if(t instanceof IdentifierToken) {
+			IdentifierToken it = (IdentifierToken)t;
+			switch(it.getKeyword()) {
+			case CONST:
+				parseConst(it);
+				break;
+			case ENUM:
+				parseEnum(it);
+				break;
+			case IMPORT:
+				parseImport(it);
+				break;
+			case MESSAGE:
+				parseMessage(it);
+				break;
+			case MODULE:
+				parseModule(it);
+				break;
+			case STRUCT:
+				parseStruct(it);
+				break;
+			case TYPEDEF:
+				parseTypedef(it);
+				break;
+			case ANNOTATION_START:
+				parseAnnotation(it);
+				break;
+			case SEMICOLON:
+				//nothing to do
+				break;
+			case EQUALS:
+				parseStrayEquals(it);
+				break;
+			default:
+				m_log.issueNote("Did not process "+it+". This is probably not right.", it.getStart());
+				break;
+			}
+		} else if(t instanceof FilePathToken) {
+			m_fileName = ((FilePathToken)t).getString();
+			m_imports.clear();
+			m_moduleStack.clear();
+			m_moduleStack.add(BlueModule.ROOT);
+		} else if(t instanceof CommentToken) {
+			m_lastComment = ((CommentToken)t).combineLines();
+		}
+	}
+	/**
+	 * consumes a name = value outside of any statement that uses it.
+	 * The collapsing front end folds these into name value tokens that are then ignored, so they are not reported either.
+	 * @param equals
+	 */
+	private void parseStrayEquals(IdentifierToken equals) {
+		SymbolNameToken name = previous2(SymbolNameToken.class);
+		if(name != null && makeNameValue(name, equals, peek(0), null) != null) {
+			take();
+		} else {
+			m_log.issueNote("Did not process "+equals+". This is probably not right.", equals.getStart());
+		}
+	}
+	private void parseModule(IdentifierToken it) {
+		m_lastComment = null;
+		SymbolNameToken moduleName = peek(0, SymbolNameToken.class);
+		IdentifierToken braceStart = peekId(1, TokenIdentifier.BRACE_START);
+		if(braceStart == null) {
+			m_log.issueError("Module should start with opening brace", it.getEnd());
+			skipPastSemi();
+		} else if(moduleName == null) {
+			m_log.issueError("Module name is ill-formed.", it.getEnd());
+			skipPastSemi();
+		} else {
+			take();
+			take();
+			BlueModule m = m_moduleStack.getLast().makeChild(moduleName.getSymbolName(), moduleName.getStart());
+			BlueModule existing = m_parser.lookupModule(m.getName());
+			if(existing != null) {
+				m = existing;
+			} else {
+				m_parser.getModules().add(m);
+			}
+			m.addAnnotation(m_annotations);
+			m_annotations.clear();
+			m_moduleStack.add(m);
+
+			while(!isBodyEnd()) {
+				parseStatement();
+			}
+			if(peekId(0, TokenIdentifier.BRACE_END) != null) {
+				take();
+			} else {
+				m_log.issueError("Module statement open brace is never closed.", braceStart.getEnd());
+			}
+			m_moduleStack.removeLast();
+		}
+	}
+	private void parseImport(IdentifierToken it) {
+		m_lastComment = null;
+		SymbolNameToken nameToken = peek(0, SymbolNameToken.class);
+		if(nameToken == null) {
+			m_log.issueError("Import statement does not have a name specified", it.getStart());
+			skipPastSemi();
+		} else {
+			take();
+			ScopeName scope = ScopeName.wrap(nameToken.getSymbolName());
+			if(!scope.isAbsolute()) {
+				scope = scope.addRoot();
+			}
+			m_imports.add(scope);
+		}
+	}
+	private void parseConst(IdentifierToken it) {
+		BaseTypeToken btt = peek(0, BaseTypeToken.class);
+		NameValueToken<?> nvt = null;
+		if(btt != null && peek(1, SymbolNameToken.class) != null && peekId(2, TokenIdentifier.EQUALS) != null) {
+			nvt = makeNameValue((SymbolNameToken)peek(1), (IdentifierToken)peek(2), peek(3), null);
+		}
+		Constant<?> c = m_parser.makeConstant(it, btt, nvt, m_lastComment);
+		if(c != null) {
+			c.setFileName(m_fileName);
+			m_lastComment = null;
+			m_moduleStack.getLast().addConstant(c);
+		}
+		skipPastSemi();
+	}
+	/**
+	 * of the form <enum><name><colon?><baseType?><brace start><names or name values separated by commas><brace end>
+	 * @param enumT
+	 */
+	private void parseEnum(IdentifierToken enumT) {
+		SymbolNameToken nameToken = peek(0, SymbolNameToken.class);
+		IdentifierToken colon = peekId(1, TokenIdentifier.COLON);
+		BaseTypeToken btt = peek(2, BaseTypeToken.class);
+		int braceIndex = colon == null ? 1 : 3;
+		IdentifierToken braceStart = peekId(braceIndex, TokenIdentifier.BRACE_START);
+		if(braceStart == null){
+			m_log.issueError("Enum needs a body with members. Skipping to next file.", enumT.getEnd());
+			skipToNextFile();
+			return;
+		}
+		for(int i = 0; i <= braceIndex; ++i) {
+			take();
+		}
+		EnumField et = null;
+		if(nameToken == null) {
+			m_log.issueError("Enum name not specified.", enumT.getEnd());
+		} else {
+			TypeId bt = (btt != null) ? m_parser.lookupBaseType(btt.getKeyword()) : TypeId.UINT32;
+			ScopeName name = m_moduleStack.getLast().scope(nameToken.getSymbolName());
+			et = new EnumField(SymbolName.EMPTY, name, bt, m_lastComment, enumT.getEnd());
+			et.setFileName(m_fileName);
+			m_lastComment = null;
+			addDefine(et);
+		}
+
+		int depth = 0;
+		boolean done = false;
+		while(!done) {
+			Token t = peek(0);
+			if(t == null || t instanceof FilePathToken) {
+				m_log.issueError("Enum body has no closing brace. Skipping to next file.", enumT.getEnd());
+				done = true;
+			} else if(IdentifierToken.check(t, TokenIdentifier.BRACE_END)) {
+				take();
+				if(depth == 0) {
+					done = true;
+				} else {
+					--depth;
+				}
+			} else if(IdentifierToken.check(t, TokenIdentifier.BRACE_START)) {
+				take();
+				++depth;
+			} else if(t.getClass() == SymbolNameToken.class) {
+				CommentToken ct = previous(CommentToken.class);
+				CommentToken ct2 = previous2(CommentToken.class);
+				take();
+				SymbolNameToken itemName = (SymbolNameToken)t;
+				IdentifierToken equals = peekId(0, TokenIdentifier.EQUALS);
+				if(equals == null) {
+					if(et != null) {
+						et.addNameValue(itemName.getSymbolName(), Number.NAN, ct != null ? ct.combineLines() : null, itemName.getStart());
+					}
+				} else {
+					//a comment right before a name and value gets absorbed by it, like the collapsing front end does
+					CommentToken itemComment = ct != null ? ct2 : null;
+					take();
+					NameValueToken<?> nvt = makeNameValue(itemName, equals, peek(0), ct);
+					if(nvt != null) {
+						take();
+						if(et != null && nvt.getValue() instanceof Number) {
+							et.addNameValue(nvt.getSymbolName(), (Number)nvt.getValue(), itemComment != null ? itemComment.combineLines() : null, nvt.getStart());
+						}
+					}
+				}
+			} else {
+				take();
+			}
+		}
+	}
+	/**
+	 * process a struct statement and all the fields in the following braces
+	 * @param it
+	 */
+	private void parseStruct(IdentifierToken it) {
+		SymbolNameToken nameToken = peek(0, SymbolNameToken.class);
+		IdentifierToken braceStart = peekId(1, TokenIdentifier.BRACE_START);
+		if(braceStart == null) {
+			m_log.issueError("Struct has no opening brace. Skipping rest of file.", it.getEnd());
+			skipToNextFile();
+		} else if(nameToken == null) {
+			m_log.issueError("Struct has no specified name. Skipping rest of file.", it.getEnd());
+			skipToNextFile();
+		} else {
+			take();
+			take();
+			ScopeName name = m_moduleStack.getLast().scope(nameToken.getSymbolName());
+			StructField m = new StructField(SymbolName.EMPTY, name, m_lastComment, it.getStart());
+			m.setFileName(m_fileName);
+			m_lastComment = null;
+			addDefine(m);
+			m.addAnnotation(m_annotations);
+			m_annotations.clear();
+			if(!parseFields(m)) {
+				m_log.issueError("Did not find a match for "+braceStart, braceStart.getStart());
+			}
+		}
+	}
+	/**
+	 * process a message statement and all the fields in the following braces
+	 * @param it
+	 */
+	private void parseMessage(IdentifierToken it) {
+		SymbolNameToken nameToken = peek(0, SymbolNameToken.class);
+		IdentifierToken braceStart = peekId(1, TokenIdentifier.BRACE_START);
+		if(nameToken == null) {
+			m_log.issueError("Message has no specified name. Skipping rest of file.", it.getEnd());
+			skipToNextFile();
+		} else if(braceStart == null) {
+			m_log.issueError("Message statement has no opening brace. Skipping rest of file.", it.getEnd());
+			skipToNextFile();
+		} else {
+			take();
+			take();
+			ScopeName name = m_moduleStack.getLast().scope(nameToken.getSymbolName());
+			MessageField m = new MessageField(SymbolName.EMPTY, name, m_lastComment, it.getEnd());
+			m.setFileName(m_fileName);
+			m_lastComment = null;
+			m_parser.getMessages().add(m);
+			m_moduleStack.getLast().getMessages().add(m);
+			m.addAnnotation(m_annotations);
+			m_annotations.clear();
+			if(!parseFields(m)) {
+				m_log.issueError("Message statement has no closing brace.", braceStart.getEnd());
+			}
+		}
+	}
+	/**
+	 * parses the fields of a message or struct up to and including the closing brace
+	 * @param m - the parent to add the fields to
+	 * @return false if the closing brace was not found
+	 */
+	private boolean parseFields(ParentField m) {
+		boolean result = false;
+		while(!isBodyEnd()) {
+			Token t = peek(0);
+			if(IdentifierToken.check(t, TokenIdentifier.ANNOTATION_START)) {
+				parseAnnotation((IdentifierToken)take());
+			} else if(t instanceof CommentToken || IdentifierToken.check(t, TokenIdentifier.SEMICOLON)) {
+				take();
+			} else {
+				CommentToken ct = previous(CommentToken.class);
+				String comment = ct != null ? ct.combineLines() : null;
+				SymbolNameToken typeNameToken = peek(0, SymbolNameToken.class);
+				ScopeNameToken typeScopeNameToken = peek(0, ScopeNameToken.class);
+				ScopeName tn = typeScopeNameToken != null ? typeScopeNameToken.getScopeName() : typeNameToken != null ? ScopeName.wrap(typeNameToken.getSymbolName()) : null;
+
+				BaseTypeToken btt = peek(0, BaseTypeToken.class);
+				if(btt == null && tn == null) {
+					m_log.issueError("Expecting a type name.", t.getStart());
+				} else if(btt != null && btt.getKeyword() == TokenIdentifier.STRING) {
+					take();
+					StringField sf = parseString(btt, true, ct);
+					if(sf != null) {
+						m.add(sf);
+					}
+				} else {
+					SymbolNameToken nameToken = peek(1, SymbolNameToken.class);
+					if(nameToken == null) {
+						m_log.issueError("No name specified for field", t.getEnd());
+					} else if(btt != null) {
+						m.add(new BaseField(nameToken.getSymbolName(), m_parser.lookupBaseType(btt.getKeyword()), comment, nameToken.getEnd()));
+					} else {
+						//we have to defer looking this up for now
+						m.add(new DeferredField(nameToken.getSymbolName(), tn, getImports(true), comment, nameToken.getStart()));
+					}
+				}
+				skipPastSemi();
+			}
+		}
+		if(peekId(0, TokenIdentifier.BRACE_END) != null) {
+			take();
+			result = true;
+		}
+		return result;
+	}
+	/**
+	 * processes a string type. The string keyword must have been consumed already.
+	 * @param it - the string keyword token
+	 * @param findName - if true then expects a field name to occur after
+	 * @param ct - the comment for this string
+	 * @return the string field or null if it was ill-formed
+	 */
+	private StringField parseString(BaseTypeToken it, boolean findName, CommentToken ct) {
+		StringField result = null;
+		int maxSize = 65536;
+		boolean good = true;
+		IdentifierToken angleBracketStart = peekId(0, TokenIdentifier.ANGLE_BRACKET_START);
+		if(angleBracketStart != null) {
+			take();
+			NumberToken nt = peek(0, NumberToken.class);
+			if(!skipPastAngleBracket()) {
+				m_log.issueError("Starting angle brackets must have closing bracket too.", angleBracketStart.getEnd());
+				good = false;
+			} else if(nt == null) {
+				m_log.issueError("Angle brackets in a string definition should contain a number.", angleBracketStart.getEnd());
+				good = false;
+			} else {
+				maxSize = nt.getNumber().asInt();
+			}
+		}
+		SymbolNameToken nameT = good ? peek(0, SymbolNameToken.class) : null;
+		if(nameT != null) {
+			SymbolName name = findName ? nameT.getSymbolName() : null;
+			result = new StringField(name, null, maxSize, ct == null ? "" : ct.combineLines(), it.getEnd());
+			result.setFileName(m_fileName);
+		} else if(good) {
+			m_log.issueError("No name specified for field", it.getEnd());
+		}
+		return result;
+	}
+	/**
+	 * The typedef keyword is optional before sequence, enum and struct, otherwise this defines a new type from an existing one
+	 * @param it
+	 */
+	private void parseTypedef(IdentifierToken it) {
+		IdentifierToken id = peekId(0, TokenIdentifier.SEQUENCE, TokenIdentifier.ENUM, TokenIdentifier.STRUCT);
+		if(id == null) {
+			parseTypedefDefinition(it);
+		} else {
+			take();
+			switch(id.getKeyword()) {
+			case SEQUENCE:
+				parseSequence(new IdentifierToken(it.getStart(), id.getEnd(), TokenIdentifier.TYPEDEF_SEQUENCE));
+				break;
+			case ENUM:
+				parseEnum(id);
+				break;
+			default:
+				parseStruct(id);
+				break;
+			}
+		}
+	}
+	/**
+	 * of the form <typedef><sequence><angle bracket start><constituentTypeName><comma?><number?><angle bracket end><sequenceTypeName>
+	 * @param it - the combined typedef and sequence token
+	 */
+	private void parseSequence(IdentifierToken it) {
+		IdentifierToken angleBracketStart = peekId(0, TokenIdentifier.ANGLE_BRACKET_START);
+		BaseTypeToken btt = peek(1, BaseTypeToken.class);
+		SymbolNameToken snt = peek(1, SymbolNameToken.class);
+		Field cf = null;
+		if(angleBracketStart == null) {
+			m_log.issueError("Sequence keyword should be followed by an open angle bracket.", it.getEnd());
+		} else if(btt != null) {
+			if(btt.getKeyword() == TokenIdentifier.STRING) {
+				//sequences of strings are not supported by the collapsing front end either
+				IdentifierToken stringAngle = peekId(2, TokenIdentifier.ANGLE_BRACKET_START);
+				if(stringAngle != null) {
+					m_log.issueError("Angle brackets in a string definition should contain a number.", stringAngle.getEnd());
+				}
+			} else {
+				cf = new BaseField(null, m_parser.lookupBaseType(btt.getKeyword()), null, btt.getEnd());
+			}
+		} else if(snt != null) {
+			cf = new DeferredField(null, ScopeName.wrap(snt.getSymbolName()), getImports(true), null, snt.getStart());
+		} else {
+			m_log.issueError("Sequence must be defined with a type for its elements.", it.getEnd());
+		}
+		if(cf != null) {
+			IdentifierToken commaT = peekId(2, TokenIdentifier.COMMA);
+			NumberToken nt = peek(3, NumberToken.class);
+			int n = -1;
+			if(commaT != null && nt != null) {
+				n = nt.getNumber().asInt();
+			}
+			take();
+			if(!skipPastAngleBracket()) {
+				m_log.issueError("Starting angle brackets must have closing bracket too. Skipping rest of file.", angleBracketStart.getEnd());
+			} else {
+				IdentifierToken angleBracketEnd = (IdentifierToken)m_previous;
+				SymbolNameToken nameToken = peek(0, SymbolNameToken.class);
+				if(nameToken == null) {
+					m_log.issueError("Sequence needs a type name specified.", angleBracketEnd.getEnd());
+				} else {
+					ScopeName name = m_moduleStack.getLast().scope(nameToken.getSymbolName());
+					SequenceField sf = new SequenceField(null, name, m_lastComment, it.getEnd());
+					sf.setFileName(m_fileName);
+					sf.add(cf);
+					sf.setLimit(n);
+					m_lastComment = null;
+					addDefine(sf);
+				}
+			}
+		}
+		skipPastSemi();
+	}
+	/**
+	 * of the form <typedef><constituentTypeName><typeName><square bracket start?><number?><square bracket end?>...
+	 * @param it - the typedef token
+	 */
+	private void parseTypedefDefinition(IdentifierToken it) {
+		SymbolNameToken typeName = peek(0, SymbolNameToken.class);//this is the original type that this typedef is based on
+		BaseTypeToken btt = peek(0, BaseTypeToken.class);//this could also be the original type depending on whether it's a base type or not
+		SymbolNameToken name = peek(1, SymbolNameToken.class);//name of new type
+
+		if(name == null) {
+			m_log.issueError("No type name specified for this typedef.", it.getEnd());
+			skipPastSemi();
+		} else if(btt == null && typeName == null) {
+			m_log.issueError("No type specified for this typedef.", it.getEnd());
+			skipPastSemi();
+		} else {
+			ScopeName scopedName = m_moduleStack.getLast().scope(name.getSymbolName());
+			ArrayList<Integer> dims = new ArrayList<>();
+			int consumed = 2;//how many tokens make up the valid part of this typedef
+			boolean keepGoing = true;
+			while(keepGoing) {
+				IdentifierToken squareBracketStart = peekId(consumed, TokenIdentifier.SQUARE_BRACKET_START);
+				NumberToken arraySize = peek(consumed + 1, NumberToken.class);
+				SymbolNameToken arraySizeConst = peek(consumed + 1, SymbolNameToken.class);
+				IdentifierToken squareBracketEnd = peekId(consumed + 2, TokenIdentifier.SQUARE_BRACKET_END);
+				keepGoing = false;
+				if(squareBracketStart == null) {
+					//no more dimensions
+				} else if(squareBracketEnd == null) {
+					m_log.issueError("Starting square bracket does not have a closing bracket.", squareBracketStart.getEnd());
+				} else if(arraySize == null && arraySizeConst == null) {
+					m_log.issueError("Array definition needs a size specified.", squareBracketStart.getEnd());
+				} else {
+					int n = arraySize != null ? arraySize.getNumber().asInt() : m_parser.lookupConstInt(arraySizeConst.getSymbolName(), getImports(true));
+					dims.add(n);
+					consumed += 3;
+					keepGoing = true;
+				}
+			}
+
+			if(btt != null && btt.getKeyword() == TokenIdentifier.STRING) {
+				m_log.issueSkipped("Typedef doesn't work with Strings yet.", btt.getStart());
+				skipPastSemi();
+			} else {
+				TypeId id = (btt != null) ? m_parser.lookupBaseType(btt.getKeyword()) : TypeId.DEFERRED;
+
+				ParentField pf;
+				if(dims.size() == 0) {
+					pf = new DefinedTypeField(null, scopedName, m_lastComment, it.getEnd());
+				} else {
+					int[] ds = new int[dims.size()];
+					for(int j = 0; j < dims.size(); ++j) {
+						ds[j] = dims.get(j);
+					}
+					pf = new ArrayField(null, scopedName, id, ds, m_lastComment, name.getEnd());
+				}
+				pf.setFileName(m_fileName);
+				addDefine(pf);
+				//now add a field to contain the target type of this define
+				if(btt != null) {
+					pf.add(new BaseField(null, m_parser.lookupBaseType(btt.getKeyword()), null, btt.getEnd()));
+				} else {
+					//we must defer this
+					pf.add(new DeferredField(null, ScopeName.wrap(typeName.getSymbolName()), getImports(true), m_lastComment, typeName.getEnd()));
+				}
+				m_lastComment = null;
+				for(int i = 0; i < consumed; ++i) {
+					take();
+				}
+			}
+		}
+	}
+	/**
+	 * parses an annotation and any parameters in brackets after it
+	 * @param at - the annotation start token
+	 */
+	private void parseAnnotation(IdentifierToken at) {
+		SymbolNameToken swt = peek(0, SymbolNameToken.class);
+		if(swt == null) {
+			m_log.issueError("Annotation symbol should be followed by a name", at.getEnd());
+			return;
+		}
+		take();
+		ScopeName sn = swt instanceof ScopeNameToken ? ((ScopeNameToken)swt).getScopeName() : ScopeName.wrap(swt.getSymbolName());
+		Annotation a = new Annotation(sn, swt.getStart());
+
+		IdentifierToken bracketStart = peekId(0, TokenIdentifier.BRACKET_START);
+		if(bracketStart != null) {
+			take();
+			int depth = 0;
+			boolean done = false;
+			while(!done) {
+				Token t = peek(0);
+				if(t == null || t instanceof FilePathToken) {
+					m_log.issueError("Did not find a match for "+bracketStart, bracketStart.getStart());
+					done = true;
+				} else if(depth == 0 && IdentifierToken.check(t, TokenIdentifier.BRACKET_END)) {
+					take();
+					done = true;
+				} else {
+					take();
+					if(t instanceof StringToken) {
+						a.addParameter(t.getName());
+					} else if(t instanceof SymbolNameToken) {
+						IdentifierToken equals = peekId(0, TokenIdentifier.EQUALS);
+						NameValueToken<?> nvt = equals != null ? makeNameValue((SymbolNameToken)t, equals, peek(1), null) : null;
+						if(nvt != null) {
+							take();
+							take();
+							a.addParameter(nvt.getValue());
+						} else {
+							//this is likely a constant
+							a.addDeferredParameter(((SymbolNameToken)t).getSymbolName(), getImports(true));
+						}
+					} else if(t instanceof NumberToken) {
+						a.addParameter(((NumberToken)t).getNumber());
+					} else if(t instanceof CommentToken) {
+						//ignore comments
+					} else if(t instanceof IdentifierToken) {
+						IdentifierToken it = (IdentifierToken)t;
+						if(it.check(TokenIdentifier.BRACKET_START)) {
+							++depth;
+						} else if(it.check(TokenIdentifier.BRACKET_END)) {
+							--depth;
+						}
+						if(it.getKeyword() != TokenIdentifier.COMMA){
+							m_log.issueError("Parameters should be comma separated "+t, t.getStart());
+						}
+					} else {
+						m_log.issueError("This doesn't seem to be a valid annotation parameter "+t, t.getStart());
+					}
+				}
+			}
+		}
+		if(a.getName().equals(Annotation.KnownAnnotation.FILE_PATH.getName())) {
+			String fn = a.getParameter(String.class);
+			if(fn == null) {
+				m_log.issueError("File path annotation should have a string parameter.");
+			} else {
+				m_fileName = fn;
+			}
+		} else {
+			m_annotations.add(a);
+		}
+	}
+	/**
+	 * makes a name value token from a name, an equals sign and a value
+	 * @param nameT
+	 * @param equalsT
+	 * @param valueT - the token after the equals sign
+	 * @param commentT - the comment before the name, if any
+	 * @return the new token or null if the value is not something that can be assigned
+	 */
+	private NameValueToken<?> makeNameValue(SymbolNameToken nameT, IdentifierToken equalsT, Token valueT, CommentToken commentT) {
+		NameValueToken<?> result = null;
+		Coord start = nameT.getStart();
+		Coord end = Coord.findEnd(nameT, commentT);
+		String comment = commentT != null ? commentT.combineLines() : null;
+		SymbolName name = nameT.getSymbolName();
+		if(valueT instanceof NumberToken) {
+			NumberToken numberT = (NumberToken)valueT;
+			result = new NameValueToken<Number>(start, Coord.findEnd(nameT, numberT, commentT), name, numberT.getNumber(), comment);
+		} else if(valueT instanceof StringToken) {
+			result = new NameValueToken<String>(start, end, name, ((StringToken)valueT).getString(), comment);
+		} else if(valueT instanceof ScopeNameToken) {
+			result = new NameValueToken<ScopeName>(start, end, name, ((ScopeNameToken)valueT).getScopeName(), comment);
+		} else if(valueT instanceof SymbolNameToken) {
+			result = new NameValueToken<SymbolName>(start, end, name, ((SymbolNameToken)valueT).getSymbolName(), comment);
+		} else if(valueT instanceof IdentifierToken) {
+			result = new NameValueToken<TokenIdentifier>(start, end, name, ((IdentifierToken)valueT).getKeyword(), comment);
+		} else {
+			m_log.issueError("Incorrect tokens around equals.", equalsT.getStart());
+		}
+		return result;
+	}
+	private void addDefine(Field f) {
+		m_parser.getDefines().add(f);
+		m_moduleStack.getLast().getDefines().add(f);
+	}
+	/**
+	 * builds an array of all names of modules, from any import statements and if specified, from the current module too
+	 * @param includeModule
+	 * @return
+	 */
+	private ScopeName[] getImports(boolean includeModule) {
+		ArrayList<ScopeName> result = new ArrayList<ScopeName>();
+		result.addAll(m_imports);
+		if(includeModule) {
+			result.add(m_moduleStack.getLast().getName());
+		}
+		result.add(0, m_moduleStack.getFirst().getName());
+		return result.toArray(new ScopeName[result.size()]);
+	}
+
+	/**
+	 * checks if the next token closes the current body or if there is nothing more in this file
+	 * @return
+	 */
+	private boolean isBodyEnd() {
+		Token t = peek(0);
+		return t == null || t instanceof FilePathToken || IdentifierToken.check(t, TokenIdentifier.BRACE_END);
+	}
+	/**
+	 * consumes tokens up to and including the next semicolon.
+	 * Stops before the brace that closes the current body or the start of the next file.
+	 */
+	private void skipPastSemi() {
+		int depth = 0;
+		boolean done = false;
+		while(!done) {
+			Token t = peek(0);
+			if(t == null || t instanceof FilePathToken) {
+				done = true;
+			} else if(IdentifierToken.check(t, TokenIdentifier.BRACE_END)) {
+				if(depth == 0) {
+					done = true;
+				} else {
+					--depth;
+					take();
+				}
+			} else {
+				if(IdentifierToken.check(t, TokenIdentifier.BRACE_START)) {
+					++depth;
+				} else if(depth == 0 && IdentifierToken.check(t, TokenIdentifier.SEMICOLON)) {
+					done = true;
+				}
+				take();
+			}
+		}
+	}
+	/**
+	 * consumes tokens up to the start of the next file
+	 */
+	private void skipToNextFile() {
+		while(peek(0) != null && !(peek(0) instanceof FilePathToken)) {
+			take();
+		}
+	}
+	/**
+	 * consumes tokens up to and including the angle bracket that matches one that has already been consumed
+	 * @return false if there was no matching angle bracket in this file
+	 */
+	private boolean skipPastAngleBracket() {
+		boolean result = false;
+		int depth = 0;
+		boolean done = false;
+		while(!done) {
+			Token t = peek(0);
+			if(t == null || t instanceof FilePathToken) {
+				done = true;
+			} else {
+				take();
+				if(IdentifierToken.check(t, TokenIdentifier.ANGLE_BRACKET_START)) {
+					++depth;
+				} else if(IdentifierToken.check(t, TokenIdentifier.ANGLE_BRACKET_END)) {
+					if(depth == 0) {
+						result = true;
+						done = true;
+					} else {
+						--depth;
+					}
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * get the classified token the specified number of tokens ahead of the cursor
+	 * @param i
+	 * @return the token or null if there are not that many tokens left
+	 */
+	private Token peek(int i) {
+		boolean more = true;
+		while(more && m_ahead.size() <= i) {
+			more = classifyNext();
+		}
+		return i < m_ahead.size() ? m_ahead.get(i) : null;
+	}
+	private <T extends Token> T peek(int i, Class<T> type) {
+		Token t = peek(i);
+		return type.isInstance(t) ? type.cast(t) : null;
+	}
+	private IdentifierToken peekId(int i, TokenIdentifier... ids) {
+		return IdentifierToken.test(peek(i), ids);
+	}
+	/**
+	 * consume the next classified token
+	 * @return the token or null if there are none left
+	 */
+	private Token take() {
+		Token t = peek(0);
+		if(t != null) {
+			m_ahead.remove(0);
+			m_previous2 = m_previous;
+			m_previous = t;
+		}
+		return t;
+	}
+	private <T extends Token> T previous(Class<T> type) {
+		return type.isInstance(m_previous) ? type.cast(m_previous) : null;
+	}
+	private <T extends Token> T previous2(Class<T> type) {
+		return type.isInstance(m_previous2) ? type.cast(m_previous2) : null;
+	}
+
+	/**
+	 * reads raw tokens until at least one more classified token can be added to the look ahead list
+	 * @return false if there are no raw tokens left
+	 */
+	private boolean classifyNext() {
+		boolean result = false;
+		while(!result && !m_tokens.isAtEnd()) {
+			Token t = m_tokens.getCurrent();
+			m_tokens.next();
+			if(t instanceof EolToken || isSpace(t)) {
+				//line breaks and white space are not significant
+			} else if(t instanceof CommentToken) {
+				m_ahead.add(classifyComment((CommentToken)t));
+				result = true;
+			} else if(t instanceof SingleWordToken) {
+				Token ct = classifyWord((SingleWordToken)t);
+				m_ahead.add(ct);
+				if(IdentifierToken.check(ct, TokenIdentifier.UNSIGNED)) {
+					classifyUnsigned((BaseTypeToken)ct);
+				}
+				result = true;
+			} else {
+				m_ahead.add(t);
+				result = true;
+			}
+		}
+		return result;
+	}
+	/**
+	 * a line comment is combined with a line comment on the next line
+	 * @param ct
+	 * @return
+	 */
+	private CommentToken classifyComment(CommentToken ct) {
+		CommentToken result = ct;
+		if(ct.isLineComment()) {
+			int i = 0;
+			while(m_tokens.relative(i) instanceof EolToken || isSpace(m_tokens.relative(i))) {
+				++i;
+			}
+			Token t = m_tokens.relative(i);
+			if(t instanceof CommentToken && ((CommentToken)t).isLineComment()) {
+				result = ct.combine((CommentToken)t);
+				m_tokens.next(i + 1);
+			}
+		}
+		return result;
+	}
+	/**
+	 * Converts a single word token into an identifier, base type, number, symbol name or scoped name token
+	 * @param swt
+	 * @return
+	 */
+	private Token classifyWord(SingleWordToken swt) {
+		Token result;
+		TokenIdentifier ti = KEYWORDS.get(swt.getName().toLowerCase());
+		if(ti == TokenIdentifier.SCOPE_SEPARATOR) {
+			SymbolNameToken snt = new ScopeNameToken(swt.getStart(), swt.getEnd(), ScopeName.ROOT);
+			SymbolName sn = toSymbolName(m_tokens.getCurrent());
+			if(sn != null) {
+				snt = new ScopeNameToken(swt.getStart(), m_tokens.getCurrent().getEnd(), ScopeName.ROOT.addLevelBelow(sn));
+				m_tokens.next();
+			}
+			result = classifyScope(snt);
+		} else if(ti != null) {
+			IdentifierToken it = new IdentifierToken(swt.getStart(), swt.getEnd(), ti);
+			if(ti == TokenIdentifier.LONG) {
+				int i = 0;
+				while(isSpace(m_tokens.relative(i))) {
+					++i;
+				}
+				Token t = m_tokens.relative(i);
+				if(t instanceof SingleWordToken && KEYWORDS.get(t.getName().toLowerCase()) == TokenIdentifier.LONG) {
+					it = new IdentifierToken(swt.getStart(), t.getEnd(), TokenIdentifier.LONG_LONG);
+					m_tokens.next(i + 1);
+				}
+			}
+			BaseTypeToken btt = BaseTypeToken.makeNew(it);
+			result = btt != null ? btt : it;
+		} else {
+			NumberToken nt = NumberToken.wrap(swt);
+			if(nt != null) {
+				result = nt;
+			} else {
+				result = classifyScope(new SymbolNameToken(swt.getStart(), swt.getEnd(), SymbolName.guess(swt.getName())));
+			}
+		}
+		return result;
+	}
+	/**
+	 * extends a symbol name with any scope separators and names that immediately follow it
+	 * @param snt
+	 * @return
+	 */
+	private SymbolNameToken classifyScope(SymbolNameToken snt) {
+		SymbolNameToken result = snt;
+		boolean keepGoing = true;
+		while(keepGoing) {
+			Token sep = m_tokens.relative(0);
+			SymbolName sn = toSymbolName(m_tokens.relative(1));
+			if(sep instanceof SingleWordToken && sep.getName().equals(TokenIdentifier.SCOPE_SEPARATOR.id()) && sn != null) {
+				ScopeName before = result instanceof ScopeNameToken ? ((ScopeNameToken)result).getScopeName() : ScopeName.wrap(result.getSymbolName());
+				result = new ScopeNameToken(result.getStart(), m_tokens.relative(1).getEnd(), before.addLevelBelow(sn));
+				m_tokens.next(2);
+			} else {
+				keepGoing = false;
+			}
+		}
+		return result;
+	}
+	/**
+	 * replaces an unsigned token in the look ahead list with the unsigned version of the base type that follows it
+	 * @param it - the unsigned token, which must be the last one in the look ahead list
+	 */
+	private void classifyUnsigned(BaseTypeToken it) {
+		int i = m_ahead.size();
+		classifyNext();
+		BaseTypeToken btt = i < m_ahead.size() && m_ahead.get(i) instanceof BaseTypeToken ? (BaseTypeToken)m_ahead.get(i) : null;
+		if(btt == null) {
+			m_log.issueError("Unsigned keyword must be followed by a base type.", it.getEnd());
+		} else {
+			TokenIdentifier ti = BaseTypeToken.toUnsigned(btt.getKeyword());
+			if(ti == null) {
+				m_log.issueError("Unsigned keyword makes no sense combined with "+btt.getName(), btt.getStart());
+				m_ahead.remove(i - 1);
+			} else {
+				m_ahead.remove(i);
+				m_ahead.set(i - 1, new BaseTypeToken(it.getStart(), btt.getEnd(), ti));
+			}
+		}
+	}
+	private SymbolName toSymbolName(Token t) {
+		SymbolName result = null;
+		if(t instanceof SingleWordToken) {
+			SingleWordToken swt = (SingleWordToken)t;
+			if(!KEYWORDS.containsKey(swt.getName().toLowerCase()) && NumberToken.wrap(swt) == null) {
+				result = SymbolName.guess(swt.getName());
+			}
+		}
+		return result;
+	}
+	private boolean isSpace(Token t) {
+		return IdentifierToken.check(t, TokenIdentifier.SPACE, TokenIdentifier.TAB);
+	}
+}
@@ -0,0 +1,140 @@
+/*
+Copyright (c) 2026  Blue Robotics
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of
+this software and associated documentation files (the "Software"), to deal in
+the Software without restriction, including without limitation the rights to
+use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+of the Software, and to permit persons to whom the Software is furnished to do
+so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.bluerobotics.blueberry.schema.parser.parsing;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+import com.bluerobotics.blueberry.schema.parser.tokens.SchemaText;
+
+/**
+ * Finds and reads the schema files under a directory.
+ * Only files with one of the schema extensions are read. Each one is read into a single SchemaText rather than an array of line strings.
+ */
+public class SchemaLoader {
+	public static final String[] DEFAULT_EXTENSIONS = new String[] {"bsd", "idl", "txt"};
+
+	private final ParserIssueLogger m_log;
+	private final String[] m_extensions;
+
+	/**
+	 * @param log - where problems reading individual files are reported
+	 * @param extensions - the file extensions of schema files, without the dot. Matching ignores case.
+	 */
+	public SchemaLoader(ParserIssueLogger log, String... extensions) {
+		m_log = log;
+		ArrayList<String> es = new ArrayList<>();
+		for(String e : extensions) {
+			e = e.trim().toLowerCase(Locale.ROOT);
+			if(e.startsWith(".")) {
+				e = e.substring(1);
+			}
+			if(!e.isEmpty()) {
+				es.add("." + e);
+			}
+		}
+		m_extensions = es.toArray(new String[es.size()]);
+	}
+	public SchemaLoader(ParserIssueLogger log) {
+		this(log, DEFAULT_EXTENSIONS);
+	}
+	/**
+	 * checks if the specified file has one of the schema extensions
+	 * @param p
+	 * @return
+	 */
+	public boolean isSchemaFile(Path p) {
+		boolean result = false;
+		Path fn = p.getFileName();
+		if(fn != null) {
+			String n = fn.toString().toLowerCase(Locale.ROOT);
+			for(String e : m_extensions) {
+				if(n.endsWith(e)) {
+					result = true;
+					break;
+				}
+			}
+		}
+		return result;
+	}
+	/**
+	 * finds the schema files under the specified directory, sorted by their path relative to it
+	 * @param root - a directory or a single schema file
+	 * @return
+	 * @throws IOException if the directory cannot be walked
+	 */
+	public List<Path> find(Path root) throws IOException {
+		ArrayList<Path> result = new ArrayList<>();
+		Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+			@Override
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+				if(attrs.isRegularFile() && isSchemaFile(file)) {
+					result.add(file);
+				}
+				return FileVisitResult.CONTINUE;
+			}
+			@Override
+			public FileVisitResult visitFileFailed(Path file, IOException e) {
+				m_log.issueError("Could not read \"" + file + "\": " + e.getMessage());
+				return FileVisitResult.CONTINUE;
+			}
+		});
+		result.sort(Comparator.comparing(p -> relativePath(root, p)));
+		return result;
+	}
+	/**
+	 * reads all the schema files under the specified directory.
+	 * The paths of the resulting texts are relative to the directory.
+	 * Files that cannot be read are reported and skipped.
+	 * @param root - a directory or a single schema file
+	 * @return the texts, sorted by path
+	 * @throws IOException if the directory cannot be walked
+	 */
+	public List<SchemaText> load(Path root) throws IOException {
+		ArrayList<SchemaText> result = new ArrayList<>();
+		for(Path p : find(root)) {
+			try {
+				result.add(SchemaText.read(p, relativePath(root, p)));
+			} catch(IOException e) {
+				m_log.issueError("Could not read \"" + p + "\": " + e.getMessage());
+			}
+		}
+		return result;
+	}
+	private static String relativePath(Path root, Path p) {
+		String result;
+		if(p.equals(root)) {
+			result = p.getFileName().toString();
+		} else {
+			result = root.relativize(p).toString();
+		}
+		return result;
+	}
+}
@@ -0,0 +1,331 @@
+/*
+Copyright (c) 2026  Blue Robotics
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of
+this software and associated documentation files (the "Software"), to deal in
+the Software without restriction, including without limitation the rights to
+use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+of the Software, and to permit persons to whom the Software is furnished to do
+so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.bluerobotics.blueberry.schema.parser.parsing;
+
+import com.bluerobotics.blueberry.schema.parser.tokens.CommentToken;
+import com.bluerobotics.blueberry.schema.parser.tokens.Coord;
+import com.bluerobotics.blueberry.schema.parser.tokens.EolToken;
+import com.bluerobotics.blueberry.schema.parser.tokens.FilePathToken;
+import com.bluerobotics.blueberry.schema.parser.tokens.IdentifierToken;
+import com.bluerobotics.blueberry.schema.parser.tokens.SchemaText;
+import com.bluerobotics.blueberry.schema.parser.tokens.SingleWordToken;
+import com.bluerobotics.blueberry.schema.parser.tokens.StringToken;
+import com.bluerobotics.blueberry.schema.parser.tokens.TokenConstants;
+import com.bluerobotics.blueberry.schema.parser.tokens.TokenList;
+
+/**
+ * This tokenizes schema files by walking each line with a mutable cursor.
+ * It produces the same token stream as the Coord based lexer in BlueberrySchemaParser
+ * but only makes Coord objects for the tokens it actually emits.
+ */
+public class SchemaScanner implements TokenConstants {
+	/**
+	 * the identifiers that separate single word tokens.
+	 * These are sensitive to order. For example the scope separator must be tested before the colon
+	 */
+	private static final TokenIdentifier[] DELIMITERS = new TokenIdentifier[] {
+			TokenIdentifier.SPACE,
+			TokenIdentifier.TAB,
+			TokenIdentifier.BRACE_START,
+			TokenIdentifier.BRACE_END,
+			TokenIdentifier.BRACKET_START,
+			TokenIdentifier.BRACKET_END,
+			TokenIdentifier.SQUARE_BRACKET_START,
+			TokenIdentifier.SQUARE_BRACKET_END,
+			TokenIdentifier.ANGLE_BRACKET_START,
+			TokenIdentifier.ANGLE_BRACKET_END,
+			TokenIdentifier.SCOPE_SEPARATOR,
+			TokenIdentifier.COLON,
+			TokenIdentifier.EQUALS,
+			TokenIdentifier.ANNOTATION_START,
+			TokenIdentifier.SEMICOLON,
+			TokenIdentifier.COMMA
+	};
+	private static final boolean[] DELIMITER_STARTS = new boolean[128];//quick check of the first character of all delimiters
+	static {
+		for(TokenIdentifier ti : DELIMITERS) {
+			DELIMITER_STARTS[ti.id().charAt(0)] = true;
+		}
+	}
+
+	private final TokenList m_tokens;
+	private final ParserIssueLogger m_log;
+
+	private String m_filePath = null;
+	private SchemaText m_text = null;
+	private int m_lineIndex = 0;//the line number of the cursor
+	private int m_lineLength = 0;//the length of the line the cursor is on
+	private int m_index = 0;//the character index of the cursor within the current line
+	private int m_lastNonBlank = -1;//the index of the last non-whitespace character of the current line
+	private boolean m_done = true;//true once the cursor has moved past the last line
+
+	public SchemaScanner(TokenList tokens, ParserIssueLogger log) {
+		m_tokens = tokens;
+		m_log = log;
+	}
+
+	/**
+	 * reads through the lines of a file and adds tokens to the token list
+	 * @param filePath - a string of the file path of this file
+	 * @param lines - the lines of the file
+	 */
+	public void scan(String filePath, String[] lines) {
+		scan(SchemaText.of(filePath, lines));
+	}
+	/**
+	 * reads through the lines of a file and adds tokens to the token list
+	 * @param text - the text of the file
+	 */
+	public void scan(SchemaText text) {
+		m_filePath = text.getPath();
+		m_text = text;
+
+		m_tokens.add(new FilePathToken(new Coord(m_filePath, 0, 0, text), m_filePath));
+
+		gotoLine(0);
+		while(!m_done) {
+			processBlockComment();
+			processLineComment();
+			processQuotes(STRING_DELIMITER);
+			processQuotes(CHAR_DELIMITER);
+			processNextToken();
+			processEol();
+		}
+		m_text = null;
+	}
+
+	/**
+	 * move the cursor to the start of the specified line
+	 * If there is no such line then the scanner is done
+	 * @param i
+	 */
+	private void gotoLine(int i) {
+		if(i < m_text.getLineCount()) {
+			m_lineIndex = i;
+			m_lineLength = m_text.getLineLength(i);
+			m_index = 0;
+			m_lastNonBlank = m_lineLength - 1;
+			while(m_lastNonBlank >= 0 && Character.isWhitespace(charAt(m_lastNonBlank))) {
+				--m_lastNonBlank;
+			}
+			m_done = false;
+		} else {
+			m_done = true;
+		}
+	}
+	private void nextLine() {
+		gotoLine(m_lineIndex + 1);
+	}
+	private Coord makeCoord(int i) {
+		return new Coord(m_filePath, m_lineIndex, i, m_text);
+	}
+	private char charAt(int i) {
+		return m_text.charAt(m_lineIndex, i);
+	}
+	private boolean isEol() {
+		return m_index >= m_lineLength;
+	}
+	private boolean startsWith(String s) {
+		return startsWith(s, m_index);
+	}
+	private boolean startsWith(String s, int i) {
+		return m_text.startsWith(m_lineIndex, i, s);
+	}
+	/**
+	 * advances to the next non-whitespace character
+	 * will not advance to the next line
+	 */
+	private void trim() {
+		while(!isEol()) {
+			char ch = charAt(m_index);
+			if(ch == ' ' || ch == '\t') {
+				++m_index;
+			} else {
+				break;
+			}
+		}
+	}
+	/**
+	 * checks if the specified range of the current line is all whitespace
+	 * @param start - first character index, inclusive
+	 * @param end - last character index, exclusive
+	 * @return
+	 */
+	private boolean isBlank(int start, int end) {
+		boolean result = true;
+		for(int i = start; i < end; ++i) {
+			if(!Character.isWhitespace(charAt(i))) {
+				result = false;
+				break;
+			}
+		}
+		return result;
+	}
+	/**
+	 * find the length of the delimiter at the specified index of the current line
+	 * @param i
+	 * @return the length of the delimiter or zero if there isn't one there
+	 */
+	private int matchDelimiter(int i) {
+		int result = 0;
+		char ch = charAt(i);
+		if(ch < DELIMITER_STARTS.length && DELIMITER_STARTS[ch]) {
+			for(TokenIdentifier ti : DELIMITERS) {
+				if(startsWith(ti.id(), i)) {
+					result = ti.id().length();
+					break;
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Checks if the cursor is at a block comment and if so consumes it
+	 */
+	private void processBlockComment() {
+		if(m_done || !startsWith(COMMENT_BLOCK_START)) {
+			return;
+		}
+		int commentLine = m_lineIndex;
+		int commentIndex = m_index;
+		m_index += COMMENT_BLOCK_START.length();
+		Coord start = makeCoord(m_index);
+		StringBuilder comment = new StringBuilder();
+		boolean firstTime = true;
+		boolean keepGoing = true;
+		while(keepGoing) {
+			trim();//remove whitespace if any
+			int end = m_text.indexOf(m_lineIndex, COMMENT_BLOCK_END, m_index);
+			if(end >= 0) {
+				if(!isBlank(m_index, end)) {
+					comment.append(m_text.substring(m_lineIndex, m_index, end));
+				}
+				m_tokens.add(new CommentToken(start, makeCoord(end), comment.toString(), true));
+				keepGoing = false;
+				m_index = end + COMMENT_BLOCK_END.length();
+				if(isEol()) {
+					nextLine();
+				}
+			} else {
+				if(startsWith(COMMENT_BLOCK_MIDDLE)) {
+					m_index += COMMENT_BLOCK_MIDDLE.length();
+				}
+				trim();
+				if(!firstTime) {
+					comment.append('\n');
+				}
+				if(!isBlank(m_index, m_lineLength)) {
+					comment.append(m_text.substring(m_lineIndex, m_index, m_lineLength));
+					firstTime = false;
+				}
+				nextLine();
+				if(m_done) {
+					keepGoing = false;
+					m_log.issueError("Block comment missing end! Skipping rest of file.", new Coord(m_filePath, commentLine, commentIndex, m_text));
+					m_tokens.gotoNextFile();
+				}
+			}
+		}
+	}
+	/**
+	 * if the cursor is at a line comment then insert a comment token at the start of the line it is on in the token list
+	 */
+	private void processLineComment() {
+		if(m_done || !startsWith(LINE_COMMENT_START)) {
+			return;
+		}
+		Coord start = makeCoord(m_index);
+		Coord end = m_lineIndex + 1 < m_text.getLineCount() ? new Coord(m_filePath, m_lineIndex + 1, 0, m_text) : null;
+		String comment = m_text.substring(m_lineIndex, m_index + LINE_COMMENT_START.length(), m_lineLength);
+		m_index = m_lineLength;
+		//find the index of the first element of the line that this comment occurred on.
+		//place this commment before that element
+		m_tokens.add(m_tokens.getFirstIndexBeforeLine(m_lineIndex), new CommentToken(start, end, comment, false));
+	}
+	/**
+	 * if the cursor is at the specified delimiter then process a string until the closing delimiter
+	 * if no valid closing delimiter is found then consume the remainder of the line
+	 * @param delimiter
+	 */
+	private void processQuotes(String delimiter) {
+		if(m_done || !startsWith(delimiter)) {
+			return;
+		}
+		int n = m_lineLength;
+		int start = m_index + delimiter.length();//we don't want to point to the quotation mark
+		int end = -1;
+		int i = start;
+		while(end < 0) {
+			if(i >= n) {
+				end = n;
+				m_index = n;
+			} else if(startsWith(delimiter, i)) {
+				end = i;
+				m_index = i + delimiter.length();
+			} else if(startsWith(STRING_ESCAPE_DELIMITER, i)) {
+				//the next character might be a quotation so skip it
+				i += STRING_ESCAPE_DELIMITER.length() + 1;
+			} else {
+				++i;
+			}
+		}
+		m_tokens.add(new StringToken(makeCoord(start), makeCoord(end)));
+	}
+	/**
+	 * consumes either a single delimiter, a run of characters up to the next delimiter or the end of the line
+	 */
+	private void processNextToken() {
+		if(m_done || isEol()) {
+			return;
+		}
+		int n = m_lineLength;
+		int start = m_index;
+		int end = start + matchDelimiter(start);
+		if(end == start) {
+			//we're not on a delimiter so go until we hit one or the end of the line
+			do {
+				++end;
+			} while(end < n && matchDelimiter(end) == 0);
+		}
+
+		if(isBlank(start, end)) {
+			//this should allow whitespace to be tokenized
+			m_tokens.add(new IdentifierToken(makeCoord(start), makeCoord(end), TokenIdentifier.SPACE));
+		} else {
+			m_tokens.add(new SingleWordToken(makeCoord(start), makeCoord(end)));
+		}
+		m_index = end;
+	}
+	/**
+	 * if the rest of the line is blank then add an end of line token and go to the next line
+	 */
+	private void processEol() {
+		if(m_done) {
+			return;
+		}
+		if(m_index > m_lastNonBlank) {
+			m_tokens.add(new EolToken(makeCoord(m_index)));
+			nextLine();
+		}
+	}
+}
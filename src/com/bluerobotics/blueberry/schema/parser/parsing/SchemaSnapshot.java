@@ -0,0 +1,244 @@
+/*
+Copyright (c) 2026  Blue Robotics
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of
+this software and associated documentation files (the "Software"), to deal in
+the Software without restriction, including without limitation the rights to
+use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+of the Software, and to permit persons to whom the Software is furnished to do
+so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.bluerobotics.blueberry.schema.parser.parsing;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import com.bluerobotics.blueberry.schema.parser.fields.BlueModule;
+import com.bluerobotics.blueberry.schema.parser.fields.FieldList;
+import com.bluerobotics.blueberry.schema.parser.tokens.SchemaText;
+
+/**
+ * A binary copy of a fully parsed schema model, along with the hashes of the files it was parsed from.
+ * The file starts with a plain header holding a magic number, the format version, the front end and the input hashes,
+ * so a stale snapshot can be spotted without reading the model.
+ * The model follows as a deflated Java serialization stream.
+ * Every model class uses VERSION as its serial version UID, so VERSION must be bumped whenever a serialized model class changes.
+ * Only classes from the model packages, java.lang, java.util and the java.math numbers are accepted when reading the stream.
+ * Coords do not carry the schema text. They are reattached to the texts of the current input files when the snapshot is read.
+ */
+public class SchemaSnapshot {
+	private static final int MAGIC = 0x42425353;//"BBSS"
+	/**
+	 * the format version of snapshot files, which is also the serial version UID of every class in the model
+	 */
+	public static final int VERSION = 3;
+	private static final ObjectInputFilter FILTER = ObjectInputFilter.Config.createFilter(
+		"com.bluerobotics.blueberry.schema.parser.constants.*;" +
+		"com.bluerobotics.blueberry.schema.parser.fields.*;" +
+		"com.bluerobotics.blueberry.schema.parser.parsing.*;" +
+		"com.bluerobotics.blueberry.schema.parser.tokens.*;" +
+		"com.bluerobotics.blueberry.schema.parser.types.*;" +
+		"java.lang.*;java.util.*;java.math.BigDecimal;java.math.BigInteger;!*");
+	public static final String FILE_EXTENSION = ".bbsnapshot";
+
+	final ArrayList<BlueModule> modules;
+	final FieldList defines;
+	final FieldList messages;
+	final ArrayList<ParserIssue> issues;
+	final int[] counts;
+
+	SchemaSnapshot(ArrayList<BlueModule> ms, FieldList ds, FieldList mss, ArrayList<ParserIssue> is, int[] cs) {
+		modules = ms;
+		defines = ds;
+		messages = mss;
+		issues = is;
+		counts = cs;
+	}
+	/**
+	 * the snapshot file that goes with a schema directory. It sits next to the directory.
+	 * @param schemaDir
+	 * @return
+	 */
+	public static File getFile(File schemaDir) {
+		File parent = schemaDir.getAbsoluteFile().getParentFile();
+		return parent == null ? new File(schemaDir, FILE_EXTENSION) : new File(parent, schemaDir.getName() + FILE_EXTENSION);
+	}
+
+	/**
+	 * stands in for a SchemaText in the serialization stream
+	 */
+	private static class TextRef implements Serializable {
+		private static final long serialVersionUID = VERSION;
+		final String path;
+		TextRef(String p) {
+			path = p;
+		}
+	}
+	private static class SnapshotOutputStream extends ObjectOutputStream {
+		private final IdentityHashMap<SchemaText, TextRef> m_refs = new IdentityHashMap<>();
+		SnapshotOutputStream(OutputStream out) throws IOException {
+			super(out);
+			enableReplaceObject(true);
+		}
+		@Override
+		protected Object replaceObject(Object obj) {
+			Object result = obj;
+			if(obj instanceof SchemaText) {
+				SchemaText st = (SchemaText)obj;
+				result = m_refs.computeIfAbsent(st, t -> new TextRef(t.getPath()));
+			}
+			return result;
+		}
+	}
+	private static class SnapshotInputStream extends ObjectInputStream {
+		private final TreeMap<String, SchemaText> m_texts;
+		SnapshotInputStream(InputStream in, TreeMap<String, SchemaText> texts) throws IOException {
+			super(in);
+			m_texts = texts;
+			setObjectInputFilter(FILTER);
+			enableResolveObject(true);
+		}
+		@Override
+		protected Object resolveObject(Object obj) {
+			Object result = obj;
+			if(obj instanceof TextRef) {
+				String p = ((TextRef)obj).path;
+				result = m_texts.get(p);
+				if(result == null) {
+					result = SchemaText.of(p, new String[] {});
+				}
+			}
+			return result;
+		}
+	}
+	private static TreeMap<String, SchemaText> byPath(Collection<SchemaText> inputs) {
+		TreeMap<String, SchemaText> result = new TreeMap<>();
+		for(SchemaText t : inputs) {
+			result.put(t.getPath(), t);
+		}
+		return result;
+	}
+
+	/**
+	 * writes a snapshot to a file.
+	 * The file is written under a temporary name first so that a reader never sees half of one.
+	 * @param f - the snapshot file
+	 * @param frontEnd - the front end that made the model
+	 * @param inputs - the files the model was parsed from
+	 * @throws IOException
+	 */
+	void write(File f, String frontEnd, Collection<SchemaText> inputs) throws IOException {
+		Path target = f.toPath();
+		Path tmp = Files.createTempFile(target.toAbsolutePath().getParent(), f.getName(), ".tmp");
+		try {
+			try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				out.writeUTF(frontEnd);
+				TreeMap<String, SchemaText> texts = byPath(inputs);
+				out.writeInt(texts.size());
+				for(SchemaText t : texts.values()) {
+					out.writeUTF(t.getPath());
+					byte[] d = t.getDigest();
+					out.writeShort(d.length);
+					out.write(d);
+				}
+				DeflaterOutputStream dout = new DeflaterOutputStream(out);
+				ObjectOutputStream oout = new SnapshotOutputStream(dout);
+				oout.writeObject(modules);
+				oout.writeObject(defines);
+				oout.writeObject(messages);
+				oout.writeObject(issues);
+				oout.writeObject(counts);
+				oout.flush();
+				dout.finish();
+			}
+			try {
+				Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch(AtomicMoveNotSupportedException e) {
+				Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(tmp);
+		}
+	}
+	/**
+	 * reads a snapshot from a file if it was made from exactly the specified inputs by the specified front end
+	 * @param f - the snapshot file
+	 * @param frontEnd - the front end that is in use now
+	 * @param inputs - the current input files
+	 * @return the snapshot or null if there is no snapshot, it is stale or it could not be read
+	 */
+	static SchemaSnapshot read(File f, String frontEnd, Collection<SchemaText> inputs) {
+		SchemaSnapshot result = null;
+		if(f.isFile()) {
+			try(DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(f.toPath())))) {
+				TreeMap<String, SchemaText> texts = byPath(inputs);
+				boolean current = in.readInt() == MAGIC && in.readInt() == VERSION && in.readUTF().equals(frontEnd) && in.readInt() == texts.size();
+				for(SchemaText t : texts.values()) {
+					if(!current) {
+						break;
+					}
+					String p = in.readUTF();
+					byte[] d = new byte[in.readUnsignedShort()];
+					in.readFully(d);
+					current = p.equals(t.getPath()) && Arrays.equals(d, t.getDigest());
+				}
+				if(current) {
+					ObjectInputStream oin = new SnapshotInputStream(new InflaterInputStream(in), texts);
+					ArrayList<BlueModule> ms = castList(oin.readObject(), BlueModule.class);
+					FieldList ds = (FieldList)oin.readObject();
+					FieldList mss = (FieldList)oin.readObject();
+					ArrayList<ParserIssue> is = castList(oin.readObject(), ParserIssue.class);
+					int[] cs = (int[])oin.readObject();
+					result = new SchemaSnapshot(ms, ds, mss, is, cs);
+				}
+			} catch(IOException | ClassNotFoundException | RuntimeException e) {
+				//an unreadable or rejected snapshot is treated the same as a stale one
+				result = null;
+			}
+		}
+		return result;
+	}
+	private static <T> ArrayList<T> castList(Object o, Class<T> c) {
+		List<?> l = (List<?>)o;
+		ArrayList<T> result = new ArrayList<>(l.size());
+		for(Object e : l) {
+			result.add(c.cast(e));
+		}
+		return result;
+	}
+}
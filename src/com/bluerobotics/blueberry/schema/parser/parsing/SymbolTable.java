@@ -0,0 +1,192 @@
+/*
+Copyright (c) 2026  Blue Robotics
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of
+this software and associated documentation files (the "Software"), to deal in
+the Software without restriction, including without limitation the rights to
+use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+of the Software, and to permit persons to whom the Software is furnished to do
+so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.bluerobotics.blueberry.schema.parser.parsing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.TreeMap;
+
+import com.bluerobotics.blueberry.schema.parser.constants.Constant;
+import com.bluerobotics.blueberry.schema.parser.fields.BlueModule;
+import com.bluerobotics.blueberry.schema.parser.fields.Field;
+import com.bluerobotics.blueberry.schema.parser.fields.FieldList;
+import com.bluerobotics.blueberry.schema.parser.fields.ScopeName;
+import com.bluerobotics.blueberry.schema.parser.fields.SymbolName;
+
+/**
+ * Hash indexes of the modules and defined types of a parsing session, so names can be resolved without scanning every module and define.
+ * Modules are indexed as the front end adds them, so constants can be looked up while fields are still being assembled.
+ * Defined types are indexed once all fields have been assembled. After that the module list is considered complete
+ * and resolutions are cached for each distinct set of imports.
+ */
+class SymbolTable {
+	private final List<BlueModule> m_moduleList;
+	private final HashMap<ScopeName, BlueModule> m_modules = new HashMap<>();//first module of each name
+	private int m_modulesIndexed = 0;//how much of the module list has been indexed
+	private final HashMap<ScopeName, List<Field>> m_types = new HashMap<>();//defines of each type name, in define order
+	private final IdentityHashMap<Field, Integer> m_typeOrder = new IdentityHashMap<>();//position of each define in the define list
+	private boolean m_built = false;
+	private final HashMap<List<ScopeName>, Resolutions> m_resolutions = new HashMap<>();
+	
+	/**
+	 * Names already resolved with one set of imports
+	 */
+	private static class Resolutions {
+		final HashMap<SymbolName, Constant<?>> constants = new HashMap<>();
+		final HashMap<ScopeName, List<Field>> types = new HashMap<>();
+	}
+	
+	/**
+	 * @param modules - the parser's module list. Modules are indexed as they are appended to it.
+	 */
+	SymbolTable(List<BlueModule> modules) {
+		m_moduleList = modules;
+	}
+	/**
+	 * forgets everything, ready for a new parsing session
+	 */
+	void clear() {
+		m_modules.clear();
+		m_modulesIndexed = 0;
+		m_types.clear();
+		m_typeOrder.clear();
+		m_resolutions.clear();
+		m_built = false;
+	}
+	/**
+	 * indexes all the defined types and freezes the table so that resolutions can be cached.
+	 * This should be called once all fields are assembled.
+	 * @param defines - all the defined types
+	 * @param log - where defines without a type name are reported
+	 */
+	void build(FieldList defines, ParserIssueLogger log) {
+		syncModules();
+		m_types.clear();
+		m_typeOrder.clear();
+		m_resolutions.clear();
+		for(Field df : defines.getList()) {
+			if(df.getTypeName() == null) {
+				log.issueError("Somehow there's a defined type without a type name.", df.getCoord());
+			} else {
+				m_typeOrder.put(df, m_typeOrder.size());
+				m_types.computeIfAbsent(df.getTypeName(), k -> new ArrayList<>()).add(df);
+			}
+		}
+		m_built = true;
+	}
+	/**
+	 * finds the module with the specified name
+	 * @param name - the absolute name of the module
+	 * @return the module or null if there is none
+	 */
+	BlueModule lookupModule(ScopeName name) {
+		syncModules();
+		return m_modules.get(name);
+	}
+	/**
+	 * finds a constant, given the list of imports.
+	 * The first import that names a known module is the one that the constant is looked up in.
+	 * @param n - the constant name
+	 * @param imports
+	 * @return the constant or null if there is none
+	 */
+	Constant<?> lookupConstant(SymbolName n, ScopeName[] imports) {
+		if(!m_built) {
+			return findConstant(n, imports);
+		}
+		HashMap<SymbolName, Constant<?>> cache = getResolutions(imports).constants;
+		Constant<?> result = cache.get(n);
+		if(result == null && !cache.containsKey(n)) {
+			result = findConstant(n, imports);
+			cache.put(n, result);
+		}
+		return result;
+	}
+	/**
+	 * finds all the defined types that a type name could refer to, given the list of imports.
+	 * An absolute type name only matches itself. A relative one matches any define that is the name below one of the imports.
+	 * This can only be used once the table has been built.
+	 * @param typeName
+	 * @param imports
+	 * @return the matching defines in the order they were defined. The first is the one to use and the rest are shadowed by it.
+	 */
+	List<Field> lookupTypes(ScopeName typeName, ScopeName[] imports) {
+		if(!m_built) {
+			throw new SchemaParserException("Symbol table has not been built yet.", null);
+		}
+		HashMap<ScopeName, List<Field>> cache = getResolutions(imports).types;
+		List<Field> result = cache.get(typeName);
+		if(result == null) {
+			result = findTypes(typeName, imports);
+			cache.put(typeName, result);
+		}
+		return result;
+	}
+	
+	private Resolutions getResolutions(ScopeName[] imports) {
+		return m_resolutions.computeIfAbsent(Arrays.asList(imports.clone()), k -> new Resolutions());
+	}
+	private Constant<?> findConstant(SymbolName n, ScopeName[] imports) {
+		Constant<?> result = null;
+		for(ScopeName sn : imports) {
+			BlueModule found = lookupModule(sn);
+			if(found != null) {
+				result = found.getConstant(n);
+				break;
+			}
+		}
+		return result;
+	}
+	private List<Field> findTypes(ScopeName typeName, ScopeName[] imports) {
+		List<Field> result;
+		if(typeName.isAbsolute()) {
+			result = m_types.getOrDefault(typeName, Collections.emptyList());
+		} else {
+			TreeMap<Integer, Field> fs = new TreeMap<>();//sorts into define order and drops any define reached through more than one import
+			for(ScopeName n : imports) {
+				for(Field df : m_types.getOrDefault(n.addLevelBelow(typeName), Collections.emptyList())) {
+					fs.put(m_typeOrder.get(df), df);
+				}
+			}
+			result = new ArrayList<>(fs.values());
+		}
+		return Collections.unmodifiableList(result);
+	}
+	/**
+	 * indexes any modules appended to the module list since the last time.
+	 * The front ends only ever append modules, so if the list got shorter it must have been cleared.
+	 */
+	private void syncModules() {
+		if(m_moduleList.size() < m_modulesIndexed) {
+			m_modules.clear();
+			m_modulesIndexed = 0;
+		}
+		while(m_modulesIndexed < m_moduleList.size()) {
+			BlueModule m = m_moduleList.get(m_modulesIndexed++);
+			m_modules.putIfAbsent(m.getName(), m);
+		}
+	}
+}
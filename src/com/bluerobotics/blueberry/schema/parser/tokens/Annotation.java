@@ -21,17 +21,20 @@ THE SOFTWARE.
 */
 package com.bluerobotics.blueberry.schema.parser.tokens;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Function;
 
 import com.bluerobotics.blueberry.schema.parser.fields.ScopeName;
 import com.bluerobotics.blueberry.schema.parser.fields.SymbolName;
+import com.bluerobotics.blueberry.schema.parser.parsing.SchemaSnapshot;
 
 /**
  *
  */
-public class Annotation  {
+public class Annotation implements Serializable {
+	private static final long serialVersionUID = SchemaSnapshot.VERSION;
 	public enum KnownAnnotation {
 		 FILE_PATH("file_path"),
 		 TOPIC("topic"),
@@ -42,7 +45,8 @@ public class Annotation  {
 		 REVISION("revision"),
 		 DEPRECATED("deprecated"),
 		 MIN("min"),
-		 MAX("max")
+		 MAX("max"),
+		 PACKING("packing"),//layout strategy of a message or of all messages in a module: "declaration" (the default) or "compact", optionally followed by the number of fields to reorder
 		 ;
 		private final ScopeName name;
 		private KnownAnnotation(String n) {
@@ -53,7 +57,8 @@ public class Annotation  {
 		}
 	}
 	
-	public class DeferredParameter {
+	public class DeferredParameter implements Serializable {
+		private static final long serialVersionUID = SchemaSnapshot.VERSION;
 		
 		public final SymbolName name; 
 		public final ScopeName[] imports;
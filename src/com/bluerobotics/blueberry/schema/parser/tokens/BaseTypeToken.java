@@ -64,6 +64,36 @@ public class BaseTypeToken extends IdentifierToken {
 
 		return result;
 	}
+	/**
+	 * finds the unsigned version of the specified integer base type
+	 * @param ti
+	 * @return the unsigned type or null if the specified type cannot be made unsigned
+	 */
+	public static TokenIdentifier toUnsigned(TokenIdentifier ti) {
+		TokenIdentifier result = null;
+		switch(ti) {
+		case BYTE:
+		case INT8:
+			result = TokenIdentifier.UINT8;
+			break;
+		case SHORT:
+		case INT16:
+			result = TokenIdentifier.UINT16;
+			break;
+		case LONG:
+		case INT:
+		case INT32:
+			result = TokenIdentifier.UINT32;
+			break;
+		case INT64:
+		case LONG_LONG:
+			result = TokenIdentifier.UINT64;
+			break;
+		default:
+			break;
+		}
+		return result;
+	}
 	public static boolean isValid(TokenIdentifier ti) {
 		boolean result = false;
 		for(TokenIdentifier tit : BASE_TYPES) {
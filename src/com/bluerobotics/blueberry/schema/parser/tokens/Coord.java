@@ -21,25 +21,33 @@ THE SOFTWARE.
 */
 package com.bluerobotics.blueberry.schema.parser.tokens;
 
+import java.io.Serializable;
+
+import com.bluerobotics.blueberry.schema.parser.parsing.SchemaSnapshot;
 import com.bluerobotics.blueberry.schema.parser.tokens.TokenConstants.TokenIdentifier;
 
-public class Coord implements Comparable<Coord> {
+public class Coord implements Comparable<Coord>, Serializable {
+	private static final long serialVersionUID = SchemaSnapshot.VERSION;
 	public static final Coord NULL = new Coord("", 0, 0, new String[] {});
 	public final String filePath;
 	public final int line;
 	public final int index;
-	private String[] m_lines;
-	public Coord(String path, int l, int i, String[] lines){
+	@SuppressWarnings("serial")//snapshots write a reference to the path instead and reattach the text when read
+	private final SchemaText m_text;
+	public Coord(String path, int l, int i, SchemaText text){
 		filePath = path;
 		line = l;
 		index = i;
-		m_lines = lines;
+		m_text = text;
+	}
+	public Coord(String path, int l, int i, String[] lines){
+		this(path, l, i, SchemaText.of(path, lines));
 	}
 	public Coord(Coord c){
 		filePath = c.filePath;
 		line = c.line;
 		index = c.index;
-		m_lines = c.m_lines;
+		m_text = c.m_text;
 
 	}
 	/**
@@ -49,8 +57,8 @@ public class Coord implements Comparable<Coord> {
 	public Coord nextLine() {
 		Coord result = null;
 		int i = line + 1;
-		if(i < m_lines.length) {
-			result = new Coord(filePath, i, 0, m_lines);
+		if(i < m_text.getLineCount()) {
+			result = new Coord(filePath, i, 0, m_text);
 		}
 		return result;
 	}
@@ -60,7 +68,7 @@ public class Coord implements Comparable<Coord> {
 	 * @return
 	 */
 	public Coord updateIndex(int i) {
-		return new Coord(filePath, line, i, m_lines);
+		return new Coord(filePath, line, i, m_text);
 	}
 	/**
 	 * Increments the specified increment of characters.
@@ -69,7 +77,7 @@ public class Coord implements Comparable<Coord> {
 	 */
 	public Coord incrementIndex(int i) {
 		int j = index + i;
-		int n = getString().length();
+		int n = getLineLength();
 		if(j > n) {
 			j = n;
 
@@ -77,7 +85,7 @@ public class Coord implements Comparable<Coord> {
 			j = 0;
 		}
 
-		return new Coord(filePath, line, j, m_lines);
+		return new Coord(filePath, line, j, m_text);
 	}
 	/**
 	 * Increment the index by the length of the specified String.
@@ -89,10 +97,16 @@ public class Coord implements Comparable<Coord> {
 		return incrementIndex(s.length());
 	}
 	public String getString() {
-		return m_lines[line];
+		return m_text.getLine(line);
+	}
+	private int getLineLength() {
+		return m_text.getLineLength(line);
+	}
+	private char charAt(int i) {
+		return m_text.charAt(line, i);
 	}
 	public Coord getLine(int i) {
-		return new Coord(filePath, i, index, m_lines);
+		return new Coord(filePath, i, index, m_text);
 	}
 	/**
 	 * advances to the next non-whitespace character
@@ -107,7 +121,7 @@ public class Coord implements Comparable<Coord> {
 			if(result.isAtEnd()) {
 				notDone = false;
 			} else {
-				char ch = result.getString().charAt(result.index);
+				char ch = result.charAt(result.index);
 				if(ch == ' ' || ch == '\t') {
 					result = result.incrementIndex(1);
 				} else {
@@ -135,7 +149,7 @@ public class Coord implements Comparable<Coord> {
 			if(result.isAtStart() && !foundSpace) {
 				notDone = false;
 			} else {
-				char ch = result.getString().charAt(result.index);
+				char ch = result.charAt(result.index);
 				if(ch == ' ' || ch == '\t') {
 					//go back one
 					result = result.incrementIndex(-1);
@@ -158,7 +172,7 @@ public class Coord implements Comparable<Coord> {
 			if(result.isAtEnd()) {
 				notDone = false;
 			} else {
-				char ch = result.getString().charAt(result.index);
+				char ch = result.charAt(result.index);
 				if(ch == ' ' || ch == '\t') {
 
 					notDone = false;
@@ -252,7 +266,7 @@ public class Coord implements Comparable<Coord> {
 				notDone = false;
 			} else {
 				result = result.incrementIndex(1);
-				if(result.getString().length() <= result.index) {
+				if(result.getLineLength() <= result.index) {
 					notDone = false;
 					result = null;
 				}
@@ -269,7 +283,7 @@ public class Coord implements Comparable<Coord> {
 		boolean result = false;
 
 		for(String s : ss) {
-			result = getString().substring(index).startsWith(s);
+			result = m_text.startsWith(line, index, s);
 			if(result) {
 				break;
 			}
@@ -278,7 +292,7 @@ public class Coord implements Comparable<Coord> {
 
 	}
 	public boolean isAtEnd() {
-		return index >= getString().length();
+		return index >= getLineLength();
 	}
 	public boolean isAtStart() {
 		return index <= 0;
@@ -289,23 +303,23 @@ public class Coord implements Comparable<Coord> {
 	 * @return
 	 */
 	public Coord indexOf(String s) {
-		return updateIndex(getString().indexOf(s, index));
+		return updateIndex(m_text.indexOf(line, s, index));
 	}
 	public boolean contains(String s) {
-		return remainingString().indexOf(s) > -1;
+		return m_text.indexOf(line, s, index) > -1;
 
 	}
 	public String remainingString() {
-		return getString().substring(index);
+		return m_text.substring(line, index, getLineLength());
 	}
 	public String previousString() {
-		return getString().substring(0, index);
+		return m_text.substring(line, 0, index);
 	}
 	public String fromThisToThatString(Coord that) {
-		return getString().substring(index, that.index);
+		return m_text.substring(line, index, that.index);
 	}
 	public boolean isEol() {
-		return index == getString().length();
+		return index == getLineLength();
 	}
 	public Coord newLineIfEol() {
 		Coord result = this;
@@ -315,7 +329,7 @@ public class Coord implements Comparable<Coord> {
 		return result;
 	}
 	public Coord gotoEol() {
-		return new Coord(this.filePath, this.line, getString().length(), this.m_lines);
+		return new Coord(this.filePath, this.line, getLineLength(), this.m_text);
 	}
 	public String toString() {
 		Coord end = incrementIndex(15);
@@ -0,0 +1,233 @@
+/*
+Copyright (c) 2026  Blue Robotics
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of
+this software and associated documentation files (the "Software"), to deal in
+the Software without restriction, including without limitation the rights to
+use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+of the Software, and to permit persons to whom the Software is furnished to do
+so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.bluerobotics.blueberry.schema.parser.tokens;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * The text of one schema file held in a single CharBuffer, with a table of line start offsets.
+ * Lines are addressed by their index and characters by their index within the line, the same way Coord addresses them.
+ * Line terminators (\n, \r\n or \r) are not part of the lines.
+ */
+public class SchemaText {
+	private final String m_path;
+	private final CharBuffer m_text;
+	private final int[] m_lineStarts;//offset of the first character of each line, plus one extra entry that is the end of the text
+	private final int[] m_lineEnds;//offset just past the last character of each line, not including the terminator
+	private byte[] m_digest = null;//SHA-256 of the text, computed when first asked for
+
+	private SchemaText(String path, CharBuffer text, int[] lineStarts, int[] lineEnds) {
+		m_path = path;
+		m_text = text;
+		m_lineStarts = lineStarts;
+		m_lineEnds = lineEnds;
+	}
+	/**
+	 * splits text into lines the same way BufferedReader.lines() does
+	 * @param path
+	 * @param text
+	 * @return
+	 */
+	private static SchemaText split(String path, CharBuffer text) {
+		int n = text.limit();
+		int[] starts = new int[64];
+		int[] ends = new int[64];
+		int lines = 0;
+		int start = 0;
+		int i = 0;
+		while(i <= n) {
+			char ch = i < n ? text.get(i) : 0;
+			boolean eol = ch == '\n' || ch == '\r';
+			if(eol || (i == n && start < n)) {
+				if(lines + 1 >= starts.length) {
+					starts = Arrays.copyOf(starts, starts.length * 2);
+					ends = Arrays.copyOf(ends, ends.length * 2);
+				}
+				starts[lines] = start;
+				ends[lines] = i;
+				++lines;
+				if(ch == '\r' && i + 1 < n && text.get(i + 1) == '\n') {
+					++i;
+				}
+				start = i + 1;
+			}
+			++i;
+		}
+		starts[lines] = n;
+		return new SchemaText(path, text, Arrays.copyOf(starts, lines + 1), Arrays.copyOf(ends, lines));
+	}
+	/**
+	 * reads a whole file into a new SchemaText.
+	 * The file is read in one go and decoded as UTF-8. Bytes that are not valid UTF-8 are replaced with U+FFFD rather than failing the whole file.
+	 * @param file - the file to read
+	 * @param path - the path that tokens and issues should report for this file
+	 * @return
+	 * @throws IOException
+	 */
+	public static SchemaText read(Path file, String path) throws IOException {
+		CharsetDecoder d = StandardCharsets.UTF_8.newDecoder()
+			.onMalformedInput(CodingErrorAction.REPLACE)
+			.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		CharBuffer cb = d.decode(ByteBuffer.wrap(Files.readAllBytes(file)));
+		return split(path, cb);
+	}
+	/**
+	 * makes a SchemaText from lines that have already been split
+	 * @param path
+	 * @param lines
+	 * @return
+	 */
+	public static SchemaText of(String path, String[] lines) {
+		int[] starts = new int[lines.length + 1];
+		int[] ends = new int[lines.length];
+		int o = 0;
+		for(int i = 0; i < lines.length; ++i) {
+			starts[i] = o;
+			o += lines[i].length();
+			ends[i] = o;
+			++o;//room for the terminator
+		}
+		starts[lines.length] = Math.max(o - 1, 0);
+		return new SchemaText(path, CharBuffer.wrap(String.join("\n", lines)), starts, ends);
+	}
+	public String getPath() {
+		return m_path;
+	}
+	/**
+	 * a SHA-256 hash of the UTF-8 encoding of the text, so that a changed file can be detected without comparing text
+	 * @return
+	 */
+	public synchronized byte[] getDigest() {
+		if(m_digest == null) {
+			try {
+				MessageDigest md = MessageDigest.getInstance("SHA-256");
+				md.update(StandardCharsets.UTF_8.encode(m_text.duplicate().rewind()));
+				m_digest = md.digest();
+			} catch (NoSuchAlgorithmException e) {
+				//every Java platform is required to have SHA-256
+				throw new IllegalStateException(e);
+			}
+		}
+		return m_digest;
+	}
+	public int getLineCount() {
+		return m_lineEnds.length;
+	}
+	/**
+	 * the offset into the whole text of the start of the specified line
+	 * @param line
+	 * @return
+	 */
+	public int getLineStart(int line) {
+		return m_lineStarts[line];
+	}
+	public int getLineLength(int line) {
+		return m_lineEnds[line] - m_lineStarts[line];
+	}
+	/**
+	 * finds the line that contains the specified offset into the whole text
+	 * @param offset
+	 * @return
+	 */
+	public int getLineOf(int offset) {
+		int i = Arrays.binarySearch(m_lineStarts, 0, m_lineEnds.length, offset);
+		return i >= 0 ? i : -i - 2;
+	}
+	public char charAt(int line, int index) {
+		if(index < 0 || index >= getLineLength(line)) {
+			throw new StringIndexOutOfBoundsException(index);
+		}
+		return m_text.get(m_lineStarts[line] + index);
+	}
+	/**
+	 * makes a String of part of a line
+	 * @param line
+	 * @param start - first character index, inclusive
+	 * @param end - last character index, exclusive
+	 * @return
+	 */
+	public String substring(int line, int start, int end) {
+		if(start < 0 || end > getLineLength(line) || start > end) {
+			throw new StringIndexOutOfBoundsException("begin " + start + ", end " + end + ", length " + getLineLength(line));
+		}
+		int s = m_lineStarts[line];
+		return m_text.subSequence(s + start, s + end).toString();
+	}
+	/**
+	 * makes a String of a whole line
+	 * @param line
+	 * @return
+	 */
+	public String getLine(int line) {
+		return substring(line, 0, getLineLength(line));
+	}
+	/**
+	 * checks if the specified line has the specified string at the specified index
+	 * @param line
+	 * @param index
+	 * @param s
+	 * @return
+	 */
+	public boolean startsWith(int line, int index, String s) {
+		boolean result = false;
+		int n = s.length();
+		if(index >= 0 && index + n <= getLineLength(line)) {
+			int o = m_lineStarts[line] + index;
+			result = true;
+			for(int i = 0; i < n; ++i) {
+				if(m_text.get(o + i) != s.charAt(i)) {
+					result = false;
+					break;
+				}
+			}
+		}
+		return result;
+	}
+	/**
+	 * finds the next occurrence of the specified string within a line
+	 * @param line
+	 * @param s
+	 * @param from - the character index to start looking at
+	 * @return the character index of the occurrence or -1 if there isn't one
+	 */
+	public int indexOf(int line, String s, int from) {
+		int result = -1;
+		int last = getLineLength(line) - s.length();
+		for(int i = Math.max(from, 0); i <= last; ++i) {
+			if(startsWith(line, i, s)) {
+				result = i;
+				break;
+			}
+		}
+		return result;
+	}
+}
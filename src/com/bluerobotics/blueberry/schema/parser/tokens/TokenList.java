@@ -21,74 +21,118 @@ THE SOFTWARE.
 */
 package com.bluerobotics.blueberry.schema.parser.tokens;
 
-import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.IdentityHashMap;
 import java.util.ListIterator;
+import java.util.NoSuchElementException;
 import java.util.function.Function;
 
 import com.bluerobotics.blueberry.schema.parser.parsing.SchemaParserException;
 import com.bluerobotics.blueberry.schema.parser.tokens.TokenConstants.TokenIdentifier;
 
 /**
- *
+ * An ordered list of tokens with a current position.
+ * Tokens are stored in a doubly linked arena addressed by int handles so that a token keeps its handle for as long as it is in the list.
+ * Removing, replacing and finding the neighbours of a token are all constant time.
+ * Each token also carries an order label so that the relative order of two tokens can be checked without scanning.
  */
 public class TokenList {
-	private final ArrayList<Token> m_tokens = new ArrayList<Token>();
-	private int m_index = 0;
+	private static final int NIL = -1;
+	private static final long ORDER_GAP = 1L << 20;//spacing of order labels when they are assigned from scratch
+
+	private Token[] m_tokens = new Token[256];
+	private int[] m_next = new int[256];
+	private int[] m_prev = new int[256];
+	private long[] m_order = new long[256];
+	private final IdentityHashMap<Token, Integer> m_handles = new IdentityHashMap<>();
+
+	private int m_head = NIL;
+	private int m_tail = NIL;
+	private int m_free = NIL;//removed handles are chained through m_next for reuse
+	private int m_used = 0;//number of handles that have ever been allocated
+	private int m_size = 0;
+	private int m_modCount = 0;
+
+	private int m_current = NIL;//the handle of the current token. NIL means past the end of the list
 	public TokenList() {
 
 	}
 
 
 	public Token getCurrent() {
-		if(m_index < 0 || m_index >= m_tokens.size()) {
-			return null;
-		}
-		return m_tokens.get(m_index);
+		return tokenOf(m_current);
 	}
 	public Token get(int i) {
-		if(i < 0 || i >= m_tokens.size()) {
-			return null;
-		}
-		return m_tokens.get(i);
+		return tokenOf(handleAt(i));
 	}
 	public void clear() {
-		m_tokens.clear();
+		Arrays.fill(m_tokens, 0, m_used, null);
+		m_handles.clear();
+		m_head = NIL;
+		m_tail = NIL;
+		m_free = NIL;
+		m_used = 0;
+		m_size = 0;
+		m_current = NIL;
+		++m_modCount;
 	}
 	public void add(Token t) {
-		m_tokens.add(t);
+		insertBefore(NIL, t);
+	}
+	/**
+	 * appends the specified tokens to the end of this list, in order
+	 * @param ts
+	 */
+	public void addAll(Token[] ts) {
+		for(Token t : ts) {
+			insertBefore(NIL, t);
+		}
+	}
+	/**
+	 * makes an array of the tokens of this list, in order
+	 * @return
+	 */
+	public Token[] toArray() {
+		Token[] result = new Token[m_size];
+		int h = m_head;
+		for(int i = 0; i < m_size; ++i) {
+			result[i] = m_tokens[h];
+			h = m_next[h];
+		}
+		return result;
 	}
 	public int size() {
-		return m_tokens.size();
+		return m_size;
 	}
 	public void remove(Token t) {
 		if(t != null) {
-			int i = m_tokens.indexOf(t);
-			if(i >= 0) {
-				if(i < m_index) {
-					--m_index;
-				}
-				remove(i);	
-			
-				
+			int h = handleOf(t);
+			if(h != NIL) {
+				unlink(h);
 			}
-			
 		}
 	}
 	public void remove(int i) {
-		if(i >= 0 && i < m_tokens.size()) {
-			if(i < m_index) {
-				--m_index;
-			}
-			m_tokens.remove(i);
+		int h = handleAt(i);
+		if(h != NIL) {
+			unlink(h);
 		}
 	}
 
 	public void add(int i, Token t) {
-		m_tokens.add(i, t);
+		if(i == m_size) {
+			insertBefore(NIL, t);
+		} else {
+			int h = handleAt(i);
+			if(h == NIL) {
+				throw new IndexOutOfBoundsException("Index: "+i+", Size: "+m_size);
+			}
+			insertBefore(h, t);
+		}
 	}
 	public void resetIndex() {
-		m_index = 0;
+		m_current = m_head;
 	}
 	/**
 	 * replaced an existing token in the list with another.
@@ -98,9 +142,11 @@ public class TokenList {
 	 */
 	public void replace(Token oldT, Token newT) {
 		if(newT != null) {
-			int i = m_tokens.indexOf(oldT);
-			if(i >= 0) {
-				m_tokens.set(i, newT);
+			int h = handleOf(oldT);
+			if(h != NIL) {
+				m_handles.remove(oldT);
+				m_handles.put(newT, h);
+				m_tokens[h] = newT;
 			}
 		}
 	}
@@ -108,10 +154,10 @@ public class TokenList {
 	
 
 	public boolean isAtEnd() {
-		return m_index >= m_tokens.size();
+		return m_current == NIL;
 	}
 	public boolean isMore() {
-		return m_index < m_tokens.size();
+		return m_current != NIL;
 	}
 	/**
 	 * sets the current index to the specified token.
@@ -120,13 +166,13 @@ public class TokenList {
 	 */
 	public void setIndex(Token t) {
 		if(t != null) {
-			int i = m_tokens.indexOf(t);
-			if(i < 0) {
+			int h = handleOf(t);
+			if(h == NIL) {
 				throw new RuntimeException("Specified token not in list!");
 			}
-			m_index = i;
+			m_current = h;
 		} else {
-			m_index = m_tokens.size();
+			m_current = NIL;
 		}
 
 	}
@@ -141,87 +187,48 @@ public class TokenList {
 	 * @param i
 	 */
 	public void next(int i) {
-		int j = i + m_index;
-		if(j > m_tokens.size()) {
-			j = m_tokens.size();
-		}
-		m_index = j;
+		m_current = step(m_current, i);
 	}
 	public Token next(Token t) throws SchemaParserException {
-		int i = m_tokens.indexOf(t);
-		if(i < 0) {
+		int h = handleOf(t);
+		if(h == NIL) {
 			throw new SchemaParserException("Token " + t + " is not part of list.", t.getStart());
-		} else {
-			++i;
-
 		}
-		return get(i);
+		return tokenOf(m_next[h]);
 	}
 
 	/**
-	 * Finds the next token of the specified type from the current index
-	 * Does test the token at the current index
-	 * @param start the place to start
+	 * Finds the next token that passes the specified test
+	 * Does test the token at the start handle
+	 * @param start the handle to start at
 	 * @param forwardNotReverse
-	 * @param howFar - the number of steps to look. Zero means look until the end.
 	 * @param test - the test to check for
 	 *
-	 * @return
+	 * @return the handle of the token that was found or NIL if none
 	 */
-	private int findToken(int start, boolean forwardNotReverse, int howFar, Function<Token, Boolean> test) {
-		int i  = start;
-		int result = -1;
-		boolean notDone = true;
-		int n;
-		if(forwardNotReverse) {
-			if(howFar == 0) {
-				n = m_tokens.size();
-			} else {
-				n = i + howFar;
-				if(n > m_tokens.size()) {
-					n = m_tokens.size();
-				}
-			}
-		} else {
-			if(howFar == 0) {
-				n = 0;
-			} else {
-				n = i - howFar;
-				if(i < 0) {
-					i = 0;
-				}
-			}
+	private int findToken(int start, boolean forwardNotReverse, Function<Token, Boolean> test) {
+		int h = start;
+		while(h != NIL && !test.apply(m_tokens[h])) {
+			h = forwardNotReverse ? m_next[h] : m_prev[h];
 		}
-
-
-		int j = i;
-		while(notDone) {
-			Token t = m_tokens.get(j);
-			if(test.apply(t)) {
-				result = j;
-				break;
-			} else if(forwardNotReverse) {
-				++j;
-				if(j >= n) {
-					notDone = false;
-				}
-			} else {
-				--j;
-				if(j < n) {
-					notDone = false;
-				}
-			}
+		return h;
+	}
+	/**
+	 * the handle to start a search at.
+	 * Searches start at the beginning of the list if the start token is not in the list
+	 * @param start
+	 * @return
+	 */
+	private int searchStart(Token start) {
+		int h = handleOf(start);
+		if(h == NIL) {
+			h = m_head;
 		}
-		return result;
+		return h;
 	}
 
 	public Token find(Token start, boolean forwardNotReverse, Class<?>... cs) {
-		Token result = null;
-		int startI = m_tokens.indexOf(start);
-		if(startI < 0) {
-			startI = 0;
-		}
-		int i = findToken(startI, forwardNotReverse, 0, (t) -> {
+		int h = findToken(searchStart(start), forwardNotReverse, (t) -> {
 			boolean found = false;
 			for(Class<?> c : cs) {
 				if(t.getClass() == c) {
@@ -232,10 +239,7 @@ public class TokenList {
 			}
 			return found;
 		});
-		if(i >= 0) {
-			result = m_tokens.get(i);
-		}
-		return result;
+		return tokenOf(h);
 	}
 	/**
 	 * goes to the next token that passes the specified test
@@ -258,13 +262,7 @@ public class TokenList {
 	 * @return
 	 */
 	private Token findNext(Token start, Function<Token, Boolean> test) {
-		int startI = m_tokens.indexOf(start);
-		if(startI < 0) {
-			startI = 0;
-		}
-		int i = findToken(startI, true, 0, test);
-
-		return get(i);
+		return tokenOf(findToken(searchStart(start), true, test));
 	}
 
 	/**
@@ -339,7 +337,7 @@ public class TokenList {
 		if(t instanceof IdentifierToken) {
 			IdentifierToken idt = (IdentifierToken)t;
 			for(TokenIdentifier id : ids) {
-				if(((IdentifierToken) t).getKeyword() == id) {
+				if(idt.getKeyword() == id) {
 					result = true;
 					break;
 				}
@@ -361,11 +359,7 @@ public class TokenList {
 		return result;
 	}
 	public Token relative(int i) {
-		int j = i + m_index;
-		if(j < 0 || j >= m_tokens.size()) {
-			return null;
-		}
-		return m_tokens.get(j);
+		return tokenOf(step(m_current, i));
 
 	}
 	/**
@@ -383,9 +377,15 @@ public class TokenList {
 		}
 		return result;
 	}
+	/**
+	 * get the token in the position relative to the specified token
+	 * @param t
+	 * @param i
+	 * @return the token or null if there isn't one there or the specified token is not in this list
+	 */
 	public Token relative(Token t, int i) {
-		int j = m_tokens.indexOf(t) - m_index+i;
-		return relative(j);
+		int h = handleOf(t);
+		return h == NIL ? null : tokenOf(step(h, i));
 	}
 	public <T extends Token> T relative(Token t, int i, Class<T> type) {
 		T result = null;
@@ -403,8 +403,7 @@ public class TokenList {
 	}
 
 	public IdentifierToken relativeId(Token t, int i, TokenIdentifier... ids) {
-		int j = m_tokens.indexOf(t) - m_index + i;
-		return relativeId(j, ids);
+		return IdentifierToken.test(relative(t, i, IdentifierToken.class), ids);
 	}
 
 	/**
@@ -557,18 +556,15 @@ public class TokenList {
 		if(t1 == null || t2 == null) {
 			return false;
 		}
-		int i1 = m_tokens.indexOf(t1);
-		if(i1 < 0) {
+		int h1 = handleOf(t1);
+		if(h1 == NIL) {
 			return false;
 		}
-		int i2 = m_tokens.indexOf(t2);
-		if(i2 < 0) {
+		int h2 = handleOf(t2);
+		if(h2 == NIL) {
 			return false;
 		}
-		if(i1 < i2) {
-			return true;
-		}
-		return false;
+		return m_order[h1] < m_order[h2];
 
 	}
 	/**
@@ -584,18 +580,20 @@ public class TokenList {
 		}
 	}
 	/**
-	 * removes a range of tokens from start to end.
-	 * Does not include end
+	 * removes the tokens between start and end.
+	 * Does not include start or end
 	 * @param start
 	 * @param end
 	 */
 	public void remove(Token start, Token end) {
-		Token t = relative(end, -1);
-		while(inOrder(start, t)) {
-			Token newT = relative(t, -1);
-			remove(t);
-			t = newT;
-
+		if(inOrder(start, end)) {
+			int h = m_next[handleOf(start)];
+			int hEnd = handleOf(end);
+			while(h != hEnd) {
+				int hNext = m_next[h];
+				unlink(h);
+				h = hNext;
+			}
 		}
 
 	}
@@ -608,9 +606,10 @@ public class TokenList {
 		int i = size();
 		if(i > 0) {
 			--i;
+			int h = m_tail;
 			boolean done = false;
 			while(!done) {
-				int lt = get(i).getStart().line;
+				int lt = m_tokens[h].getStart().line;
 				if(lt < line) {
 					++i;
 					done = true;
@@ -619,6 +618,7 @@ public class TokenList {
 						break;
 					} else {
 						--i;
+						h = m_prev[h];
 					}
 				}
 			}
@@ -629,16 +629,16 @@ public class TokenList {
 
 
 	public ListIterator<Token> getIterator() {
-		return m_tokens.listIterator();
+		return new TokenIterator();
 	}
 
 
 	public Token getFirst() {
-		return m_tokens.getFirst();
+		return tokenOf(m_head);
 	}
 
 	public Token getLast() {
-		return m_tokens.getLast();
+		return tokenOf(m_tail);
 	}
 
 
@@ -656,5 +656,228 @@ public class TokenList {
 		gotoNext(FilePathToken.class);
 	}
 
+	private Token tokenOf(int h) {
+		return h == NIL ? null : m_tokens[h];
+	}
+	private int handleOf(Token t) {
+		Integer h = t == null ? null : m_handles.get(t);
+		return h == null ? NIL : h;
+	}
+	/**
+	 * find the handle at the specified position in the list.
+	 * This walks from whichever end of the list is closer
+	 * @param i
+	 * @return the handle or NIL if the position is not in the list
+	 */
+	private int handleAt(int i) {
+		int h = NIL;
+		if(i >= 0 && i < m_size) {
+			if(i < m_size / 2) {
+				h = step(m_head, i);
+			} else {
+				h = step(m_tail, i - m_size + 1);
+			}
+		}
+		return h;
+	}
+	/**
+	 * moves the specified number of positions from the specified handle
+	 * NIL is treated as the position just past the end of the list
+	 * @param h - the starting handle
+	 * @param i - the number of positions to move. Negative values move backwards
+	 * @return the resulting handle. Moving forward past the end results in NIL, as does moving backward past the start
+	 */
+	private int step(int h, int i) {
+		if(i < 0 && h == NIL) {
+			h = m_tail;
+			++i;
+		}
+		while(i > 0 && h != NIL) {
+			h = m_next[h];
+			--i;
+		}
+		while(i < 0 && h != NIL) {
+			h = m_prev[h];
+			++i;
+		}
+		return h;
+	}
+	/**
+	 * links a token into the list
+	 * @param before - the handle of the token that the new one should precede. NIL means add to the end.
+	 * @param t - the token to add
+	 */
+	private void insertBefore(int before, Token t) {
+		int h;
+		if(m_free != NIL) {
+			h = m_free;
+			m_free = m_next[h];
+		} else {
+			if(m_used == m_tokens.length) {
+				int n = m_used * 2;
+				m_tokens = Arrays.copyOf(m_tokens, n);
+				m_next = Arrays.copyOf(m_next, n);
+				m_prev = Arrays.copyOf(m_prev, n);
+				m_order = Arrays.copyOf(m_order, n);
+			}
+			h = m_used;
+			++m_used;
+		}
+		int after = before == NIL ? m_tail : m_prev[before];
+		m_tokens[h] = t;
+		m_prev[h] = after;
+		m_next[h] = before;
+		if(after == NIL) {
+			m_head = h;
+		} else {
+			m_next[after] = h;
+		}
+		if(before == NIL) {
+			m_tail = h;
+		} else {
+			m_prev[before] = h;
+		}
+		m_handles.put(t, h);
+		++m_size;
+		++m_modCount;
+		assignOrder(h);
+	}
+	/**
+	 * give the specified handle an order label between its neighbours
+	 * If there is no room between them then all labels are reassigned
+	 * @param h
+	 */
+	private void assignOrder(int h) {
+		int p = m_prev[h];
+		int n = m_next[h];
+		if(p == NIL && n == NIL) {
+			m_order[h] = 0;
+		} else if(n == NIL) {
+			m_order[h] = m_order[p] + ORDER_GAP;
+		} else if(p == NIL) {
+			m_order[h] = m_order[n] - ORDER_GAP;
+		} else if(m_order[n] - m_order[p] > 1) {
+			m_order[h] = m_order[p] + (m_order[n] - m_order[p]) / 2;
+		} else {
+			long o = 0;
+			for(int i = m_head; i != NIL; i = m_next[i]) {
+				m_order[i] = o;
+				o += ORDER_GAP;
+			}
+		}
+	}
+	/**
+	 * removes the specified handle from the list
+	 * if it is the current token then the following token becomes current
+	 * @param h
+	 */
+	private void unlink(int h) {
+		int p = m_prev[h];
+		int n = m_next[h];
+		if(p == NIL) {
+			m_head = n;
+		} else {
+			m_next[p] = n;
+		}
+		if(n == NIL) {
+			m_tail = p;
+		} else {
+			m_prev[n] = p;
+		}
+		if(m_current == h) {
+			m_current = n;
+		}
+		m_handles.remove(m_tokens[h]);
+		m_tokens[h] = null;
+		m_next[h] = m_free;
+		m_prev[h] = NIL;
+		m_free = h;
+		--m_size;
+		++m_modCount;
+	}
+	/**
+	 * Iterates over the linked tokens. Changes made through the iterator are applied to the list.
+	 */
+	private class TokenIterator implements ListIterator<Token> {
+		private int m_nextH = m_head;//handle that next() returns
+		private int m_nextI = 0;//position that next() returns
+		private int m_lastH = NIL;//handle that was last returned
+		private int m_expectedModCount = m_modCount;
+
+		@Override
+		public boolean hasNext() {
+			return m_nextH != NIL;
+		}
+		@Override
+		public Token next() {
+			checkMod();
+			if(m_nextH == NIL) {
+				throw new NoSuchElementException();
+			}
+			m_lastH = m_nextH;
+			m_nextH = m_next[m_nextH];
+			++m_nextI;
+			return m_tokens[m_lastH];
+		}
+		@Override
+		public boolean hasPrevious() {
+			return m_nextI > 0;
+		}
+		@Override
+		public Token previous() {
+			checkMod();
+			if(m_nextI <= 0) {
+				throw new NoSuchElementException();
+			}
+			m_nextH = m_nextH == NIL ? m_tail : m_prev[m_nextH];
+			m_lastH = m_nextH;
+			--m_nextI;
+			return m_tokens[m_lastH];
+		}
+		@Override
+		public int nextIndex() {
+			return m_nextI;
+		}
+		@Override
+		public int previousIndex() {
+			return m_nextI - 1;
+		}
+		@Override
+		public void remove() {
+			checkMod();
+			if(m_lastH == NIL) {
+				throw new IllegalStateException();
+			}
+			if(m_lastH == m_nextH) {
+				m_nextH = m_next[m_lastH];
+			} else {
+				--m_nextI;
+			}
+			unlink(m_lastH);
+			m_lastH = NIL;
+			m_expectedModCount = m_modCount;
+		}
+		@Override
+		public void set(Token t) {
+			checkMod();
+			if(m_lastH == NIL) {
+				throw new IllegalStateException();
+			}
+			replace(m_tokens[m_lastH], t);
+		}
+		@Override
+		public void add(Token t) {
+			checkMod();
+			insertBefore(m_nextH, t);
+			++m_nextI;
+			m_lastH = NIL;
+			m_expectedModCount = m_modCount;
+		}
+		private void checkMod() {
+			if(m_expectedModCount != m_modCount) {
+				throw new ConcurrentModificationException();
+			}
+		}
+	}
 
 }
@@ -21,16 +21,19 @@ THE SOFTWARE.
 */
 package com.bluerobotics.blueberry.schema.parser.types;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 
 import com.bluerobotics.blueberry.schema.parser.fields.SymbolName;
+import com.bluerobotics.blueberry.schema.parser.parsing.SchemaSnapshot;
 import com.bluerobotics.blueberry.schema.parser.tokens.Annotation;
 
 /**
  *
  */
-public abstract class AbstractType implements Type {
+public abstract class AbstractType implements Type, Serializable {
+	private static final long serialVersionUID = SchemaSnapshot.VERSION;
 	private final SymbolName m_typeName;
 	private final String m_comment;
 	private final TypeId m_typeId;
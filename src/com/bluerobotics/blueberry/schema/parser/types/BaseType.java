@@ -24,11 +24,13 @@ package com.bluerobotics.blueberry.schema.parser.types;
 import java.util.HashMap;
 
 import com.bluerobotics.blueberry.schema.parser.fields.SymbolName;
+import com.bluerobotics.blueberry.schema.parser.parsing.SchemaSnapshot;
 
 /**
  *
  */
 public class BaseType extends AbstractType {
+	private static final long serialVersionUID = SchemaSnapshot.VERSION;
 	private static final HashMap<TypeId,BaseType> BASE_TYPES = new HashMap<>();
 	private BaseType(TypeId id) {
 		super(id, SymbolName.fromCamel(id.name()),"");
@@ -63,6 +65,13 @@ public class BaseType extends AbstractType {
 		}
 		return bt;
 	}
+	/**
+	 * keeps there being only one instance of each base type when one is deserialized
+	 * @return
+	 */
+	private Object readResolve() {
+		return getBaseType(getTypeId());
+	}
 
 
 
@@ -25,12 +25,14 @@ import java.util.ArrayList;
 import java.util.List;
 
 import com.bluerobotics.blueberry.schema.parser.fields.SymbolName;
+import com.bluerobotics.blueberry.schema.parser.parsing.SchemaSnapshot;
 import com.bluerobotics.blueberry.schema.parser.writers.WriterUtils;
 
 /**
  *
  */
 public class EnumType extends AbstractType {
+	private static final long serialVersionUID = SchemaSnapshot.VERSION;
 	public class NameValue {
 		SymbolName name;
 		long value;
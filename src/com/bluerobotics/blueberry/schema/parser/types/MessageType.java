@@ -1,8 +1,10 @@
 package com.bluerobotics.blueberry.schema.parser.types;
 
 import com.bluerobotics.blueberry.schema.parser.fields.SymbolName;
+import com.bluerobotics.blueberry.schema.parser.parsing.SchemaSnapshot;
 
 public class MessageType extends ParentType {
+	private static final long serialVersionUID = SchemaSnapshot.VERSION;
 
 	public MessageType(SymbolName typeName, String comment) {
 		super(TypeId.MESSAGE, typeName, comment);
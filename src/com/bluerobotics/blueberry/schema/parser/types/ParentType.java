@@ -26,11 +26,13 @@ import java.util.function.Consumer;
 
 import com.bluerobotics.blueberry.schema.parser.fields.Field;
 import com.bluerobotics.blueberry.schema.parser.fields.SymbolName;
+import com.bluerobotics.blueberry.schema.parser.parsing.SchemaSnapshot;
 
 /**
  *
  */
 public abstract class ParentType extends AbstractType {
+	private static final long serialVersionUID = SchemaSnapshot.VERSION;
 	private final ArrayList<Field> m_children = new ArrayList<>();
 
 	protected ParentType(TypeId id, SymbolName typeName, String comment) {
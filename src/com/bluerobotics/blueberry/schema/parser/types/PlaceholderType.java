@@ -22,12 +22,14 @@ THE SOFTWARE.
 package com.bluerobotics.blueberry.schema.parser.types;
 
 import com.bluerobotics.blueberry.schema.parser.fields.SymbolName;
+import com.bluerobotics.blueberry.schema.parser.parsing.SchemaSnapshot;
 
 /**
  * A type to temporarily remember a specified type name before all types have been processed
  * This will get replaced as soon as the whole dictionary has been parsed.
  */
 public class PlaceholderType extends AbstractType {
+	private static final long serialVersionUID = SchemaSnapshot.VERSION;
 
 	public PlaceholderType(SymbolName typeName) {
 		super(null, typeName, "");
@@ -22,11 +22,13 @@ THE SOFTWARE.
 package com.bluerobotics.blueberry.schema.parser.types;
 
 import com.bluerobotics.blueberry.schema.parser.fields.SymbolName;
+import com.bluerobotics.blueberry.schema.parser.parsing.SchemaSnapshot;
 
 /**
  *
  */
 public class SequenceType extends ParentType {
+	private static final long serialVersionUID = SchemaSnapshot.VERSION;
 
 	public SequenceType(SymbolName typeName, String comment) {
 		super(TypeId.STRING, typeName, comment);
@@ -22,11 +22,13 @@ THE SOFTWARE.
 package com.bluerobotics.blueberry.schema.parser.types;
 
 import com.bluerobotics.blueberry.schema.parser.fields.SymbolName;
+import com.bluerobotics.blueberry.schema.parser.parsing.SchemaSnapshot;
 
 /**
  *
  */
 public class StringType extends AbstractType {
+	private static final long serialVersionUID = SchemaSnapshot.VERSION;
 	private static final StringType SINGLETON = new StringType(SymbolName.fromCamel("String"), "");
 	private StringType(SymbolName typeName, String comment) {
 		super(TypeId.STRING, typeName, comment);
@@ -34,6 +36,13 @@ public class StringType extends AbstractType {
 	public static StringType getStringType() {
 		return SINGLETON;
 	}
+	/**
+	 * keeps this a singleton when it is deserialized
+	 * @return
+	 */
+	private Object readResolve() {
+		return SINGLETON;
+	}
 
 
 }
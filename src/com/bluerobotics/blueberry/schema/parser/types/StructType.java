@@ -22,11 +22,13 @@ THE SOFTWARE.
 package com.bluerobotics.blueberry.schema.parser.types;
 
 import com.bluerobotics.blueberry.schema.parser.fields.SymbolName;
+import com.bluerobotics.blueberry.schema.parser.parsing.SchemaSnapshot;
 
 /**
  *
  */
 public class StructType extends ParentType {
+	private static final long serialVersionUID = SchemaSnapshot.VERSION;
 
 	public StructType(SymbolName typeName, String comment) {
 		super(TypeId.STRUCT, typeName, comment);
@@ -21,12 +21,14 @@ THE SOFTWARE.
 */
 package com.bluerobotics.blueberry.schema.parser.types;
 
+import java.io.Serializable;
+
 import com.bluerobotics.blueberry.schema.parser.fields.SymbolName;
 
 /**
  *
  */
-public interface Type {
+public interface Type extends Serializable {
 	public SymbolName getTypeName();
 	public String getComment();
 	public TypeId getTypeId();
@@ -22,11 +22,13 @@ THE SOFTWARE.
 package com.bluerobotics.blueberry.schema.parser.types;
 
 import com.bluerobotics.blueberry.schema.parser.fields.SymbolName;
+import com.bluerobotics.blueberry.schema.parser.parsing.SchemaSnapshot;
 
 /**
  *
  */
 public class TypeDefType extends AbstractType {
+	private static final long serialVersionUID = SchemaSnapshot.VERSION;
 	public TypeDefType(TypeId id, SymbolName typeName, String comment) {
 		super(id, typeName, comment);
 	}
@@ -38,7 +38,6 @@ import com.bluerobotics.blueberry.schema.parser.fields.EnumField;
 import com.bluerobotics.blueberry.schema.parser.fields.EnumField.NameValue;
 import com.bluerobotics.blueberry.schema.parser.fields.Field;
 import com.bluerobotics.blueberry.schema.parser.fields.MessageField;
-import com.bluerobotics.blueberry.schema.parser.fields.MultipleField;
 import com.bluerobotics.blueberry.schema.parser.fields.MultipleField.Index;
 import com.bluerobotics.blueberry.schema.parser.fields.NameMaker;
 import com.bluerobotics.blueberry.schema.parser.fields.SequenceField;
@@ -61,6 +60,9 @@ public class CWriter extends SourceWriter {
 	public CWriter(File dir, BlueberrySchemaParser parser, String header, ParserIssueLogger log) {
 		super(dir, parser, header, log);
 	}
+	public CWriter(OutputSink sink, BlueberrySchemaParser parser, String header, ParserIssueLogger log) {
+		super(sink, parser, header, log);
+	}
 
 	
 	@Override
@@ -71,17 +73,157 @@ public class CWriter extends SourceWriter {
 			//now modules contains a list of all unique modules.
 //			//mow make a header and source files for each message
 			
+			startOutput();
+			//each file is generated as a separate task so they can be done in parallel
+			ArrayList<Runnable> tasks = new ArrayList<>();
 			modules.forEach(mod -> {
 
 				if(mod.getConstants().size() > 0 || mod.getMessages().size() > 0 || mod.hasEnums()) {
-					makeHeaderFile(mod);
-					makeSourceFile(mod);
+					tasks.add(() -> makeHeaderFile(mod));
+					tasks.add(() -> makeSourceFile(mod));
 				}
 			});
+			runTasks(tasks);
+			writeMessageDispatch(modules);
+			finishOutput();
 			
 
 
 
+	}
+	/**
+	 * writes a header and source file with a function that calls a handler for each type of received message
+	 * The handler is looked up with a collision-free hash of the module/message key, which is computed here.
+	 * @param modules
+	 */
+	private void writeMessageDispatch(List<BlueModule> modules) {
+		ArrayList<MessageField> messages = new ArrayList<>();
+		ArrayList<BlueModule> owners = new ArrayList<>();
+		MessageKeyHash hash = makeMessageKeyHash(modules, messages, owners);
+		if(hash == null) {
+			return;
+		}
+		Field keyField = messages.get(0).getChildren().getByName(MessageField.MODULE_MESSAGE_KEY_FIELD_NAME);
+		String guard = "_MESSAGE_DISPATCH_";
+		String handlersType = "MessageHandlers";
+		
+		startFile(null, getHeader());
+		addLine("#ifndef "+guard);
+		addLine("#define "+guard);
+		addLine();
+		addSectionDivider("Includes");
+		addLine("#include <stdbool.h>");
+		addLine("#include <stdint.h>");
+		addLine("#include <blueberry-transcoder.h>");
+		
+		addSectionDivider("Types");
+		addDocComment("The functions to call for each type of received message.",
+				"Any of these can be NULL to ignore that type of message.");
+		addLine("typedef struct {");
+		indent();
+		for(MessageField mf : messages) {
+			addLine("void (*"+NameMaker.makeMessageHandlerName(mf)+")(Bb * buf, BbBlock msg);");
+		}
+		addLine("void (*onUnknown)(Bb * buf, BbBlock msg, uint32_t key);");
+		outdent();
+		addLine("} "+handlersType+";");
+		
+		addSectionDivider("Function Prototypes");
+		addLine("int32_t lookupMessageSlot(uint32_t key);");
+		addLine("bool dispatchMessage(Bb * buf, BbBlock msg, const "+handlersType+" * h);");
+		addLine();
+		addLine("#endif /* "+guard+" */");
+		writeToFile("inc/"+NameMaker.makeCMessageDispatchFileName(true));
+		
+		startFile(null, getHeader());
+		addSectionDivider("Includes");
+		addLine("#include <stddef.h>");
+		addLine("#include <"+NameMaker.makeCMessageDispatchFileName(true)+">");
+		BlueModule last = null;
+		for(BlueModule m : owners) {
+			if(m != last) {
+				addLine("#include <"+NameMaker.makeCModuleFileName(m, true)+">");
+				last = m;
+			}
+		}
+		addLine("#include <blueberry-message.h>");
+		
+		addSectionDivider("Defines");
+		addLine("#define MODULE_MESSAGE_KEY_INDEX ("+keyField.getIndex()+")");
+		addLineComment("These values define the hash. The key picks a bucket and the bucket's displacement is mixed into the key to pick a slot.");
+		addLine("#define KEY_BUCKET_MULTIPLIER ("+WriterUtils.formatAsHex(MessageKeyHash.BUCKET_MULTIPLIER & 0xffffffffL, 8)+")");
+		addLine("#define KEY_BUCKET_SHIFT ("+hash.getBucketShift()+")");
+		addLine("#define KEY_SLOT_MULTIPLIER ("+WriterUtils.formatAsHex(MessageKeyHash.SLOT_MULTIPLIER & 0xffffffffL, 8)+")");
+		addLine("#define KEY_SLOT_SHIFT ("+hash.getSlotShift()+")");
+		
+		addSectionDivider("Variables");
+		addLine("static const uint32_t s_keyDisplacements[] = {");
+		indent();
+		ArrayList<String> lines = new ArrayList<>();
+		for(int d : hash.getDisplacements()) {
+			lines.add(d+",");
+		}
+		addLine(String.join(" ", lines));
+		outdent();
+		addLine("};");
+		addLineComment("The key of the message in each slot. Empty slots hold a key that never hashes to them.");
+		addLine("static const uint32_t s_slotKeys[] = {");
+		indent();
+		for(int i = 0; i < hash.getSlotCount(); ++i) {
+			MessageField mf = hash.getMessage(i);
+			MessageField km = mf != null ? mf : messages.get(0);
+			addLine(NameMaker.makeAbsoluteMessageKeyName(km)+","+(mf == null ? "//empty" : ""));
+		}
+		outdent();
+		addLine("};");
+		
+		addSectionDivider("Functions");
+		addDocComment("Looks up the slot of a module/message key.",
+				"@param key - the module/message key",
+				"@returns - the slot or -1 if the key does not belong to any known message");
+		addLine("int32_t lookupMessageSlot(uint32_t key){");
+		indent();
+		addLine("uint32_t d = s_keyDisplacements[(uint32_t)(key * KEY_BUCKET_MULTIPLIER) >> KEY_BUCKET_SHIFT];");
+		addLine("uint32_t slot = (uint32_t)((key ^ d) * KEY_SLOT_MULTIPLIER) >> KEY_SLOT_SHIFT;");
+		addLine("return s_slotKeys[slot] == key ? (int32_t)slot : -1;");
+		closeBrace();
+		addDocComment("Calls the handler for the type of a received message.",
+				"@param buf - the buffer containing the message",
+				"@param msg - the index of the message in the buffer",
+				"@param h - the functions to call for each type of message",
+				"@returns - true if the message was recognized");
+		addLine("bool dispatchMessage(Bb * buf, BbBlock msg, const "+handlersType+" * h){");
+		indent();
+		addLine("uint32_t key = "+lookupBbGetSet(keyField, true)+"(buf, msg, MODULE_MESSAGE_KEY_INDEX);");
+		addLine("bool result = true;");
+		addLine("switch(lookupMessageSlot(key)){");
+		for(int i = 0; i < hash.getSlotCount(); ++i) {
+			MessageField mf = hash.getMessage(i);
+			if(mf != null) {
+				String hn = NameMaker.makeMessageHandlerName(mf);
+				addLine("case "+i+":");
+				indent();
+				addLine("if(h->"+hn+" != NULL){");
+				indent();
+				addLine("h->"+hn+"(buf, msg);");
+				closeBrace();
+				addLine("break;");
+				outdent();
+			}
+		}
+		addLine("default:");
+		indent();
+		addLine("if(h->onUnknown != NULL){");
+		indent();
+		addLine("h->onUnknown(buf, msg, key);");
+		closeBrace();
+		addLine("result = false;");
+		addLine("break;");
+		outdent();
+		addLine("}");
+		addLine("return result;");
+		closeBrace();
+		writeToFile("src/"+NameMaker.makeCMessageDispatchFileName(false));
 	}
 	/**
 	 * writes the header file for the specified module
@@ -169,6 +311,11 @@ public class CWriter extends SourceWriter {
 		module.getDefines().forEachOfType(EnumField.class, false, ef -> {
 			writeEnum(ef);
 		});
+		module.getMessages().forEachOfType(MessageField.class, false, mf -> {
+			mf.getUsefulChildren().forEachOfType(SequenceField.class, false, sf -> {
+				makeSequenceCursorType(sf);
+			});
+		});
 		addSectionDivider("Variables");
 		module.getConstants().forEach(c -> {
 			if(c instanceof StringConstant) {
@@ -200,6 +347,10 @@ public class CWriter extends SourceWriter {
 			mf.getUsefulChildren().forEach(true, f -> {
 				makeMessageGetterSetter(f, true, true);
 				makeMessageGetterSetter(f, false, true);
+				if(isBulkCopyable(f)) {
+					makeArrayCopier(f, true, true);
+					makeArrayCopier(f, false, true);
+				}
 				makeMessagePresenceTester(f, true);
 				
 			});
@@ -213,13 +364,14 @@ public class CWriter extends SourceWriter {
 				makeSequenceInit(sf, true);
 				makeSequenceLengthGetter(sf, true);
 			});
+			makeSequenceCursors(mf, true);
 			
 		});
 		
 		addLine();
 		addLine("#endif /* "+module.getName().toUpperSnake("_") + "_MODULE_ */");
 	
-		writeToFile("inc/"+NameMaker.makeCModuleFileName(module, true));
+		writeToFile("inc/"+NameMaker.makeCModuleFileName(module, true), module.getCoord());
 
 	}
 	
@@ -243,7 +395,7 @@ public class CWriter extends SourceWriter {
 		addLineComment("Add message field indeces");
 		//add defines for field indeces
 		//also keep track of any boolfieldfields
-		m_bools = false;
+		Contents cs = new Contents();
 		ArrayList<String> lines = new ArrayList<String>();
 		module.getMessages().forEachOfType(MessageField.class, false, mf -> {
 			
@@ -253,21 +405,21 @@ public class CWriter extends SourceWriter {
 					if(!(f instanceof BoolFieldField)) {
 						if(f.getBitCount() == 1) {
 							lines.add("#define " + NameMaker.makeFieldIndexName(f) + " ("+f.getParent().getIndex()+")");
-							m_bools = true;
+							cs.bools = true;
 						} else {
 							lines.add("#define " + NameMaker.makeFieldIndexName(f) + " ("+f.getIndex()+")");
 						}
 					}
 					if(f.getTypeId() == TypeId.STRING) {
-						m_strings = true;
+						cs.strings = true;
 					}
 					
 				} else {
 					if(f instanceof ArrayField) {
-						m_arrays = true;
+						cs.arrays = true;
 						lines.add("#define " + NameMaker.makeFieldIndexName(f) + " ("+f.getIndex()+")");
 					} else if(f instanceof SequenceField) {
-						m_sequences = true;
+						cs.sequences = true;
 						lines.add("#define " + NameMaker.makeFieldIndexName(f) + " ("+f.getIndex()+")");
 					}
 				}
@@ -311,7 +463,7 @@ public class CWriter extends SourceWriter {
 		Collections.sort(lines);
 		addLines(lines);
 		
-		if(m_bools) {
+		if(cs.bools) {
 			addLine();
 			addLineComment("Add message boolean field masks");
 
@@ -329,7 +481,7 @@ public class CWriter extends SourceWriter {
 			Collections.sort(lines);
 			addLines(lines);
 		}
-		if(m_arrays) {
+		if(cs.arrays) {
 			addLine();
 			addLineComment("Add array sizes and element byte count");
 			lines.clear();
@@ -354,12 +506,12 @@ public class CWriter extends SourceWriter {
 			Collections.sort(lines);
 			addLines(lines);
 		}
-		if(m_sequences) {
+		if(cs.sequences) {
 			addLine();
 			addLineComment("Add sequence element byte count");
 			lines.clear();
 			module.getMessages().forEachOfType(MessageField.class, false, mf -> {
-				mf.getChildren().forEachOfType(SequenceField.class, true, sf -> {
+				mf.getUsefulChildren().forEachOfType(SequenceField.class, false, sf -> {
 					
 					lines.add("#define " + NameMaker.makeMultipleFieldElementByteCountName(sf.getIndeces().getFirst()) + " ("+sf.getBytesPerElement()+")");
 
@@ -370,7 +522,7 @@ public class CWriter extends SourceWriter {
 			
 
 		}
-		if(m_strings) {
+		if(cs.strings) {
 			addLine();
 			addLineComment("Add string max length constants");
 			lines.clear();
@@ -436,6 +588,10 @@ public class CWriter extends SourceWriter {
 				
 				makeMessageGetterSetter(f, true, false);
 				makeMessageGetterSetter(f, false, false);
+				if(isBulkCopyable(f)) {
+					makeArrayCopier(f, true, false);
+					makeArrayCopier(f, false, false);
+				}
 				makeMessagePresenceTester(f, false);
 				
 
@@ -450,6 +606,7 @@ public class CWriter extends SourceWriter {
 				makeSequenceInit(sf, false);
 				makeSequenceLengthGetter(sf, false);
 			});
+			makeSequenceCursors(mf, false);
 			
 		});
 		
@@ -478,7 +635,7 @@ public class CWriter extends SourceWriter {
 
 
 
-		writeToFile("src/"+NameMaker.makeCModuleFileName(module, false));
+		writeToFile("src/"+NameMaker.makeCModuleFileName(module, false), module.getCoord());
 
 	}
 
@@ -499,7 +656,7 @@ public class CWriter extends SourceWriter {
 		comments.add("Gets the defined length of a sequence "+sf.getTypeName().deScope().toTitle());
 		comments.add(sf.getComment());
 		
-		List<Index> pis = MultipleField.getIndeces(sf);
+		List<Index> pis = sf.getIndexChain();
 		
 		
 		comments.add("@param buf - the message buffer to add the message to");
@@ -602,7 +759,7 @@ public class CWriter extends SourceWriter {
 		comments.add("A function to initialize a "+sf.getTypeName().deScope().toTitle());
 		comments.add(sf.getComment());
 		
-		List<Index> pis = MultipleField.getIndeces(sf);
+		List<Index> pis = sf.getIndexChain();
 		
 		
 		comments.add("@param buf - the message buffer to add the message to");
@@ -647,6 +804,197 @@ public class CWriter extends SourceWriter {
 		addLine("}");
 	}
 
+	/**
+	 * makes the type of a cursor over the elements of a sequence
+	 * The start of the sequence is looked up once when the cursor is made so each element can then be found
+	 * from its index and the element size without walking down through all the enclosing sequences again.
+	 * This assumes that the elements of a sequence are packed one after another.
+	 * @param sf
+	 */
+	private void makeSequenceCursorType(SequenceField sf) {
+		addDocComment("A cursor over the elements of a sequence "+sf.getTypeName().deScope().toTitle()+".", 
+				"The start of the sequence is looked up once so each element can be accessed directly.", 
+				"This is only valid until the message is changed.");
+		addLine("typedef struct {");
+		indent();
+		addLine("Bb * buf;");
+		addLine("BbBlock msg;");
+		addLine("uint16_t base;//the index of the first element, or invalid if the sequence was not initialized");
+		addLine("uint32_t length;");
+		outdent();
+		addLine("} "+NameMaker.makeSequenceCursorName(sf, true)+";");
+	}
+	/**
+	 * adds lines that finish off a cursor once the index of its sequence header is known
+	 * i must hold the index of the header and c must be the cursor to fill in
+	 */
+	private void addLinesForCursorSeek() {
+		addLine("if(isBbBlockInvalid(i)){");
+		indent();
+		addLine("return c;//bail because a sequence was not initialized");
+		closeBrace();
+		addLineComment("i is now the index of this sequence field header");
+		addLine("c.base = getBbSequenceElementIndex(c.buf, c.msg, i, 0);");
+		addLine("if(!isBbBlockInvalid(c.base)){");
+		indent();
+		addLine("c.length = getBbSequenceLength(c.buf, c.msg, i);");
+		closeBrace();
+		addLine("return c;");
+	}
+	/**
+	 * makes a function that returns a cursor over the specified sequence of a message
+	 * @param sf
+	 * @param protoNotDef
+	 */
+	private void makeSequenceCursorGetter(SequenceField sf, boolean protoNotDef) {
+		String cursor = NameMaker.makeSequenceCursorName(sf, true);
+		ArrayList<String> comments = new ArrayList<>();
+		comments.add("Gets a cursor over the elements of a sequence "+sf.getTypeName().deScope().toTitle());
+		comments.add(sf.getComment());
+		List<Index> pis = sf.getIndexChain();
+		comments.add("@param buf - the message buffer to add the message to");
+		comments.add("@param msg - the index of the start of the message");
+		addIndecesComments(pis, comments);
+		comments.add("@return - the cursor");
+		addDocComment(comments);
+		addLine(cursor+" get"+cursor+"(Bb * buf, BbBlock msg"+makeIndecesParamList(pis)+")" + (protoNotDef ? ";" : "{"));
+		if(protoNotDef) {
+			return;
+		}
+		indent();
+		addLine(cursor+" c = {buf, msg, BB_INVALID_BLOCK, 0};");
+		addLinesForFieldIndexCalc(pis, sf);
+		addLinesForCursorSeek();
+		closeBrace();
+	}
+	/**
+	 * adds lines to compute the index of a field from the start of the element of a sequence cursor
+	 * Only arrays can be left in the index chain after the innermost sequence.
+	 * @param pis - the index chain of the field
+	 * @param f
+	 * @param c - the name of the pointer to the cursor
+	 */
+	private void addLinesForCursorIndexCalc(List<Index> pis, Field f, String c) {
+		int j = indexOfInnermostSequence(pis);
+		Index si = pis.get(j);
+		addLine("uint16_t i = "+c+"->base + "+si.paramName+" * "+NameMaker.makeMultipleFieldElementByteCountName(si)+";");
+		for(Index pi : pis.subList(j + 1, pis.size())) {
+			addLine("i += "+NameMaker.makeFieldIndexName(pi.p)+";");
+			addLine("i = getBbArrayElementIndex("+c+"->buf, "+c+"->msg, i, "+pi.paramName+", "+pi.bytesPerElement+");");
+		}
+		if(!(f.getParent() instanceof SequenceField || f.getParent() instanceof ArrayField)) {
+			addLine("i += "+NameMaker.makeFieldIndexName(f)+";");
+		}
+	}
+	/**
+	 * makes a getter or setter that accesses a field of the elements of a sequence through a cursor
+	 * @param f
+	 * @param sf - the sequence of the cursor
+	 * @param getNotSet
+	 * @param protoNotDef
+	 */
+	private void makeCursorGetterSetter(Field f, SequenceField sf, boolean getNotSet, boolean protoNotDef) {
+		String tf = getType(f);
+		if(tf == null || f.getTypeId() == TypeId.STRING) {
+			return;
+		}
+		List<Index> pis = f.getIndexChain();
+		List<Index> rel = pis.subList(indexOfInnermostSequence(pis), pis.size());
+		SymbolName fn = f.getName();
+		if(fn == null) {
+			fn = f.getParent().getName();
+		}
+		ArrayList<String> comments = new ArrayList<>();
+		comments.add("A "+(getNotSet ? "g" : "s") + "etter for the "+fn.toLowerCamel()+" field that uses a sequence cursor");
+		if(f.getComment() != null) {
+			comments.add(f.getComment());
+		}
+		comments.add("@param c - the cursor over the sequence");
+		addIndecesComments(rel, comments);
+		String paramList = "const "+NameMaker.makeSequenceCursorName(sf, true)+" * c" + makeIndecesParamList(rel);
+		if(!getNotSet) {
+			paramList += ", "+ tf + " "+fn.toLowerCamel();
+			comments.add("@param "+fn.toLowerCamel()+prependHyphen(f.getComment()));
+		}
+		addDocComment(comments);
+		String line;
+		if(getNotSet) {
+			line = tf + " " + NameMaker.makeFieldGetterName(f, true) + "At";
+		} else {
+			line = "void " + NameMaker.makeFieldSetterName(f, true) + "At";
+		}
+		addLine(line + "("+paramList+")"+(protoNotDef ? ";" : "{"));
+		if(protoNotDef) {
+			return;
+		}
+		indent();
+		if(!getNotSet) {
+			addLine("if(isBbBlockInvalid(c->base)){");
+			indent();
+			addLine("return;//bail because the sequence was not initialized");
+			closeBrace();
+		}
+		addLinesForCursorIndexCalc(pis, f, "c");
+		String boolStuff = "";
+		if(f.getBitCount() == 1) {
+			boolStuff = ", " + NameMaker.makeBooleanMaskName(f);
+		}
+		addLine((getNotSet ? "return " : "")+lookupBbGetSet(f, getNotSet)+"(c->buf, c->msg, i" + boolStuff + (getNotSet ? "" : ", "+ fn.toLowerCamel()) + ");");
+		closeBrace();
+	}
+	/**
+	 * makes a function that gets a cursor over a sequence in one of the elements of another sequence cursor
+	 * @param csf - the child sequence
+	 * @param sf - the sequence of the parent cursor
+	 * @param protoNotDef
+	 */
+	private void makeChildCursorGetter(SequenceField csf, SequenceField sf, boolean protoNotDef) {
+		String cursor = NameMaker.makeSequenceCursorName(csf, true);
+		List<Index> pis = csf.getIndexChain();
+		List<Index> rel = pis.subList(indexOfInnermostSequence(pis), pis.size());
+		ArrayList<String> comments = new ArrayList<>();
+		comments.add("Gets a cursor over the elements of a sequence "+csf.getTypeName().deScope().toTitle()+" from a cursor over the sequence that contains it");
+		comments.add(csf.getComment());
+		comments.add("@param p - the cursor over the containing sequence");
+		addIndecesComments(rel, comments);
+		comments.add("@return - the cursor");
+		addDocComment(comments);
+		addLine(cursor+" get"+cursor+"At(const "+NameMaker.makeSequenceCursorName(sf, true)+" * p"+makeIndecesParamList(rel)+")" + (protoNotDef ? ";" : "{"));
+		if(protoNotDef) {
+			return;
+		}
+		indent();
+		addLine(cursor+" c = {p->buf, p->msg, BB_INVALID_BLOCK, 0};");
+		addLine("if(isBbBlockInvalid(p->base)){");
+		indent();
+		addLine("return c;//the containing sequence was not initialized so neither was this one");
+		closeBrace();
+		addLinesForCursorIndexCalc(pis, csf, "p");
+		addLinesForCursorSeek();
+		closeBrace();
+	}
+	/**
+	 * makes the functions of all the cursors of a message
+	 * @param mf
+	 * @param protoNotDef
+	 */
+	private void makeSequenceCursors(MessageField mf, boolean protoNotDef) {
+		mf.getUsefulChildren().forEachOfType(SequenceField.class, false, sf -> {
+			makeSequenceCursorGetter(sf, protoNotDef);
+			mf.getUsefulChildren().forEach(false, f -> {
+				if(isCursorMember(f, sf)) {
+					makeCursorGetterSetter(f, sf, true, protoNotDef);
+					makeCursorGetterSetter(f, sf, false, protoNotDef);
+				}
+			});
+			mf.getUsefulChildren().forEachOfType(SequenceField.class, false, csf -> {
+				if(isCursorMember(csf, sf)) {
+					makeChildCursorGetter(csf, sf, protoNotDef);
+				}
+			});
+		});
+	}
+
 	private void addMessageKey(MessageField mf) {
 		String mk = makeFullMessageKey(mf);
 		addLine("#define "+NameMaker.makeAbsoluteMessageKeyName(mf) + " ("+mk+")");
@@ -682,7 +1030,7 @@ public class CWriter extends SourceWriter {
 			
 			
 			
-			if(tp != null && f.getTypeId() != TypeId.STRING && (MultipleField.getIndeces(f)).size() == 0) {
+			if(tp != null && f.getTypeId() != TypeId.STRING && f.getIndexChain().size() == 0) {
 				fs.add(f);
 				if(f.getBitCount() == 1) {
 					System.out.println("CWriter.makeMessageAdder");
@@ -691,7 +1039,7 @@ public class CWriter extends SourceWriter {
 			} else if(f.getTypeId() == TypeId.STRING || f.getTypeId() == TypeId.SEQUENCE) {
 				//build a list of all sequences and strings that are not in sequences
 				boolean notInSequence = true;
-				for(Index i : MultipleField.getIndeces(f)) {
+				for(Index i : f.getIndexChain()) {
 					if(!i.arrayNotSequence) {
 						notInSequence = false;
 						break;
@@ -774,7 +1122,7 @@ public class CWriter extends SourceWriter {
 		
 		
 		for(Field f : ss) {
-			List<Index> pis = MultipleField.getIndeces(f);
+			List<Index> pis = f.getIndexChain();
 			if(pis.size() == 0) {
 				//zero the index field of each string and sequence
 				String s = (f.getTypeId() == TypeId.SEQUENCE) ? "sequence" : "string";
@@ -872,7 +1220,7 @@ public class CWriter extends SourceWriter {
 		if(tf == null || f.getTypeId() == TypeId.STRING) {
 			return;
 		}
-		List<Index> pis = MultipleField.getIndeces(f);
+		List<Index> pis = f.getIndexChain();
 		if(pis.size() > 0) {//only need this for top level message fields
 			return;
 		}
@@ -932,7 +1280,7 @@ public class CWriter extends SourceWriter {
 		if(tf == null || f.getTypeId() == TypeId.STRING) {
 			return;
 		}
-		List<Index> pis = MultipleField.getIndeces(f);
+		List<Index> pis = f.getIndexChain();
 		
 		//don't need a setter if it's a simple field not in an array
 		if((!getNotSet) && pis.size() == 0) {
@@ -1045,8 +1393,67 @@ public class CWriter extends SourceWriter {
 	}
 	
 
+	/**
+	 * makes a function that copies a row of an array field to or from a C array in one go
+	 * The start of the row is computed once and then the elements are accessed in a simple loop
+	 * @param f - an element of an array
+	 * @param toNotFrom - true to copy to the message, false to copy from it
+	 * @param protoNotDef
+	 */
+	private void makeArrayCopier(Field f, boolean toNotFrom, boolean protoNotDef) {
+		String tf = getType(f);
+		if(tf == null) {
+			return;
+		}
+		List<Index> pis = f.getIndexChain();
+		Index last = pis.getLast();
+		List<Index> outer = pis.subList(0, pis.size() - 1);
+		SymbolName fn = f.getName();
+		if(fn == null) {
+			fn = f.getParent().getName();
+		}
+		ArrayList<String> comments = new ArrayList<>();
+		comments.add("A function to copy elements of the "+fn.toLowerCamel()+" field "+(toNotFrom ? "to" : "from")+" a message, starting with the first element.");
+		if(f.getComment() != null) {
+			comments.add(f.getComment());
+		}
+		comments.add("@param buf - the buffer that the message is being read/written from/to");
+		comments.add("@param msg - the index to the start of the message in the buffer.");
+		addIndecesComments(outer, comments);
+		comments.add("@param values - the array to copy "+(toNotFrom ? "from" : "to"));
+		comments.add("@param n - the number of elements to copy");
+		comments.add("@returns - the number of elements copied. This is less than n if the field has fewer than n elements.");
+		addDocComment(comments);
+		
+		String paramList = "Bb * buf, BbBlock msg" + makeIndecesParamList(outer) + ", "+(toNotFrom ? "const " : "")+tf+" * values, uint32_t n";
+		addLine("uint32_t "+NameMaker.makeArrayCopierName(f, toNotFrom, true)+"("+paramList+")"+(protoNotDef ? ";" : "{"));
+		if(protoNotDef) {
+			return;
+		}
+		indent();
+		addLinesForFieldIndexCalc(makeRowStartIndexChain(f), f);
+		addLine("if(isBbBlockInvalid(i)){");
+		indent();
+		addLine("return 0;//bail because a sequence was not initialized");
+		closeBrace();
+		addLine("if(n > "+last.n+"){");
+		indent();
+		addLine("n = "+last.n+";");
+		closeBrace();
+		addLine("for(uint32_t k = 0; k < n; ++k){");
+		indent();
+		if(toNotFrom) {
+			addLine(lookupBbGetSet(f, false)+"(buf, msg, i + k * "+last.bytesPerElement+", values[k]);");
+		} else {
+			addLine("values[k] = "+lookupBbGetSet(f, true)+"(buf, msg, i + k * "+last.bytesPerElement+");");
+		}
+		closeBrace();
+		addLine("return n;");
+		closeBrace();
+	}
+	
 	private void makeStringCopier(StringField f, boolean toNotFrom, boolean protoNotDef) {
-		List<Index> pis = MultipleField.getIndeces(f);
+		List<Index> pis = f.getIndexChain();
 		ArrayList<String> comments = new ArrayList<>();
 		SymbolName fn = f.getName();
 		if(fn == null) {
@@ -1114,7 +1521,7 @@ public class CWriter extends SourceWriter {
 	}
 	
 	private void makeStringLengthGetter(StringField f, MessageField mf, boolean protoNotDef) {
-		List<Index> pis = MultipleField.getIndeces(f);
+		List<Index> pis = f.getIndexChain();
 		ArrayList<String> comments = new ArrayList<>();
 		SymbolName fn = f.getName();
 		if(fn == null) {
@@ -1326,10 +1733,15 @@ public class CWriter extends SourceWriter {
 		return result;
 	}
 
-	boolean m_bools = false;
-	boolean m_arrays = false;
-	boolean m_sequences = false;
-	boolean m_strings = false;
+	/**
+	 * keeps track of which kinds of fields a module's messages contain, while its source file is being made
+	 */
+	private static final class Contents {
+		boolean bools = false;
+		boolean arrays = false;
+		boolean sequences = false;
+		boolean strings = false;
+	}
 
 
 
@@ -0,0 +1,196 @@
+/*
+Copyright (c) 2026  Blue Robotics
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of
+this software and associated documentation files (the "Software"), to deal in
+the Software without restriction, including without limitation the rights to
+use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+of the Software, and to permit persons to whom the Software is furnished to do
+so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.bluerobotics.blueberry.schema.parser.writers;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.bluerobotics.blueberry.schema.parser.parsing.ParserIssueLogger;
+
+/**
+ * An output sink that writes generated files to a directory.
+ * Files that already have the right contents are left alone so that their timestamps don't trigger rebuilds of everything that depends on them.
+ * A manifest of the files written is kept in the directory so that files that are no longer generated can be deleted.
+ * The manifest holds paths relative to the directory, so the directory can be moved, and files outside of it are never deleted.
+ */
+public class FileSink implements OutputSink {
+	private final File m_directory;
+	/**
+	 * the normalized absolute path of the directory, which manifest entries are relative to
+	 */
+	private final Path m_base;
+	private String m_name = "output";
+	/**
+	 * the normalized absolute paths of the files written since begin was called, and how many of those were already up to date
+	 */
+	private final Set<Path> m_written = ConcurrentHashMap.newKeySet();
+	private final AtomicInteger m_unchangedCount = new AtomicInteger();
+	
+	public FileSink(File dir) {
+		if(!dir.exists()) {
+			dir.mkdirs();
+			m_directory = dir;
+		} else if(!dir.isDirectory()) {
+			throw new RuntimeException("Specified file location is not a directory!");
+		} else {
+			m_directory = dir;
+		}
+		m_base = dir.toPath().toAbsolutePath().normalize();
+	}
+	public File getDirectory() {
+		return m_directory;
+	}
+	@Override
+	public void begin(String name) {
+		m_name = name;
+		m_written.clear();
+		m_unchangedCount.set(0);
+	}
+	@Override
+	public void write(String path, byte[] contents) throws IOException {
+		File f = resolve(path).getAbsoluteFile();
+		m_written.add(f.toPath().normalize());
+		if(isUnchanged(f, contents)) {
+			m_unchangedCount.incrementAndGet();
+			return;
+		}
+		
+		File p = f.getParentFile();
+		if(!p.exists()) {
+			p.mkdirs();
+		}
+		Files.write(f.toPath(), contents);
+	}
+	/**
+	 * Deletes any files that were written last time but not this time, such as those of messages that have been removed from the schema,
+	 * and then records the files that were written this time in the manifest.
+	 */
+	@Override
+	public void finish(ParserIssueLogger log) {
+		File mf = new File(m_directory, ".blueberry-" + m_name + ".manifest");
+		int removed = 0;
+		if(mf.isFile()) {
+			try {
+				for(String path : Files.readAllLines(mf.toPath(), StandardCharsets.UTF_8)) {
+					Path p = m_base.resolve(path).normalize();
+					//a manifest that has been edited or copied from elsewhere must not be able to delete anything outside of this directory
+					if(!path.isBlank() && p.startsWith(m_base) && !m_written.contains(p) && p.toFile().isFile() && p.toFile().delete()) {
+						++removed;
+					}
+				}
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+		
+		ArrayList<String> paths = new ArrayList<>();
+		for(Path p : m_written) {
+			if(p.startsWith(m_base)) {
+				paths.add(m_base.relativize(p).toString().replace(File.separatorChar, '/'));
+			}
+		}
+		Collections.sort(paths);
+		byte[] bs = String.join("\n", paths).concat("\n").getBytes(StandardCharsets.UTF_8);
+		if(!isUnchanged(mf, bs)) {
+			try {
+				//nothing may have been written yet to make the directory, e.g. if it was deleted after this was made
+				Files.createDirectories(m_base);
+				Files.write(mf.toPath(), bs);
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+		int n = m_written.size();
+		int u = m_unchangedCount.get();
+		log.issueNote("Generated "+n+" files: "+(n - u)+" written, "+u+" unchanged, "+removed+" stale files removed.");
+	}
+	/**
+	 * works out where a file should go.
+	 * If the start of the path matches the end of the directory path then the two are overlapped instead of simply joined
+	 * @param name
+	 * @return
+	 */
+	private File resolve(String name) {
+		//split the directory path and the name path into chunks
+		String[] ds = m_directory.getAbsolutePath().substring(1).split("/");
+		String[] ns = name.split("/");
+		
+		int dn = ds.length;
+		int nn = ns.length;
+		int found = -1;
+		//now match them by chunk
+		for(int di = 0; di < dn; ++di) {
+			boolean match = true;
+			for(int ni = 0; ni < nn && (di + ni ) < dn; ++ni) {
+					if(!ds[di + ni].equals(ns[ni])) {
+						match = false;
+						break;
+					}
+			}
+			if(match) {
+				found = di;
+				break;
+			}
+		}
+		File f = new File(m_directory, name);
+		if(found >= 0) {
+			//we found a match so concatenate
+			int n = found + nn;
+			String an = "";
+			for(int i = 0; i < n; ++i) {
+				if(i < found) {
+					an += "/"+ds[i];
+				} else {
+					an += "/"+ns[i - found];
+				}
+			}
+			f = new File(an);
+		}
+		return f;
+	}
+	/**
+	 * checks if the specified file already has exactly the specified contents
+	 * @param f
+	 * @param bs
+	 * @return
+	 */
+	private static boolean isUnchanged(File f, byte[] bs) {
+		boolean result = false;
+		if(f.isFile() && f.length() == bs.length) {
+			try {
+				result = Arrays.equals(Files.readAllBytes(f.toPath()), bs);
+			} catch (IOException e) {
+				result = false;
+			}
+		}
+		return result;
+	}
+}
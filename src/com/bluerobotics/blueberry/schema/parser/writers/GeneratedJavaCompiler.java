@@ -0,0 +1,198 @@
+/*
+Copyright (c) 2026  Blue Robotics
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of
+this software and associated documentation files (the "Software"), to deal in
+the Software without restriction, including without limitation the rights to
+use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+of the Software, and to permit persons to whom the Software is furnished to do
+so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.bluerobotics.blueberry.schema.parser.writers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import com.bluerobotics.blueberry.schema.parser.parsing.ParserIssueLogger;
+import com.bluerobotics.blueberry.schema.parser.tokens.Coord;
+
+/**
+ * Compiles generated Java sources in memory to check that they compile, without writing them to disk or starting another JVM.
+ * Any compiler errors and warnings are logged against the part of the schema that the offending file was generated from.
+ * The class files can then be written to an output sink, e.g. a ZipSink to make a jar.
+ */
+public class GeneratedJavaCompiler {
+	private final ParserIssueLogger m_log;
+	private final List<String> m_classPath;
+	private final TreeMap<String, byte[]> m_classes = new TreeMap<>();
+	
+	/**
+	 * @param log - where to report compiler diagnostics
+	 * @param classPath - the class path entries needed by the generated code, e.g. the Blueberry transcoder library
+	 */
+	public GeneratedJavaCompiler(ParserIssueLogger log, List<String> classPath) {
+		m_log = log;
+		m_classPath = classPath;
+	}
+	/**
+	 * A source file held in memory
+	 */
+	private static class Source extends SimpleJavaFileObject {
+		private final String m_path;
+		private final String m_text;
+		Source(String path, String text) {
+			super(URI.create("string:///" + path), Kind.SOURCE);
+			m_path = path;
+			m_text = text;
+		}
+		@Override
+		public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+			return m_text;
+		}
+	}
+	/**
+	 * A class file that the compiler writes to memory
+	 */
+	private class ClassFile extends SimpleJavaFileObject {
+		private final String m_path;
+		ClassFile(String className) {
+			super(URI.create("mem:///" + className.replace('.', '/') + Kind.CLASS.extension), Kind.CLASS);
+			m_path = className.replace('.', '/') + Kind.CLASS.extension;
+		}
+		@Override
+		public OutputStream openOutputStream() {
+			return new ByteArrayOutputStream() {
+				@Override
+				public void close() {
+					m_classes.put(m_path, toByteArray());
+				}
+			};
+		}
+	}
+	/**
+	 * Compiles the specified sources.
+	 * @param sources - the generated files, by path. Anything that is not a Java source is ignored.
+	 * @param origins - looks up where in the schema a file was generated from, e.g. SourceWriter::getOrigin
+	 * @return true if everything compiled without errors
+	 */
+	public boolean compile(Map<String, byte[]> sources, Function<String, Coord> origins) {
+		m_classes.clear();
+		JavaCompiler jc = ToolProvider.getSystemJavaCompiler();
+		if(jc == null) {
+			m_log.issueError("Cannot check the generated Java code because no Java compiler is available. This needs to run on a JDK.");
+			return false;
+		}
+		ArrayList<Source> ss = new ArrayList<>();
+		sources.forEach((path, bs) -> {
+			if(path.endsWith(JavaFileObject.Kind.SOURCE.extension)) {
+				ss.add(new Source(path, new String(bs, Charset.defaultCharset())));
+			}
+		});
+		
+		DiagnosticCollector<JavaFileObject> dc = new DiagnosticCollector<>();
+		ArrayList<String> options = new ArrayList<>();
+		if(m_classPath != null && !m_classPath.isEmpty()) {
+			options.add("-classpath");
+			options.add(String.join(File.pathSeparator, m_classPath));
+		}
+		boolean result;
+		try(StandardJavaFileManager sfm = jc.getStandardFileManager(dc, null, null);
+			JavaFileManager fm = new ForwardingJavaFileManager<StandardJavaFileManager>(sfm) {
+				@Override
+				public JavaFileObject getJavaFileForOutput(Location location, String className, JavaFileObject.Kind kind, FileObject sibling) throws IOException {
+					JavaFileObject jfo;
+					if(kind == JavaFileObject.Kind.CLASS) {
+						jfo = new ClassFile(className);
+					} else {
+						jfo = super.getJavaFileForOutput(location, className, kind, sibling);
+					}
+					return jfo;
+				}
+			}) {
+			result = jc.getTask(null, fm, dc, options, null, ss).call();
+		} catch (IOException e) {
+			m_log.issueError("Could not compile the generated Java code: " + e.getMessage());
+			return false;
+		}
+		
+		for(Diagnostic<? extends JavaFileObject> d : dc.getDiagnostics()) {
+			logDiagnostic(d, origins);
+		}
+		if(result) {
+			m_log.issueNote("Generated Java code compiled into " + m_classes.size() + " class files.");
+		}
+		return result;
+	}
+	private void logDiagnostic(Diagnostic<? extends JavaFileObject> d, Function<String, Coord> origins) {
+		String path = null;
+		Coord c = null;
+		if(d.getSource() instanceof Source) {
+			path = ((Source)d.getSource()).m_path;
+			c = origins == null ? null : origins.apply(path);
+		}
+		String desc = (path == null ? "Generated Java code" : path + " line " + d.getLineNumber()) + ": " + d.getMessage(null);
+		Coord[] cs = c == null ? new Coord[0] : new Coord[] {c};
+		switch(d.getKind()) {
+		case ERROR:
+			m_log.issueError(desc, cs);
+			break;
+		case WARNING:
+		case MANDATORY_WARNING:
+			m_log.issueWarning(desc, cs);
+			break;
+		default:
+			break;
+		}
+	}
+	/**
+	 * the class files from the last successful compile
+	 * @return an unmodifiable map of paths, e.g. com/example/Foo.class, to their contents
+	 */
+	public Map<String, byte[]> getClassFiles() {
+		return Collections.unmodifiableMap(m_classes);
+	}
+	/**
+	 * writes the class files from the last compile to the specified sink, e.g. a ZipSink to make a jar
+	 * @param sink
+	 * @throws IOException
+	 */
+	public void writeClassFiles(OutputSink sink) throws IOException {
+		sink.begin("classes");
+		for(Map.Entry<String, byte[]> e : m_classes.entrySet()) {
+			sink.write(e.getKey(), e.getValue());
+		}
+		sink.finish(m_log);
+	}
+}
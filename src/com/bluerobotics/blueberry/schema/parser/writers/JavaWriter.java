@@ -25,6 +25,8 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 import com.bluerobotics.blueberry.schema.parser.constants.Constant;
 import com.bluerobotics.blueberry.schema.parser.constants.NumberConstant;
@@ -38,7 +40,6 @@ import com.bluerobotics.blueberry.schema.parser.fields.EnumField.NameValue;
 import com.bluerobotics.blueberry.schema.parser.fields.Field;
 import com.bluerobotics.blueberry.schema.parser.fields.FieldList;
 import com.bluerobotics.blueberry.schema.parser.fields.MessageField;
-import com.bluerobotics.blueberry.schema.parser.fields.MultipleField;
 import com.bluerobotics.blueberry.schema.parser.fields.MultipleField.Index;
 import com.bluerobotics.blueberry.schema.parser.fields.NameMaker;
 import com.bluerobotics.blueberry.schema.parser.fields.ParentField;
@@ -59,6 +60,8 @@ import com.bluerobotics.blueberry.schema.parser.types.TypeId;
  */
 public class JavaWriter extends SourceWriter {
 
+	private static final int MAX_DENSE_ENUM_SPAN = 1024;//enums whose values span more than this are looked up with a switch instead of an array
+	private static final int MAX_DENSE_ENUM_GAP = 8;//how many more array entries than items an enum can have before it is considered sparse
 	private final ScopeName m_packagePrefix;
 
 
@@ -66,6 +69,10 @@ public class JavaWriter extends SourceWriter {
 		super(dir, parser, header, log);
 		m_packagePrefix = ScopeName.make(Case.LOWER_SNAKE, "\\.", packagePrefix);
 	}
+	public JavaWriter(OutputSink sink, BlueberrySchemaParser parser, String header, String packagePrefix, ParserIssueLogger log) {
+		super(sink, parser, header, log);
+		m_packagePrefix = ScopeName.make(Case.LOWER_SNAKE, "\\.", packagePrefix);
+	}
 
 	@Override
 	public void write() {
@@ -79,17 +86,22 @@ public class JavaWriter extends SourceWriter {
 //		m_consumerManagerName = top.getName().append("consumer","manager").toUpperCamel();
 //		m_packetRecieverName = top.getName().append("Receiver").toUpperCamel();
 //
+		startOutput();
+		//each file is generated as a separate task so they can be done in parallel
+		ArrayList<Runnable> tasks = new ArrayList<>();
 		modules.forEach(m -> {
 			if(!m.isEmpty()) {
-				writeConstantsFile(m);
+				tasks.add(() -> writeConstantsFile(m));
 				m.getMessages().forEachOfType(MessageField.class, false, msg -> {
-					writeMessageFile(m, msg);
+					tasks.add(() -> writeMessageFile(m, msg));
 					
 				});
 			}
 			
 		});
+		runTasks(tasks);
 		writeMessageLookup(modules);	
+		finishOutput();
 		
 //		writeBlockParsers(top, headers);
 //		writeParserInterface(top, headers);
@@ -103,8 +115,116 @@ public class JavaWriter extends SourceWriter {
 	 * @param modules
 	 */
 	private void writeMessageLookup(ArrayList<BlueModule> modules) {
-		// TODO Auto-generated method stub
+		ArrayList<MessageField> messages = new ArrayList<>();
+		ArrayList<BlueModule> owners = new ArrayList<>();
+		MessageKeyHash hash = makeMessageKeyHash(modules, messages, owners);
+		if(hash == null) {
+			return;
+		}
+		String className = NameMaker.makeJavaDispatcherClass();
+		Field keyField = messages.get(0).getChildren().getByName(MessageField.MODULE_MESSAGE_KEY_FIELD_NAME);
+		
+		super.startFile(null, getHeader());
+		addLine("package " + m_packagePrefix.toLowerSnake(".")+";");
+		addLine();
+		addLine("import com.bluerobotics.blueberry.transcoder.java.BlueberryBuffer;");
+		addLine();
+		addBlockComment("Routes received messages to a handler according to their module/message key.",
+				"The keys are looked up with a collision-free hash that was computed when this file was generated,",
+				"so dispatching a message takes the same time no matter how many message types there are.");
+		addLine("public final class "+className+" {");
+		indent();
+		
+		addDocComment("Receives dispatched messages. Implement the methods for the messages of interest.",
+				"The messages passed to these methods are reused, so they are only valid until the method returns.");
+		addLine("public interface Handler {");
+		indent();
+		for(int i = 0; i < messages.size(); ++i) {
+			MessageField mf = messages.get(i);
+			String mc = NameMaker.makePackageName(owners.get(i), m_packagePrefix).toLowerSnake(".") + "." + NameMaker.makeJavaMessageClass(mf);
+			addDocComment("Called when a "+NameMaker.makeJavaMessageClass(mf)+" is received.", mf.getComment());
+			addLine("default void "+NameMaker.makeMessageHandlerName(mf)+"("+mc+" msg) {}");
+		}
+		addDocComment("Called when a message is received whose key does not match any known message.",
+				"@param buf - the message buffer containing the received message",
+				"@param key - the module/message key of the received message");
+		addLine("default void onUnknown(BlueberryBuffer buf, int key) {}");
+		closeBrace();
+		addLine();
+		
+		addLine("private static final int MODULE_MESSAGE_KEY_INDEX = "+keyField.getIndex()+";");
+		addLine();
+		addLineComment("These values define the hash. The key picks a bucket and the bucket's displacement is mixed into the key to pick a slot.");
+		addLine("private static final int KEY_BUCKET_MULTIPLIER = "+WriterUtils.formatAsHex(MessageKeyHash.BUCKET_MULTIPLIER & 0xffffffffL, 8)+";");
+		addLine("private static final int KEY_BUCKET_SHIFT = "+hash.getBucketShift()+";");
+		addLine("private static final int KEY_SLOT_MULTIPLIER = "+WriterUtils.formatAsHex(MessageKeyHash.SLOT_MULTIPLIER & 0xffffffffL, 8)+";");
+		addLine("private static final int KEY_SLOT_SHIFT = "+hash.getSlotShift()+";");
+		addLine();
+		addLine("private static final int[] KEY_DISPLACEMENTS = {");
+		indent();
+		ArrayList<String> lines = new ArrayList<>();
+		for(int d : hash.getDisplacements()) {
+			lines.add(d+",");
+		}
+		addLine(String.join(" ", lines));
+		outdent();
+		addLine("};");
+		addLineComment("The key of the message in each slot. Empty slots hold a key that never hashes to them.");
+		addLine("private static final int[] SLOT_KEYS = {");
+		indent();
+		for(int i = 0; i < hash.getSlotCount(); ++i) {
+			MessageField mf = hash.getMessage(i);
+			addLine(WriterUtils.formatAsHex(hash.getKey(i) & 0xffffffffL, 8)+","+(mf == null ? "//empty" : "//"+NameMaker.makeJavaMessageClass(mf)));
+		}
+		outdent();
+		addLine("};");
+		addLine();
+		addLine("private "+className+"() {}");
+		
+		addDocComment("Looks up the slot of a module/message key.",
+				"@param key - the module/message key",
+				"@return the slot or -1 if the key does not belong to any known message");
+		addLine("public static int lookup(int key) {");
+		indent();
+		addLine("int d = KEY_DISPLACEMENTS[(key * KEY_BUCKET_MULTIPLIER) >>> KEY_BUCKET_SHIFT];");
+		addLine("int slot = ((key ^ d) * KEY_SLOT_MULTIPLIER) >>> KEY_SLOT_SHIFT;");
+		addLine("return SLOT_KEYS[slot] == key ? slot : -1;");
+		closeBrace();
 		
+		addDocComment("Passes a received message to the method of the handler for its type.",
+				"This does not allocate: messages are wrapped with the reusable instance of the calling thread.",
+				"@param buf - the message buffer containing the received message",
+				"@param h - the handler to receive the message",
+				"@return true if the message was recognized");
+		addLine("public static boolean dispatch(BlueberryBuffer buf, Handler h) {");
+		indent();
+		addLine("int key = (int)buf."+lookupGetSetName(keyField, true)+"(MODULE_MESSAGE_KEY_INDEX);");
+		addLine("boolean result = true;");
+		addLine("switch(lookup(key)) {");
+		for(int i = 0; i < hash.getSlotCount(); ++i) {
+			MessageField mf = hash.getMessage(i);
+			if(mf != null) {
+				int j = messages.indexOf(mf);
+				String mc = NameMaker.makePackageName(owners.get(j), m_packagePrefix).toLowerSnake(".") + "." + NameMaker.makeJavaMessageClass(mf);
+				addLine("case "+i+":");
+				indent();
+				addLine("h."+NameMaker.makeMessageHandlerName(mf)+"("+mc+".wrapShared(buf));");
+				addLine("break;");
+				outdent();
+			}
+		}
+		addLine("default:");
+		indent();
+		addLine("h.onUnknown(buf, key);");
+		addLine("result = false;");
+		addLine("break;");
+		outdent();
+		addLine("}");
+		addLine("return result;");
+		closeBrace();
+		
+		closeBrace();
+		writeToFile(m_packagePrefix.toLowerSnake("/")+"/"+className+".java");
 	}
 
 
@@ -122,8 +242,6 @@ public class JavaWriter extends SourceWriter {
 		addLine();
 //		addLine("import com.bluerobotics.blueberry.transcoder.java.BitIndex;");
 //		addLine("import com.bluerobotics.blueberry.transcoder.java.FieldIndex;");
-		addLine("import com.bluerobotics.blueberry.transcoder.java.EnumLookup;");
-		addLine();
 
 		addLine("public interface "+NameMaker.makeJavaConstantInterface(m)+" {");
 		indent();
@@ -137,7 +255,7 @@ public class JavaWriter extends SourceWriter {
 //		writeBitIndexEnum(top);
 		writeOtherEnums(m);
 		closeBrace();
-		writeToFile(NameMaker.makePackageName(m, m_packagePrefix).toLowerSnake("/")+"/"+NameMaker.makeJavaConstantInterface(m)+".java");
+		writeToFile(NameMaker.makePackageName(m, m_packagePrefix).toLowerSnake("/")+"/"+NameMaker.makeJavaConstantInterface(m)+".java", m.getCoord());
 
 
 
@@ -183,7 +301,31 @@ public class JavaWriter extends SourceWriter {
 			addLine(nv.getName().toUpperSnakeString()+"(("+type+")"+nv.getValueAsHex()+"),"+c);
 		}
 		addLine(";");
-		addLine("private static EnumLookup<"+name+"> m_lookup = new EnumLookup<"+name+">();");
+		
+		//work out the values that getValue() will return, after the cast to the enum's type
+		//if two items share a value then the last one wins, as it always has
+		TreeMap<Integer, NameValue> byValue = new TreeMap<>();
+		for(NameValue nv : nvs) {
+			byValue.put(castEnumValue(nv.getValue().asLong(), type), nv);
+		}
+		boolean dense = false;
+		int min = 0;
+		int span = 0;
+		if(!byValue.isEmpty()) {
+			min = byValue.firstKey();
+			long s = (long)byValue.lastKey() - min + 1;
+			dense = s <= MAX_DENSE_ENUM_SPAN && s <= 2*byValue.size() + MAX_DENSE_ENUM_GAP;
+			span = (int)s;
+		}
+		if(dense) {
+			addLineComment("The items indexed by their value minus the lowest value, so lookups don't need to search");
+			ArrayList<String> items = new ArrayList<>();
+			for(int i = 0; i < span; ++i) {
+				NameValue nv = byValue.get(min + i);
+				items.add(nv == null ? "null" : nv.getName().toUpperSnakeString());
+			}
+			addLine("private static final "+name+"[] m_byValue = {"+String.join(", ", items)+"};");
+		}
 		addLine("private int value;");
 		addLine("private "+name+"(int v){");
 		indent();
@@ -193,20 +335,63 @@ public class JavaWriter extends SourceWriter {
 		indent();
 		addLine("return value;");
 		closeBrace();
+		addDocComment("Looks up the "+name+" with the specified value.",
+				"@param i - the value",
+				"@return the matching item or null if there isn't one");
 		addLine("public static "+name+" lookup(int i){");
 		indent();
-		addLine("if(m_lookup.size() == 0) {");
-		indent();
-		addLine("for("+name+" e : values()) {");
-		indent();
-		addLine("m_lookup.add(e.getValue(), e);");
-		closeBrace();
+		addLine("return lookup(i, null);");
 		closeBrace();
-		addLine("return m_lookup.lookup(i);");
+		addDocComment("Looks up the "+name+" with the specified value.",
+				"@param i - the value",
+				"@param unknown - what to return if no item has the specified value",
+				"@return the matching item or unknown if there isn't one");
+		addLine("public static "+name+" lookup(int i, "+name+" unknown){");
+		indent();
+		if(dense) {
+			String j = min == 0 ? "i" : min > 0 ? "i - "+min : "i + "+(-(long)min);
+			addLine("int j = "+j+";");
+			addLine(name+" result = j >= 0 && j < m_byValue.length ? m_byValue[j] : null;");
+			addLine("return result != null ? result : unknown;");
+		} else {
+			addLine("switch(i) {");
+			for(Map.Entry<Integer, NameValue> e : byValue.entrySet()) {
+				addLine("case "+WriterUtils.formatAsHex(e.getKey() & 0xffffffffL)+":");
+				indent();
+				addLine("return "+e.getValue().getName().toUpperSnakeString()+";");
+				outdent();
+			}
+			addLine("default:");
+			indent();
+			addLine("return unknown;");
+			outdent();
+			addLine("}");
+		}
 		closeBrace();
 		closeBrace();
 
 	}
+	/**
+	 * works out the value that a generated enum item will hold, given the cast in its constructor call
+	 * @param v
+	 * @param type
+	 * @return
+	 */
+	private static int castEnumValue(long v, String type) {
+		int result;
+		switch(type) {
+		case "byte":
+			result = (byte)v;
+			break;
+		case "short":
+			result = (short)v;
+			break;
+		default:
+			result = (int)v;
+			break;
+		}
+		return result;
+	}
 
 //	private String lookupTypeForFuncName(BaseField f) {
 //		String result = "";
@@ -548,6 +733,9 @@ public class JavaWriter extends SourceWriter {
 		addLine();
 		addLine("private static final int "+NameMaker.makeMessageLengthName(msg)+" = "+msg.getPaddedByteCount()+";");
 		addLine();
+		addLineComment("A reusable instance for each thread, so received messages can be read without allocating");
+		addLine("private static final ThreadLocal<"+messageName+"> "+NameMaker.makeMessageViewName(msg)+" = ThreadLocal.withInitial(() -> new "+messageName+"(null));");
+		addLine();
 		
 		
 		
@@ -671,6 +859,8 @@ public class JavaWriter extends SourceWriter {
 		addTxMessageMaker(msg, true);
 		addTxMessageMaker(msg, false);
 		addRxMessageWrapper(msg);
+		addRxMessageRewrapper(msg);
+		addRxSharedMessageWrapper(msg);
 		makeMessageFullTester(msg);
 		
 		msg.getUsefulChildren().forEach(false, f -> {
@@ -679,12 +869,19 @@ public class JavaWriter extends SourceWriter {
 			}
 			makeMessageGetterSetter(f, true);
 			makeMessageGetterSetter(f, false);
+			if(isBulkCopyable(f)) {
+				makeMessageBulkGetterSetter(f, true);
+				makeMessageBulkGetterSetter(f, false);
+			}
 			makeMessagePresenceTester(f);
 			
 		});
 		msg.getUsefulChildren().forEachOfType(SequenceField.class, false, f -> {
 			makeSequenceInit(f);
 			makeSequenceLengthGetter(f);
+			makeSequenceCursorGetter(f, false);
+			makeSequenceCursorGetter(f, true);
+			makeSequenceCursor(msg, f);
 
 		});
 		msg.getUsefulChildren().forEachOfType(StringField.class, false, f -> {
@@ -695,7 +892,7 @@ public class JavaWriter extends SourceWriter {
 		
 		
 		closeBrace();
-		writeToFile(NameMaker.makePackageName(m, m_packagePrefix).toLowerSnake("/")+"/"+messageName+".java");
+		writeToFile(NameMaker.makePackageName(m, m_packagePrefix).toLowerSnake("/")+"/"+messageName+".java", msg.getCoord());
 		
 	}
 	/**
@@ -740,7 +937,7 @@ public class JavaWriter extends SourceWriter {
 		if(tf == null || f.getTypeId() == TypeId.STRING) {
 			return;
 		}
-		List<Index> pis = MultipleField.getIndeces(f);
+		List<Index> pis = f.getIndexChain();
 		
 		//don't need a setter if it's a simple field not in an array
 		if((!getNotSet) && pis.size() == 0) {
@@ -835,6 +1032,65 @@ public class JavaWriter extends SourceWriter {
 	}
 	
 
+	/**
+	 * makes a getter or setter that copies a row of an array field to or from a primitive array in one go
+	 * The start of the row is computed once and then the elements are accessed in a simple loop
+	 * @param f - an element of an array
+	 * @param getNotSet
+	 */
+	private void makeMessageBulkGetterSetter(Field f, boolean getNotSet) {
+		String tf = getType(f);
+		if(tf == null) {
+			return;
+		}
+		List<Index> pis = f.getIndexChain();
+		Index last = pis.getLast();
+		List<Index> outer = pis.subList(0, pis.size() - 1);
+		SymbolName fn = f.getName();
+		if(fn == null) {
+			fn = f.getParent().getName();
+		}
+		String arrayName = getNotSet ? "dst" : "src";
+		ArrayList<String> comments = new ArrayList<>();
+		comments.add("Copies elements of the "+fn.toLowerCamel()+" field "+(getNotSet ? "to" : "from")+" an array, starting with the first element.");
+		if(f.getComment() != null) {
+			comments.add(f.getComment());
+		}
+		addIndecesComments(outer, comments);
+		comments.add("@param "+arrayName+" - the array to copy "+(getNotSet ? "to" : "from"));
+		comments.add("@param off - the index of the first element of "+arrayName+" to copy "+(getNotSet ? "to" : "from"));
+		comments.add("@param len - the number of elements to copy");
+		comments.add("@return the number of elements copied. This is less than len if the field has fewer than len elements.");
+		addDocComment(comments);
+		
+		String paramList = makeIndecesParamList(outer);
+		if(paramList.length() > 0) {
+			paramList += ", ";
+		}
+		paramList += tf+"[] "+arrayName+", int off, int len";
+		String name = getNotSet ? NameMaker.makeFieldGetterName(f, false) : NameMaker.makeFieldSetterName(f, false);
+		addLine("public int "+name+"("+paramList+"){");
+		indent();
+		if(addLinesForFieldIndexCalc(makeRowStartIndexChain(f), f)) {
+			addLine("if(i < 0){");
+			indent();
+			addLine("return 0;//bail because a sequence was not initialized");
+			closeBrace();
+		}
+		String bpe = NameMaker.makeMultipleFieldElementByteCountName(last);
+		addLine("int n = Math.min(len, "+NameMaker.makeArraySizeName(last)+");");
+		addLine("for(int k = 0; k < n; ++k) {");
+		indent();
+		if(getNotSet) {
+			addLine(arrayName+"[off + k] = m_buf."+lookupGetSetName(f, true)+"(i + k * "+bpe+");");
+		} else {
+			addLine("m_buf."+lookupGetSetName(f, false)+"(i + k * "+bpe+", "+arrayName+"[off + k]);");
+		}
+		closeBrace();
+		addLine("return n;");
+		closeBrace();
+	}
+
 	/**
 	 * makes a protected message constructor, either for tx or rx
 	 * doesn't set up header
@@ -912,6 +1168,43 @@ public class JavaWriter extends SourceWriter {
 		addLine("return msg;");
 		closeBrace();
 	}
+	/**
+	 * makes a method to point an existing message at a new buffer of received data
+	 * This allows one instance to be reused for many received messages
+	 * @param mf
+	 */
+	private void addRxMessageRewrapper(MessageField mf) {
+		String messageName = NameMaker.makeJavaMessageClass(mf).toString();
+		addDocComment("Points this "+messageName+" at a new buffer of received data, so it can be reused instead of wrapping a new one.",
+				"This message is left unchanged if the buffer does not contain a "+messageName+".",
+				"@param buf - the message buffer containing the received message",
+				"@return this message, or null if the buffer does not contain a "+messageName);
+		addLine("public "+messageName+" rewrap(BlueberryBuffer buf) {");
+		indent();
+		addLine("if(!isModuleMessageKeyCorrect(buf, "+NameMaker.makeRelativeMessageKeyName(mf)+")){");
+		indent();
+		addLine("return null;");
+		closeBrace();
+		addLine("m_buf = buf;");
+		addLine("return this;");
+		closeBrace();
+	}
+	/**
+	 * makes a method to wrap received data in an instance that is reused by the calling thread
+	 * @param mf
+	 */
+	private void addRxSharedMessageWrapper(MessageField mf) {
+		String messageName = NameMaker.makeJavaMessageClass(mf).toString();
+		addDocComment("A method to wrap a buffer of received data in a "+messageName+" without allocating.",
+				"The returned message is reused by every call to this method from the same thread,",
+				"so it is only valid until the next call and should not be kept or passed to another thread.",
+				"@param buf - the message buffer containing the received message",
+				"@return the reused message, or null if the buffer does not contain a "+messageName);
+		addLine("public static "+messageName+" wrapShared(BlueberryBuffer buf) {");
+		indent();
+		addLine("return "+NameMaker.makeMessageViewName(mf)+".get().rewrap(buf);");
+		closeBrace();
+	}
 	private void addTxMessageMaker(MessageField mf, boolean params) {
 		String messageName = NameMaker.makeJavaMessageClass(mf).toString();
 		if(messageName.toLowerCase().startsWith("flash")) {
@@ -934,13 +1227,13 @@ public class JavaWriter extends SourceWriter {
 				
 				
 				
-				if(tp != null && f.getTypeId() != TypeId.STRING && (MultipleField.getIndeces(f)).size() == 0) {
+				if(tp != null && f.getTypeId() != TypeId.STRING && f.getIndexChain().size() == 0) {
 					fs.add(f);
 					
 				} else if(f.getTypeId() == TypeId.STRING || f.getTypeId() == TypeId.SEQUENCE) {
 					//build a list of all sequences and strings that are not in sequences
 					boolean notInSequence = true;
-					for(Index i : MultipleField.getIndeces(f)) {
+					for(Index i : f.getIndexChain()) {
 						if(!i.arrayNotSequence) {
 							notInSequence = false;
 							break;
@@ -1009,7 +1302,7 @@ public class JavaWriter extends SourceWriter {
 			
 		}
 		for(Field f : ss) {
-			List<Index> pis = MultipleField.getIndeces(f);
+			List<Index> pis = f.getIndexChain();
 			if(pis.size() == 0) {
 				//zero the index field of each string and sequence
 				String s = (f.getTypeId() == TypeId.SEQUENCE) ? "sequence" : "string";
@@ -1202,9 +1495,18 @@ public class JavaWriter extends SourceWriter {
 		if(f.getName() == null && f.getParent().getName().toLowerCamelString().equals("floats")) {
 			System.out.println("JavaWriter.addLinesForFieldIndexCalc test.");
 		}
-		boolean bail = false;
-		boolean result = false;
 		addLine("int i = 0;");
+		return addLinesForIndexChain(pis, f);
+	}
+	/**
+	 * adds lines to the output file that step the index i through the specified index chain to the specified field
+	 * i must already be declared and hold the index of the block that the first index of the chain is part of
+	 * @param pis
+	 * @param f
+	 * @return true if there was a sequence in the list
+	 */
+	private boolean addLinesForIndexChain(List<Index> pis, Field f) {
+		boolean result = false;
 		if(pis.size() == 0) {
 			
 			
@@ -1348,7 +1650,7 @@ public class JavaWriter extends SourceWriter {
 		if(tf == null || f.getTypeId() == TypeId.STRING) {
 			return;
 		}
-		List<Index> pis = MultipleField.getIndeces(f);
+		List<Index> pis = f.getIndexChain();
 		if(pis.size() > 0) {//only need this for top level message fields
 			return;
 		}
@@ -1400,7 +1702,7 @@ public class JavaWriter extends SourceWriter {
 		comments.add("A function to initialize a "+sf.getTypeName().deScope().toTitle());
 		comments.add(sf.getComment());
 		
-		List<Index> pis = MultipleField.getIndeces(sf);
+		List<Index> pis = sf.getIndexChain();
 		
 		
 		comments.add("@param n - the number of elements of this sequence");
@@ -1451,7 +1753,7 @@ public class JavaWriter extends SourceWriter {
 		comments.add("Gets the defined length of a sequence "+sf.getTypeName().deScope().toTitle());
 		comments.add(sf.getComment());
 		
-		List<Index> pis = MultipleField.getIndeces(sf);
+		List<Index> pis = sf.getIndexChain();
 		
 		
 
@@ -1502,8 +1804,202 @@ public class JavaWriter extends SourceWriter {
 		addLine("}");
 	}
 
+	/**
+	 * makes a pair of message methods that return a cursor over the specified sequence
+	 * one allocates a new cursor and the other reuses one that the caller already has
+	 * @param sf
+	 * @param reuse
+	 */
+	private void makeSequenceCursorGetter(SequenceField sf, boolean reuse) {
+		String cursor = NameMaker.makeSequenceCursorName(sf, false);
+		ArrayList<String> comments = new ArrayList<>();
+		comments.add("Gets a cursor over the elements of a sequence "+sf.getTypeName().deScope().toTitle());
+		comments.add(sf.getComment());
+		List<Index> pis = sf.getIndexChain();
+		addIndecesComments(pis, comments);
+		String paramList = makeIndecesParamList(pis);
+		if(reuse) {
+			comments.add("@param c - the cursor to reuse");
+			if(paramList.length() > 0) {
+				paramList += ", ";
+			}
+			paramList += cursor + " c";
+		}
+		comments.add("@return - the cursor");
+		addDocComment(comments);
+		addLine("public "+cursor+" get"+cursor+"("+paramList+"){");
+		indent();
+		if(reuse) {
+			addLinesForFieldIndexCalc(pis, sf);
+			addLineComment("i is now the index of this sequence field header");
+			addLine("return c.seek(i);");
+		} else {
+			String args = "";
+			for(Index pi : pis) {
+				args += pi.paramName + ", ";
+			}
+			addLine("return get"+cursor+"("+args+"new "+cursor+"());");
+		}
+		closeBrace();
+	}
+	/**
+	 * makes an inner class that steps through the elements of a sequence
+	 * The start of the sequence is looked up once when the cursor is made so each element can then be found
+	 * from its index and the element size without walking down through all the enclosing sequences again.
+	 * This assumes that the elements of a sequence are packed one after another.
+	 * @param msg
+	 * @param sf
+	 */
+	private void makeSequenceCursor(MessageField msg, SequenceField sf) {
+		String cursor = NameMaker.makeSequenceCursorName(sf, false);
+		addDocComment("A cursor over the elements of a sequence "+sf.getTypeName().deScope().toTitle()+".", 
+				"The start of the sequence is looked up once so each element can be accessed directly.", 
+				"This is only valid until the message is changed or pointed at a new buffer.");
+		addLine("public class "+cursor+" {");
+		indent();
+		addLine("private int m_base = -1;//the index of the first element, or negative if the sequence is not initialized");
+		addLine("private int m_length = 0;");
+		addDocComment("Points this cursor at a sequence", "@param i - the index of the sequence header, or a negative number if it could not be found", "@return this cursor");
+		addLine("private "+cursor+" seek(int i){");
+		indent();
+		addLine("m_base = i < 0 ? -1 : getSequenceElementBlock(i, 0);");
+		addLine("m_length = m_base < 0 ? 0 : getSequenceLength(i);");
+		addLine("return this;");
+		closeBrace();
+		addDocComment("Gets the number of elements in the sequence", "@return - the number of elements, or zero if the sequence was not initialized");
+		addLine("public int size(){");
+		indent();
+		addLine("return m_length;");
+		closeBrace();
+		
+		msg.getUsefulChildren().forEach(false, f -> {
+			if(isCursorMember(f, sf)) {
+				makeCursorGetterSetter(f, sf, true);
+				makeCursorGetterSetter(f, sf, false);
+			}
+		});
+		msg.getUsefulChildren().forEachOfType(SequenceField.class, false, csf -> {
+			if(isCursorMember(csf, sf)) {
+				makeChildCursorGetter(csf, sf, false);
+				makeChildCursorGetter(csf, sf, true);
+			}
+		});
+		closeBrace();
+	}
+	/**
+	 * adds lines to compute the index of a field from the start of the element of a sequence cursor
+	 * @param pis - the index chain of the field
+	 * @param f
+	 */
+	private void addLinesForCursorIndexCalc(List<Index> pis, Field f) {
+		int j = indexOfInnermostSequence(pis);
+		Index si = pis.get(j);
+		addLine("int i = m_base + "+si.paramName+" * "+NameMaker.makeMultipleFieldElementByteCountName(si)+";");
+		addLinesForIndexChain(pis.subList(j + 1, pis.size()), f);
+	}
+	/**
+	 * makes a getter or setter in a sequence cursor for a field of the sequence elements
+	 * @param f
+	 * @param sf - the sequence of the cursor
+	 * @param getNotSet
+	 */
+	private void makeCursorGetterSetter(Field f, SequenceField sf, boolean getNotSet) {
+		String tf = getType(f);
+		if(tf == null || f.getTypeId() == TypeId.STRING) {
+			return;
+		}
+		List<Index> pis = f.getIndexChain();
+		List<Index> rel = pis.subList(indexOfInnermostSequence(pis), pis.size());
+		SymbolName fn = NameMaker.makeCursorRelativeName(f, sf);
+		ArrayList<String> comments = new ArrayList<>();
+		comments.add("A "+(getNotSet ? "g" : "s") + "etter for the "+fn.toLowerCamel()+" field");
+		if(f.getComment() != null) {
+			comments.add(f.getComment());
+		}
+		addIndecesComments(rel, comments);
+		String paramList = makeIndecesParamList(rel);
+		if(!getNotSet) {
+			paramList += ", " + tf + " " + fn.toLowerCamel();
+			comments.add("@param "+fn.toLowerCamel()+prependHyphen(f.getComment()));
+		}
+		addDocComment(comments);
+		if(getNotSet) {
+			addLine("public "+ tf + " " + fn.prepend(f.getBitCount() > 1 ? "get" : "is").toLowerCamelString()+"("+paramList+"){");
+		} else {
+			addLine("public void " + fn.prepend("set").toLowerCamelString()+"("+paramList+"){");
+		}
+		indent();
+		if(!getNotSet) {
+			addLine("if(m_base < 0){");
+			indent();
+			addLine("return;//bail because the sequence was not initialized");
+			closeBrace();
+		}
+		addLinesForCursorIndexCalc(pis, f);
+		String boolStuff = "";
+		if(f.getBitCount() == 1) {
+			boolStuff = ", " + NameMaker.makeBooleanBitNumName(f);
+		}
+		boolean isEnum = f instanceof EnumField;
+		if(getNotSet) {
+			if(isEnum) {
+				addLine("return " +tf+".lookup(m_buf."+lookupGetSetName(f, true)+"(i " + boolStuff + "));");
+			} else {
+				addLine("return " +"m_buf."+lookupGetSetName(f, true)+"(i " + boolStuff + ");");
+			}
+		} else {
+			if(isEnum) {
+				addLine("m_buf."+lookupGetSetName(f, false)+"(i " + boolStuff + ", "+ fn.toLowerCamel() + ".getValue());");
+			} else {
+				addLine("m_buf."+lookupGetSetName(f, false)+"(i " + boolStuff + ", "+ fn.toLowerCamel() + ");");
+			}
+		}
+		closeBrace();
+	}
+	/**
+	 * makes a method in a sequence cursor that gets a cursor over a sequence in one of its elements
+	 * @param csf - the child sequence
+	 * @param sf - the sequence of the cursor
+	 * @param reuse - true to reuse a cursor that the caller already has, false to allocate a new one
+	 */
+	private void makeChildCursorGetter(SequenceField csf, SequenceField sf, boolean reuse) {
+		String cursor = NameMaker.makeSequenceCursorName(csf, false);
+		String name = "get"+NameMaker.makeCursorRelativeName(csf, sf).append("cursor").toUpperCamelString();
+		List<Index> pis = csf.getIndexChain();
+		List<Index> rel = pis.subList(indexOfInnermostSequence(pis), pis.size());
+		ArrayList<String> comments = new ArrayList<>();
+		comments.add("Gets a cursor over the elements of a sequence "+csf.getTypeName().deScope().toTitle());
+		comments.add(csf.getComment());
+		addIndecesComments(rel, comments);
+		String paramList = makeIndecesParamList(rel);
+		if(reuse) {
+			comments.add("@param c - the cursor to reuse");
+			paramList += ", " + cursor + " c";
+		}
+		comments.add("@return - the cursor");
+		addDocComment(comments);
+		addLine("public "+cursor+" "+name+"("+paramList+"){");
+		indent();
+		if(reuse) {
+			addLine("if(m_base < 0){");
+			indent();
+			addLine("return c.seek(-1);//the sequence was not initialized so neither was this one");
+			closeBrace();
+			addLinesForCursorIndexCalc(pis, csf);
+			addLineComment("i is now the index of this sequence field header");
+			addLine("return c.seek(i);");
+		} else {
+			String args = "";
+			for(Index pi : rel) {
+				args += pi.paramName + ", ";
+			}
+			addLine("return "+name+"("+args+"new "+cursor+"());");
+		}
+		closeBrace();
+	}
+
 	private void makeStringCopier(StringField f, boolean toNotFrom) {
-		List<Index> pis = MultipleField.getIndeces(f);
+		List<Index> pis = f.getIndexChain();
 		ArrayList<String> comments = new ArrayList<>();
 		SymbolName fn = f.getName();
 		if(fn == null) {
@@ -0,0 +1,58 @@
+/*
+Copyright (c) 2026  Blue Robotics
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of
+this software and associated documentation files (the "Software"), to deal in
+the Software without restriction, including without limitation the rights to
+use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+of the Software, and to permit persons to whom the Software is furnished to do
+so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.bluerobotics.blueberry.schema.parser.writers;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An output sink that keeps generated files in memory, so that they can be used without touching the disk
+ */
+public class MemorySink implements OutputSink {
+	private final ConcurrentHashMap<String, byte[]> m_files = new ConcurrentHashMap<>();
+
+	@Override
+	public void write(String path, byte[] contents) {
+		m_files.put(path, contents.clone());
+	}
+	/**
+	 * gets the contents of a generated file
+	 * @param path
+	 * @return a copy of the file's bytes, or null if no file has been written to this path
+	 */
+	public byte[] get(String path) {
+		byte[] result = m_files.get(path);
+		return result == null ? null : result.clone();
+	}
+	/**
+	 * gets all the files written so far, sorted by path
+	 * @return an unmodifiable map of paths to contents. The contents are shared so should not be changed.
+	 */
+	public Map<String, byte[]> getFiles() {
+		return Collections.unmodifiableMap(new TreeMap<>(m_files));
+	}
+	public void clear() {
+		m_files.clear();
+	}
+}
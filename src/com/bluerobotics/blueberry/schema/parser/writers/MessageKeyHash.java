@@ -0,0 +1,188 @@
+/*
+Copyright (c) 2026  Blue Robotics
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of
+this software and associated documentation files (the "Software"), to deal in
+the Software without restriction, including without limitation the rights to
+use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+of the Software, and to permit persons to whom the Software is furnished to do
+so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.bluerobotics.blueberry.schema.parser.writers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.bluerobotics.blueberry.schema.parser.fields.MessageField;
+
+/**
+ * A collision-free hash of module/message keys, computed at generation time so generated code can look up a received message with no searching.
+ * This is a two-level hash: the key picks a bucket, and the bucket's displacement is mixed into the key to pick a slot.
+ * The displacements are chosen so that every key gets a slot of its own.
+ */
+final class MessageKeyHash {
+	static final int BUCKET_MULTIPLIER = 0x9e3779b9;
+	static final int SLOT_MULTIPLIER = 0x85ebca6b;
+	private static final int MAX_DISPLACEMENT_TRIES = 1 << 16;
+	
+	private final List<MessageField> m_messages;
+	private final int m_bucketBits;
+	private final int m_slotBits;
+	private final int[] m_displacements;
+	private final int[] m_keys;
+	private final int[] m_slots;//index of the message in each slot, or -1 if empty
+	
+	private MessageKeyHash(List<MessageField> messages, int[] keys, int bucketBits, int slotBits, int[] displacements, int[] slots) {
+		m_messages = messages;
+		m_keys = keys;
+		m_bucketBits = bucketBits;
+		m_slotBits = slotBits;
+		m_displacements = displacements;
+		m_slots = slots;
+	}
+	/**
+	 * computes a hash for the keys of the specified messages
+	 * @param messages - must not be empty
+	 * @return the hash or null if the messages do not all have different keys
+	 */
+	static MessageKeyHash make(List<MessageField> messages) {
+		int n = messages.size();
+		int[] keys = new int[n];
+		for(int i = 0; i < n; ++i) {
+			keys[i] = messages.get(i).getModuleMessageKey();
+		}
+		return make(messages, keys);
+	}
+	private static MessageKeyHash make(List<MessageField> messages, int[] keys) {
+		int n = keys.length;
+		int[] sorted = keys.clone();
+		Arrays.sort(sorted);
+		for(int i = 1; i < n; ++i) {
+			if(sorted[i] == sorted[i - 1]) {
+				return null;
+			}
+		}
+		//aim for about two keys per bucket and slightly more slots than keys
+		//both need at least two entries because a shift of 32 does nothing in Java or C
+		int bucketBits = Math.max(1, bitsFor((n + 1) / 2));
+		int slotBits = Math.max(1, bitsFor(n));
+		MessageKeyHash result = null;
+		while(result == null) {
+			result = tryMake(messages, keys, bucketBits, slotBits);
+			++slotBits;
+		}
+		return result;
+	}
+	private static MessageKeyHash tryMake(List<MessageField> messages, int[] keys, int bucketBits, int slotBits) {
+		int bucketCount = 1 << bucketBits;
+		ArrayList<ArrayList<Integer>> buckets = new ArrayList<>();
+		for(int i = 0; i < bucketCount; ++i) {
+			buckets.add(new ArrayList<>());
+		}
+		for(int i = 0; i < keys.length; ++i) {
+			buckets.get(bucket(keys[i], bucketBits)).add(i);
+		}
+		//place the biggest buckets first while there is the most room
+		Integer[] order = new Integer[bucketCount];
+		for(int i = 0; i < bucketCount; ++i) {
+			order[i] = i;
+		}
+		Arrays.sort(order, (a, b) -> Integer.compare(buckets.get(b).size(), buckets.get(a).size()));
+		
+		int[] displacements = new int[bucketCount];
+		int[] slots = new int[1 << slotBits];
+		Arrays.fill(slots, -1);
+		int[] trial = new int[keys.length];
+		for(int b : order) {
+			ArrayList<Integer> bucket = buckets.get(b);
+			if(bucket.isEmpty()) {
+				break;
+			}
+			boolean placed = false;
+			for(int d = 0; d < MAX_DISPLACEMENT_TRIES && !placed; ++d) {
+				placed = true;
+				for(int j = 0; j < bucket.size() && placed; ++j) {
+					int s = slot(keys[bucket.get(j)], d, slotBits);
+					trial[j] = s;
+					if(slots[s] >= 0) {
+						placed = false;
+					}
+					for(int k = 0; k < j && placed; ++k) {
+						if(trial[k] == s) {
+							placed = false;
+						}
+					}
+				}
+				if(placed) {
+					displacements[b] = d;
+					for(int j = 0; j < bucket.size(); ++j) {
+						slots[trial[j]] = bucket.get(j);
+					}
+				}
+			}
+			if(!placed) {
+				return null;
+			}
+		}
+		return new MessageKeyHash(messages, keys, bucketBits, slotBits, displacements, slots);
+	}
+	private static int bitsFor(int n) {
+		return 32 - Integer.numberOfLeadingZeros(Math.max(1, n) - 1);
+	}
+	static int bucket(int key, int bucketBits) {
+		return (key * BUCKET_MULTIPLIER) >>> (32 - bucketBits);
+	}
+	static int slot(int key, int displacement, int slotBits) {
+		return ((key ^ displacement) * SLOT_MULTIPLIER) >>> (32 - slotBits);
+	}
+	/**
+	 * looks up the slot of a key the same way the generated code does
+	 * @param key
+	 * @return the slot or -1 if the key is not one of the hashed messages
+	 */
+	int lookup(int key) {
+		int s = slot(key, m_displacements[bucket(key, m_bucketBits)], m_slotBits);
+		return getKey(s) == key ? s : -1;
+	}
+	int getBucketShift() {
+		return 32 - m_bucketBits;
+	}
+	int getSlotShift() {
+		return 32 - m_slotBits;
+	}
+	int[] getDisplacements() {
+		return m_displacements.clone();
+	}
+	int getSlotCount() {
+		return m_slots.length;
+	}
+	/**
+	 * the message in the specified slot
+	 * @param slot
+	 * @return the message or null if the slot is empty
+	 */
+	MessageField getMessage(int slot) {
+		return m_slots[slot] < 0 ? null : m_messages.get(m_slots[slot]);
+	}
+	/**
+	 * the key to store in the specified slot of the generated table
+	 * Empty slots hold the key of the first message, which always hashes to a different slot, so a lookup can never match an empty slot.
+	 * @param slot
+	 * @return
+	 */
+	int getKey(int slot) {
+		return m_keys[Math.max(0, m_slots[slot])];
+	}
+}
@@ -0,0 +1,52 @@
+/*
+Copyright (c) 2026  Blue Robotics
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of
+this software and associated documentation files (the "Software"), to deal in
+the Software without restriction, including without limitation the rights to
+use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+of the Software, and to permit persons to whom the Software is furnished to do
+so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.bluerobotics.blueberry.schema.parser.writers;
+
+import java.io.IOException;
+
+import com.bluerobotics.blueberry.schema.parser.parsing.ParserIssueLogger;
+
+/**
+ * Somewhere for source writers to put the files they generate.
+ * Files can be written from several threads at once so implementations must be thread safe.
+ */
+public interface OutputSink {
+	/**
+	 * Called before a source writer generates a new set of files
+	 * @param name - identifies the writer, so that a sink shared by several writers can keep track of each one's files
+	 */
+	default void begin(String name) {
+	}
+	/**
+	 * stores a generated file
+	 * @param path - the path of the file, relative to the output location, with / as the separator
+	 * @param contents - the bytes of the file
+	 * @throws IOException
+	 */
+	void write(String path, byte[] contents) throws IOException;
+	/**
+	 * Called after a source writer has generated a complete set of files without errors
+	 * @param log - where to report anything of note
+	 */
+	default void finish(ParserIssueLogger log) {
+	}
+}
@@ -41,6 +41,9 @@ public class PrettyWriter extends SourceWriter {
 	public PrettyWriter(File dir, BlueberrySchemaParser parser, String header, ParserIssueLogger log) {
 		super(dir, parser, header, log);
 	}
+	public PrettyWriter(OutputSink sink, BlueberrySchemaParser parser, String header, ParserIssueLogger log) {
+		super(sink, parser, header, log);
+	}
 
 	@Override
 	public void write() {
@@ -21,17 +21,19 @@ THE SOFTWARE.
 */
 package com.bluerobotics.blueberry.schema.parser.writers;
 
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinTask;
 import java.util.function.Function;
 
 import com.bluerobotics.blueberry.schema.parser.constants.Number;
 import com.bluerobotics.blueberry.schema.parser.fields.ArrayField;
 import com.bluerobotics.blueberry.schema.parser.fields.BlueModule;
+import com.bluerobotics.blueberry.schema.parser.fields.EnumField;
 import com.bluerobotics.blueberry.schema.parser.fields.Field;
 import com.bluerobotics.blueberry.schema.parser.fields.MessageField;
 import com.bluerobotics.blueberry.schema.parser.fields.MultipleField.Index;
@@ -45,30 +47,35 @@ import com.bluerobotics.blueberry.schema.parser.parsing.BlueberrySchemaParser;
 import com.bluerobotics.blueberry.schema.parser.parsing.ParserIssueLogger;
 import com.bluerobotics.blueberry.schema.parser.parsing.SchemaParserException;
 import com.bluerobotics.blueberry.schema.parser.tokens.Annotation;
+import com.bluerobotics.blueberry.schema.parser.tokens.Coord;
 import com.bluerobotics.blueberry.schema.parser.types.TypeId;
 
 /**
  * This class provides useful functionality for generating source files, without any specific language implementation
  */
 public abstract class SourceWriter {
-	protected final File m_directory;
 	private static final String INDENT_STRING = "\t";
 	private final ParserIssueLogger m_log;
 
-	protected StringBuffer m_buffer = new StringBuffer();
 	protected final String m_fileHeader;
 	protected final BlueberrySchemaParser m_parser;
-	protected int m_indent = 0;
+	/**
+	 * The text of the file being generated and the current indent level.
+	 * Each thread has its own so that several files can be generated at the same time.
+	 */
+	private static final class Emission {
+		private StringBuilder buffer = new StringBuilder();
+		private int indent = 0;
+	}
+	private final ThreadLocal<Emission> m_emission = ThreadLocal.withInitial(Emission::new);
+	private final OutputSink m_sink;
+	private final ConcurrentHashMap<String, Coord> m_origins = new ConcurrentHashMap<>();//the schema location that each generated file came from
 
 	public SourceWriter(File dir, BlueberrySchemaParser parser, String header, ParserIssueLogger log) {
-		if(!dir.exists()) {
-			dir.mkdir();
-			m_directory = dir;
-		} else if(!dir.isDirectory()) {
-			throw new RuntimeException("Specified file location is not a directory!");
-		} else {
-			m_directory = dir;
-		}
+		this(new FileSink(dir), parser, header, log);
+	}
+	public SourceWriter(OutputSink sink, BlueberrySchemaParser parser, String header, ParserIssueLogger log) {
+		m_sink = sink;
 		m_parser = parser;
 		m_fileHeader = header;
 		m_log = log;
@@ -82,69 +89,97 @@ public abstract class SourceWriter {
 	 */
 	public abstract void write();
 
+	/**
+	 * Runs each of the specified tasks in its own emission context, spread over the available processors.
+	 * Each task should generate whole files so that the files produced don't depend on the order the tasks run in.
+	 * This returns once all tasks are done, even if some fail, and then rethrows the exception of the first task in the list that failed.
+	 * @param tasks
+	 */
+	protected void runTasks(List<Runnable> tasks) {
+		ArrayList<ForkJoinTask<?>> fs = new ArrayList<>();
+		for(Runnable r : tasks) {
+			ForkJoinTask<?> f = ForkJoinTask.adapt(() -> {
+				m_emission.set(new Emission());
+				try {
+					r.run();
+				} finally {
+					m_emission.remove();
+				}
+			});
+			f.fork();
+			fs.add(f);
+		}
+		Throwable first = null;
+		for(ForkJoinTask<?> f : fs) {
+			f.quietlyJoin();
+			if(first == null) {
+				first = f.getException();
+			}
+		}
+		if(first instanceof RuntimeException) {
+			throw (RuntimeException)first;
+		} else if(first instanceof Error) {
+			throw (Error)first;
+		} else if(first != null) {
+			throw new RuntimeException(first);
+		}
+	}
+
 	protected void indent() {
-		++m_indent;
+		++m_emission.get().indent;
 	}
 	protected void outdent() {
-		--m_indent;
+		--m_emission.get().indent;
 	}
 	protected void closeBrace() {
 		outdent();
 		addLine("}");
 	}
+	/**
+	 * sends the text generated so far to the output sink
+	 * @param name - the path of the file, relative to the output location
+	 */
 	protected void writeToFile(String name) {
-		//split the directory path and the name path into chunks
-		String[] ds = m_directory.getAbsolutePath().substring(1).split("/");
-		String[] ns = name.split("/");
-		
-		int dn = ds.length;
-		int nn = ns.length;
-		int found = -1;
-		//now match them by chunk
-		for(int di = 0; di < dn; ++di) {
-			boolean match = true;
-			for(int ni = 0; ni < nn && (di + ni ) < dn; ++ni) {
-					if(!ds[di + ni].equals(ns[ni])) {
-						match = false;
-						break;
-					}
-			}
-			if(match) {
-				found = di;
-				break;
-			}
-		}
-		File f = new File(m_directory, name);
-		if(found >= 0) {
-			//we found a match so concatenate
-			int n = found + nn;
-			String an = "";
-			for(int i = 0; i < n; ++i) {
-				if(i < found) {
-					an += "/"+ds[i];
-				} else {
-					an += "/"+ns[i - found];
-				}
-			}
-			f = new File(an);
-		}
-		
-		
-		File p = f.getParentFile();
-		if(!p.exists()) {
-			p.mkdirs();
+		writeToFile(name, null);
+	}
+	/**
+	 * sends the text generated so far to the output sink and notes which part of the schema it came from
+	 * @param name - the path of the file, relative to the output location
+	 * @param origin - where in the schema the contents of the file were defined
+	 */
+	protected void writeToFile(String name, Coord origin) {
+		if(origin != null) {
+			m_origins.put(name, origin);
 		}
-		BufferedWriter w = null;
+		byte[] bs = getBuffer().toString().getBytes(Charset.defaultCharset());
 		try {
-			w = new BufferedWriter(new FileWriter(f));
-			w.append(getBuffer());
-			w.close();
+			m_sink.write(name, bs);
 		} catch (IOException e) {
 			// TODO Auto-generated catch block
 			e.printStackTrace();
 		}
-
-
+	}
+	/**
+	 * Should be called before generating a new set of files.
+	 */
+	protected void startOutput() {
+		m_origins.clear();
+		m_sink.begin(getClass().getSimpleName().toLowerCase());
+	}
+	/**
+	 * looks up where in the schema a generated file came from
+	 * @param path - the path of the file, as passed to the output sink
+	 * @return the location of the message or module that the file was made from, or null if not known
+	 */
+	public Coord getOrigin(String path) {
+		return m_origins.get(path);
+	}
+	/**
+	 * Should be called after a complete set of files has been generated without errors.
+	 * This lets the sink tidy up, e.g. by removing files that are no longer generated.
+	 */
+	protected void finishOutput() {
+		m_sink.finish(m_log);
 	}
 	protected void startFile(BlueModule m, String... hs) {
 		clear();
@@ -154,21 +189,21 @@ public abstract class SourceWriter {
 		addSectionDivider("ATTENTION! THIS FILE WAS AUTOGENERATED BY THE BLUEBERRY SCHEMA PARSER.\nIt's probably not a good idea to modify it. :-P", true);
 	}
 	protected void add(String s) {
-		m_buffer.append(s);
+		m_emission.get().buffer.append(s);
 	}
 	protected void clear() {
-		m_buffer = new StringBuffer();
+		m_emission.get().buffer = new StringBuilder();
 	}
 	protected void addLine(){
 		add("\n");
 
 	}
 	protected void addIndent(){
-		add(INDENT_STRING.repeat(m_indent));
+		add(INDENT_STRING.repeat(m_emission.get().indent));
 
 	}
-	protected StringBuffer getBuffer() {
-		return m_buffer;
+	protected StringBuilder getBuffer() {
+		return m_emission.get().buffer;
 	}
 	/**
 	 * adds the specified line and adds indents as appropriate
@@ -361,7 +396,79 @@ public abstract class SourceWriter {
 
 		return WriterUtils.formatAsHex(k);
 	}
+	/**
+	 * hashes the keys of the messages of all the specified modules so that a message dispatcher can be written
+	 * @param modules
+	 * @param messages - gets filled with the messages, in module order
+	 * @param owners - gets filled with the module of each message
+	 * @return the hash or null if there are no messages or if any messages share a key
+	 */
+	protected MessageKeyHash makeMessageKeyHash(List<BlueModule> modules, List<MessageField> messages, List<BlueModule> owners) {
+		for(BlueModule m : modules) {
+			m.getMessages().forEachOfType(MessageField.class, false, mf -> {
+				messages.add(mf);
+				owners.add(m);
+			});
+		}
+		if(messages.isEmpty()) {
+			return null;
+		}
+		MessageKeyHash result = MessageKeyHash.make(messages);
+		if(result == null) {
+			m_log.issueError("Cannot write a message dispatcher because some messages have the same module/message key.");
+		}
+		return result;
+	}
 
+	/**
+	 * checks if a field is a number in an array that can be copied to or from a primitive array in one go
+	 * i.e. its innermost index is an array dimension and it is not a boolean, enum or string
+	 * @param f
+	 * @return
+	 */
+	protected boolean isBulkCopyable(Field f) {
+		List<Index> pis = f.getIndexChain();
+		boolean result = f.getParent() instanceof ArrayField && !pis.isEmpty() && pis.getLast().arrayNotSequence;
+		result &= f.getBitCount() > 1 && f.getTypeId() != TypeId.STRING && !(f instanceof EnumField);
+		return result;
+	}
+	/**
+	 * makes a copy of the index chain of a field where the innermost array dimension has an index of zero
+	 * This is used to find the start of a row of elements that can be copied in one go
+	 * @param f
+	 * @return
+	 */
+	protected List<Index> makeRowStartIndexChain(Field f) {
+		ArrayList<Index> result = new ArrayList<>(f.getIndexChain());
+		result.set(result.size() - 1, result.getLast().withParamName("0"));
+		return result;
+	}
+	/**
+	 * finds the position of the innermost sequence in an index chain
+	 * @param pis
+	 * @return the position in the chain, or -1 if there are no sequences in it
+	 */
+	protected int indexOfInnermostSequence(List<Index> pis) {
+		int result = -1;
+		for(int j = 0; j < pis.size(); ++j) {
+			if(!pis.get(j).arrayNotSequence) {
+				result = j;
+			}
+		}
+		return result;
+	}
+	/**
+	 * checks if a field can be reached from a cursor over the specified sequence
+	 * i.e. the sequence is the innermost sequence that the field is part of
+	 * @param f
+	 * @param sf
+	 * @return
+	 */
+	protected boolean isCursorMember(Field f, SequenceField sf) {
+		List<Index> pis = f.getIndexChain();
+		int j = indexOfInnermostSequence(pis);
+		return j >= 0 && pis.get(j).p == sf;
+	}
 	protected String getFieldComment(Field f) {
 		String result = "";
 		if(f.getComment() != null) {
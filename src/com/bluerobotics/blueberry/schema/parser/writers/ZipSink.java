@@ -0,0 +1,89 @@
+/*
+Copyright (c) 2026  Blue Robotics
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of
+this software and associated documentation files (the "Software"), to deal in
+the Software without restriction, including without limitation the rights to
+use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+of the Software, and to permit persons to whom the Software is furnished to do
+so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.bluerobotics.blueberry.schema.parser.writers;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import com.bluerobotics.blueberry.schema.parser.parsing.ParserIssueLogger;
+
+/**
+ * An output sink that streams all generated files into a single zip archive.
+ * A jar is a zip archive too, so this can also be used to make a jar of generated Java sources.
+ * The files of each writer are held until it finishes and then added in order of their paths, and they all get the same timestamp,
+ * so the archive is the same whatever order the files were generated in, e.g. in parallel.
+ * The archive is only complete once this has been closed.
+ */
+public class ZipSink implements OutputSink, Closeable {
+	private static final LocalDateTime ENTRY_TIME = LocalDateTime.of(1980, 1, 1, 0, 0);//the earliest time a zip entry can have
+	private final ZipOutputStream m_zip;
+	/**
+	 * the files written since begin was called, sorted by path
+	 */
+	private final TreeMap<String, byte[]> m_pending = new TreeMap<>();
+	
+	public ZipSink(OutputStream out) {
+		m_zip = new ZipOutputStream(out);
+	}
+	public ZipSink(File f) throws IOException {
+		this(new BufferedOutputStream(new FileOutputStream(f)));
+	}
+
+	@Override
+	public synchronized void begin(String name) {
+		m_pending.clear();
+	}
+	@Override
+	public synchronized void write(String path, byte[] contents) throws IOException {
+		m_pending.put(path, contents);
+	}
+	@Override
+	public synchronized void finish(ParserIssueLogger log) {
+		int n = m_pending.size();
+		try {
+			for(Map.Entry<String, byte[]> me : m_pending.entrySet()) {
+				ZipEntry e = new ZipEntry(me.getKey());
+				e.setTimeLocal(ENTRY_TIME);
+				m_zip.putNextEntry(e);
+				m_zip.write(me.getValue());
+				m_zip.closeEntry();
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		m_pending.clear();
+		log.issueNote("Added "+n+" files to archive.");
+	}
+	@Override
+	public synchronized void close() throws IOException {
+		m_zip.close();
+	}
+}
@@ -0,0 +1,111 @@
+/*
+Copyright (c) 2026  Blue Robotics
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of
+this software and associated documentation files (the "Software"), to deal in
+the Software without restriction, including without limitation the rights to
+use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+of the Software, and to permit persons to whom the Software is furnished to do
+so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.bluerobotics.blueberry.schema.parser;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.bluerobotics.blueberry.schema.parser.fields.BlueModule;
+import com.bluerobotics.blueberry.schema.parser.fields.Field;
+import com.bluerobotics.blueberry.schema.parser.parsing.BlueberrySchemaParser;
+import com.bluerobotics.blueberry.schema.parser.parsing.ParserIssueLogger;
+import com.bluerobotics.blueberry.schema.parser.tokens.Coord;
+import com.bluerobotics.blueberry.schema.parser.tokens.SchemaText;
+
+/**
+ * Helpers for loading the schemas that are bundled with the parser in tests
+ */
+public class TestSchemas {
+	/**
+	 * the schema files in the resources folder
+	 */
+	public static final String[] BUNDLED = {"blueberrySchema.txt", "brPacketPretty..txt"};
+	/**
+	 * the schema files in the test schemas folder
+	 */
+	public static final String[] SAMPLES = {"sample.bsd"};
+	/**
+	 * the schema file in the test schemas folder with messages that are packed compactly
+	 */
+	public static final String COMPACT = "compact.bsd";
+	
+	private TestSchemas() {}
+	/**
+	 * reads a schema from the resources folder
+	 * @param name - the file name of the schema
+	 * @return the schema text
+	 * @throws IOException
+	 */
+	public static SchemaText bundled(String name) throws IOException {
+		return load("/com/bluerobotics/blueberry/schema/parser/resources/", name);
+	}
+	/**
+	 * reads a schema from the test schemas folder
+	 * @param name - the file name of the schema
+	 * @return the schema text
+	 * @throws IOException
+	 */
+	public static SchemaText sample(String name) throws IOException {
+		return load("/com/bluerobotics/blueberry/schema/parser/testschemas/", name);
+	}
+	private static SchemaText load(String folder, String name) throws IOException {
+		try(InputStream in = TestSchemas.class.getResourceAsStream(folder+name)) {
+			if(in == null) {
+				throw new IOException("Missing schema "+name);
+			}
+			BufferedReader r = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+			return SchemaText.of(name, r.lines().toArray(String[]::new));
+		}
+	}
+	/**
+	 * makes a parser that records its issues in the specified logger and does not print anything
+	 * @return
+	 */
+	public static BlueberrySchemaParser makeParser() {
+		return new BlueberrySchemaParser(new ParserIssueLogger((s, t) -> {}));
+	}
+	/**
+	 * describes the parsed model of a parser one line per module, constant, annotation and field, so that two models can be compared
+	 * @param p
+	 * @return
+	 */
+	public static List<String> dumpModel(BlueberrySchemaParser p) {
+		ArrayList<String> result = new ArrayList<>();
+		for(BlueModule m : p.getModules()) {
+			result.add("module "+m);
+			m.getConstants().forEach(c -> result.add("const "+c.getName()+" = "+c.getValue()+" "+c.getComment()));
+			m.scanAnnotations(a -> result.add("annotation "+a));
+			m.getDefines().forEach(true, f -> result.add("define "+describe(f)));
+			m.getMessages().forEach(true, f -> result.add("message "+describe(f)+" index "+f.getIndex()+" ordinal "+f.getOrdinal()+" bits "+f.getBitCount()));
+		}
+		return result;
+	}
+	private static String describe(Field f) {
+		Coord c = f.getCoord();
+		return f+" "+f.getTypeId()+" "+f.getTypeName()+" "+f.getComment()+" "+(c == null ? "null" : c.line+":"+c.index);
+	}
+}
@@ -0,0 +1,268 @@
+/*
+Copyright (c) 2026  Blue Robotics
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of
+this software and associated documentation files (the "Software"), to deal in
+the Software without restriction, including without limitation the rights to
+use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+of the Software, and to permit persons to whom the Software is furnished to do
+so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.bluerobotics.blueberry.schema.parser.fields;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.bluerobotics.blueberry.schema.parser.TestSchemas;
+import com.bluerobotics.blueberry.schema.parser.parsing.BlueberrySchemaParser;
+import com.bluerobotics.blueberry.schema.parser.parsing.ParserIssueLogger;
+import com.bluerobotics.blueberry.schema.parser.tokens.SchemaText;
+
+/**
+ * Checks that the packer places every field where a plain first fit search over a list of used bytes would place it
+ * and that compact packing keeps structs in one piece
+ */
+public class BlueberryFieldPackerTest {
+	private static final String[] BASE_TYPES = {"uint8", "int8", "uint16", "int16", "uint32", "int32", "float", "uint64", "int64", "double", "boolean"};
+	
+	/**
+	 * The original packing algorithm: every aligned offset from the start is tried until one is found with all of its bytes unused
+	 */
+	private static class ReferencePacker {
+		private final ArrayList<Boolean> m_used = new ArrayList<>();
+		private final IdentityHashMap<Field, Integer> m_indeces;
+		ReferencePacker(IdentityHashMap<Field, Integer> indeces) {
+			m_indeces = indeces;
+		}
+		void pack(Field f) {
+			if(f instanceof StructField || f instanceof MessageField) {
+				((ParentField)f).getChildren().forEach(ft -> pack(ft));
+				m_indeces.put(f, m_indeces.get(((ParentField)f).getFirstChild()));
+			} else if(f instanceof DefinedTypeField) {
+				Field c = ((DefinedTypeField)f).getFirstChild();
+				pack(c);
+				m_indeces.put(f, m_indeces.get(c));
+			} else if(f instanceof SequenceField || f instanceof ArrayField) {
+				new ReferencePacker(m_indeces).pack(((ParentField)f).getFirstChild());
+				assign(f);
+			} else {
+				assign(f);
+			}
+		}
+		private void assign(Field f) {
+			int n = f.getByteCount();
+			int a = f.getMinAlignment();
+			int i = 0;
+			while(n > 0 && !isFree(i, n)) {
+				i += a;
+			}
+			for(int j = i; j < i + n; ++j) {
+				while(m_used.size() <= j) {
+					m_used.add(false);
+				}
+				m_used.set(j, true);
+			}
+			m_indeces.put(f, i);
+		}
+		private boolean isFree(int i, int n) {
+			boolean result = true;
+			for(int j = i; j < i + n && j < m_used.size(); ++j) {
+				result &= !m_used.get(j);
+			}
+			return result;
+		}
+	}
+	
+	@Test
+	public void bundledSchemasPackLikeReference() throws IOException {
+		for(String name : TestSchemas.BUNDLED) {
+			checkOffsets(name, TestSchemas.bundled(name), false);
+		}
+		for(String name : TestSchemas.SAMPLES) {
+			assertTrue(checkOffsets(name, TestSchemas.sample(name), true) > 0, name);
+		}
+	}
+	@Test
+	public void randomMessagesPackLikeReference() {
+		Random r = new Random(0x626c7565L);
+		for(int i = 0; i < 20; ++i) {
+			ArrayList<String> lines = new ArrayList<>();
+			lines.add("module rnd {");
+			lines.add("	typedef sequence<uint16> Samples;");
+			lines.add("	typedef uint8 Bytes[3];");
+			for(int s = 0; s < 3; ++s) {
+				lines.add("	struct S"+s+" {");
+				int fields = 1 + r.nextInt(4);
+				for(int j = 0; j < fields; ++j) {
+					lines.add("		"+BASE_TYPES[r.nextInt(BASE_TYPES.length)]+" f"+j+";");
+				}
+				lines.add("	};");
+			}
+			lines.add("	module m"+i+" {");
+			lines.add("		import rnd;");
+			for(int m = 0; m < 10; ++m) {
+				lines.add("		@topic(\"t"+m+"\")");
+				lines.add("		message M"+m+" {");
+				int fields = 1 + r.nextInt(14);
+				for(int j = 0; j < fields; ++j) {
+					lines.add("			"+randomField(r)+" f"+j+";");
+				}
+				lines.add("		};");
+			}
+			lines.add("	};");
+			lines.add("};");
+			SchemaText text = SchemaText.of("random"+i+".bsd", lines.toArray(new String[lines.size()]));
+			assertTrue(checkOffsets(text.getPath(), text, true) > 0, text.getPath());
+		}
+	}
+	/**
+	 * the parser falls back to declaration order when that is smaller, so this packs compactly directly
+	 */
+	@Test
+	public void compactStructsAreContiguous() throws IOException {
+		BlueberrySchemaParser p = parse(TestSchemas.COMPACT, TestSchemas.sample(TestSchemas.COMPACT), true);
+		int[] compact = new int[1];
+		p.getMessages().forEachOfType(MessageField.class, false, mf -> {
+			if(mf.useCompactPacking()) {
+				BlueberryFieldPacker.packCompact(mf, mf.getCompactFieldCount());
+				checkContiguous(mf);
+				++compact[0];
+			}
+		});
+		assertEquals(4, compact[0]);
+	}
+	/**
+	 * keeping structs whole can make compact packing larger than declaration order, in which case declaration order should be kept
+	 */
+	@Test
+	public void compactIsNeverLarger() throws IOException {
+		BlueberrySchemaParser p = parse(TestSchemas.COMPACT, TestSchemas.sample(TestSchemas.COMPACT), true);
+		HashMap<String, Integer> compact = new HashMap<>();
+		int[] smaller = new int[1];
+		p.getMessages().forEachOfType(MessageField.class, false, mf -> {
+			int n = mf.getPaddedByteCount();
+			compact.put(mf.getTopic(), n);
+			BlueberryFieldPacker.pack(mf);
+			assertTrue(n <= mf.getPaddedByteCount(), mf.getTopic()+" "+n+" > "+mf.getPaddedByteCount());
+			if(n < mf.getPaddedByteCount()) {
+				++smaller[0];
+			}
+		});
+		assertTrue(compact.containsKey("all"));
+		assertTrue(compact.containsKey("structs"));
+		assertTrue(smaller[0] > 0);
+	}
+	/**
+	 * checks that no two fields overlap and that the fields of each struct or defined type lie within it and nothing else does
+	 * @param pf
+	 */
+	private static void checkContiguous(ParentField pf) {
+		List<Field> cs = pf.getChildren().getList();
+		for(Field c : cs) {
+			int start = c.getIndex();
+			int end = start + c.getByteCount();
+			if(isCompound(c)) {
+				for(Field leaf : leaves(c)) {
+					assertTrue(leaf.getIndex() >= start && leaf.getNextIndex() <= end, c+" does not contain "+leaf);
+				}
+				checkContiguous((ParentField)c);
+			}
+			for(Field other : cs) {
+				if(other != c) {
+					for(Field leaf : leaves(other)) {
+						assertTrue(leaf.getNextIndex() <= start || leaf.getIndex() >= end || leaf.getByteCount() == 0, leaf+" overlaps "+c);
+					}
+				}
+			}
+		}
+	}
+	private static boolean isCompound(Field f) {
+		return f instanceof StructField || f instanceof DefinedTypeField;
+	}
+	/**
+	 * the fields that take up bytes directly in a struct or defined type
+	 */
+	private static List<Field> leaves(Field f) {
+		ArrayList<Field> result = new ArrayList<>();
+		if(isCompound(f)) {
+			((ParentField)f).getChildren().forEach(ft -> result.addAll(leaves(ft)));
+		} else {
+			result.add(f);
+		}
+		return result;
+	}
+	private static String randomField(Random r) {
+		String result;
+		switch(r.nextInt(8)) {
+		case 0:
+			result = "S"+r.nextInt(3);
+			break;
+		case 1:
+			result = "Samples";
+			break;
+		case 2:
+			result = "Bytes";
+			break;
+		case 3:
+			result = "string<"+(1 + r.nextInt(12))+">";
+			break;
+		default:
+			result = BASE_TYPES[r.nextInt(BASE_TYPES.length)];
+			break;
+		}
+		return result;
+	}
+	/**
+	 * parses a schema and checks the index of every field of every message
+	 * @param wellFormed - true if the schema should parse without errors
+	 * @return the number of messages checked
+	 */
+	private static int checkOffsets(String name, SchemaText text, boolean wellFormed) {
+		BlueberrySchemaParser p = parse(name, text, wellFormed);
+		int[] result = new int[1];
+		p.getMessages().forEachOfType(MessageField.class, false, mf -> {
+			IdentityHashMap<Field, Integer> expected = new IdentityHashMap<>();
+			new ReferencePacker(expected).pack(mf);
+			mf.getChildren().forEach(true, f -> {
+				if(expected.containsKey(f)) {
+					assertEquals(expected.get(f).intValue(), f.getIndex(), name+" "+mf+" "+f);
+				}
+			});
+			++result[0];
+		});
+		return result[0];
+	}
+	/**
+	 * parses a schema
+	 * @param wellFormed - true if the schema should parse without errors
+	 */
+	private static BlueberrySchemaParser parse(String name, SchemaText text, boolean wellFormed) {
+		ParserIssueLogger log = new ParserIssueLogger((s, t) -> {});
+		BlueberrySchemaParser p = new BlueberrySchemaParser(log);
+		p.append(text);
+		p.parse();
+		assertFalse(wellFormed && log.isError(), name+" "+log.getIssues());
+		return p;
+	}
+}
@@ -0,0 +1,92 @@
+/*
+Copyright (c) 2026  Blue Robotics
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of
+this software and associated documentation files (the "Software"), to deal in
+the Software without restriction, including without limitation the rights to
+use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+of the Software, and to permit persons to whom the Software is furnished to do
+so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.bluerobotics.blueberry.schema.parser.fields;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.bluerobotics.blueberry.schema.parser.TestSchemas;
+import com.bluerobotics.blueberry.schema.parser.parsing.BlueberrySchemaParser;
+
+/**
+ * Checks that the cached lookups of a field list are only dropped by changes to it or to the lists below it
+ */
+public class FieldListTest {
+	@Test
+	public void temporaryListsDoNotDropCachedLookups() throws IOException {
+		MessageField mf = getMessage("temp");
+		FieldList fs = mf.getChildren();
+		List<Field> before = fs.getOfType(BaseField.class, true);
+		assertSame(before, fs.getOfType(BaseField.class, true));
+		
+		//the same kind of churn as the writers make
+		FieldList sorted = fs.makeListSortedByName();
+		FieldList copy = fs.duplicate();
+		copy.remove(copy.getFirst());
+		FieldList fresh = new FieldList();
+		fs.forEach(f -> fresh.add(f));
+		sorted.sortByName();
+		
+		assertSame(before, fs.getOfType(BaseField.class, true));
+	}
+	@Test
+	public void nestedChangesDropCachedLookups() throws IOException {
+		MessageField mf = getMessage("temp");
+		FieldList fs = mf.getChildren();
+		StructField where = null;
+		for(Field f : fs.getList()) {
+			if(f instanceof StructField) {
+				where = (StructField)f;
+			}
+		}
+		assertNotNull(where);
+		List<Field> before = fs.getOfType(BaseField.class, true);
+		Field x = where.getFirstChild();
+		assertTrue(before.contains(x));
+		
+		where.getChildren().remove(x);
+		List<Field> after = fs.getOfType(BaseField.class, true);
+		assertNotSame(before, after);
+		assertFalse(after.contains(x));
+	}
+	private static MessageField getMessage(String topic) throws IOException {
+		BlueberrySchemaParser p = TestSchemas.makeParser();
+		p.append(TestSchemas.sample("sample.bsd"));
+		p.parse();
+		MessageField[] result = new MessageField[1];
+		p.getMessages().forEachOfType(MessageField.class, false, mf -> {
+			if(topic.equals(mf.getTopic())) {
+				result[0] = mf;
+			}
+		});
+		assertNotNull(result[0]);
+		return result[0];
+	}
+}
@@ -0,0 +1,81 @@
+/*
+Copyright (c) 2026  Blue Robotics
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of
+this software and associated documentation files (the "Software"), to deal in
+the Software without restriction, including without limitation the rights to
+use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+of the Software, and to permit persons to whom the Software is furnished to do
+so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.bluerobotics.blueberry.schema.parser.fields;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.lang.ref.WeakReference;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the interning of symbol and scope names
+ */
+public class SymbolNameTest {
+	@Test
+	public void sameNameGivesSameInstance() {
+		SymbolName a = SymbolName.fromSnake("some_long_name");
+		SymbolName b = SymbolName.fromSnake("some_long_name");
+		assertSame(a, b);
+		
+		ScopeName sa = ScopeName.ROOT.addLevelBelow(a);
+		ScopeName sb = ScopeName.ROOT.addLevelBelow(b);
+		assertSame(sa, sb);
+	}
+	@Test
+	public void differentCaseIsEqual() {
+		SymbolName snake = SymbolName.fromSnake("other_long_name");
+		SymbolName camel = SymbolName.fromCamel("OtherLongName");
+		assertNotSame(snake, camel);
+		assertEquals(snake, camel);
+		assertEquals(snake.hashCode(), camel.hashCode());
+		assertEquals("other_long_name", snake.toString());
+	}
+	@Test
+	public void unusedNamesAreCollected() throws InterruptedException {
+		WeakReference<SymbolName> name = new WeakReference<>(SymbolName.fromSnake("unused_name_" + System.nanoTime()));
+		WeakReference<ScopeName> scope = new WeakReference<>(ScopeName.ROOT.addLevelBelow(SymbolName.fromSnake("unused_scope_" + System.nanoTime())));
+		for(int i = 0; i < 100 && (name.get() != null || scope.get() != null); ++i) {
+			System.gc();
+			Thread.sleep(10);
+		}
+		assertNull(name.get());
+		assertNull(scope.get());
+	}
+	@Test
+	public void equalityOutlivesCollectedNames() throws InterruptedException {
+		String s = "reused_name_" + System.nanoTime();
+		WeakReference<SymbolName> first = new WeakReference<>(SymbolName.fromSnake(s));
+		first.get().hashCode();
+		for(int i = 0; i < 100 && first.get() != null; ++i) {
+			System.gc();
+			Thread.sleep(10);
+		}
+		SymbolName a = SymbolName.fromSnake(s);
+		SymbolName b = SymbolName.fromCamel(a.toUpperCamelString());
+		assertEquals(a, b);
+		assertSame(a, SymbolName.fromSnake(s));
+	}
+}
@@ -0,0 +1,127 @@
+/*
+Copyright (c) 2026  Blue Robotics
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of
+this software and associated documentation files (the "Software"), to deal in
+the Software without restriction, including without limitation the rights to
+use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+of the Software, and to permit persons to whom the Software is furnished to do
+so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.bluerobotics.blueberry.schema.parser.parsing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.bluerobotics.blueberry.schema.parser.TestSchemas;
+import com.bluerobotics.blueberry.schema.parser.fields.AbstractField;
+import com.bluerobotics.blueberry.schema.parser.tokens.SchemaText;
+import com.bluerobotics.blueberry.schema.parser.types.TypeId;
+
+/**
+ * Checks that the recursive descent front end builds the same model and reports the same issues as the collapsing front end
+ */
+public class FrontEndEquivalenceTest {
+	private static final String[] MALFORMED = {
+		"module bad {",
+		"	module inner {",
+		"		message NoBrace",
+		"		struct { uint8 x; };",
+		"		enum Q { A, A };",
+		"		@topic(\"x\") @topic(\"y\")",
+		"		message Dup { uint8 x; ;",
+		"	};",
+	};
+
+	private static final String[] LONG_LONG = {
+		"module wide {",
+		"	module ints {",
+		"		@topic(\"wide\")",
+		"		message Wide {",
+		"			long long signedBig;",
+		"			unsigned long long big;",
+		"			long   long spaced;",
+		"		};",
+		"	};",
+		"};",
+	};
+
+	@Test
+	public void longLongIsSigned64Bit() {
+		for(BlueberrySchemaParser.FrontEnd fe : BlueberrySchemaParser.FrontEnd.values()) {
+			ParserIssueLogger log = new ParserIssueLogger((s, t) -> {});
+			BlueberrySchemaParser p = new BlueberrySchemaParser(log);
+			p.setFrontEnd(fe);
+			p.append(SchemaText.of("wide.bsd", LONG_LONG));
+			p.parse();
+			
+			HashMap<String, TypeId> types = new HashMap<>();
+			p.getMessages().forEach(true, f -> {
+				if(f instanceof AbstractField && ((AbstractField)f).getName() != null) {
+					types.put(((AbstractField)f).getName().toLowerCamelString(), f.getTypeId());
+				}
+			});
+			assertEquals(TypeId.INT64, types.get("signedBig"), fe.name());
+			assertEquals(TypeId.UINT64, types.get("big"), fe.name());
+			assertEquals(TypeId.INT64, types.get("spaced"), fe.name());
+		}
+	}
+	@Test
+	public void bundledSchemasParseIdentically() throws IOException {
+		for(String name : TestSchemas.BUNDLED) {
+			SchemaText text = TestSchemas.bundled(name);
+			compare(name, text);
+		}
+	}
+	@Test
+	public void sampleSchemasParseIdentically() throws IOException {
+		for(String name : TestSchemas.SAMPLES) {
+			compare(name, TestSchemas.sample(name));
+		}
+	}
+	@Test
+	public void malformedSchemaParsesIdentically() {
+		compare("malformed", SchemaText.of("bad.bsd", MALFORMED));
+	}
+	
+	private static void compare(String name, SchemaText text) {
+		Result collapse = parse(BlueberrySchemaParser.FrontEnd.COLLAPSE, text);
+		Result descent = parse(BlueberrySchemaParser.FrontEnd.DESCENT, text);
+		assertEquals(collapse.issues, descent.issues, name+" issues");
+		assertEquals(collapse.model, descent.model, name+" model");
+	}
+	private static Result parse(BlueberrySchemaParser.FrontEnd fe, SchemaText text) {
+		ParserIssueLogger log = new ParserIssueLogger((s, t) -> {});
+		BlueberrySchemaParser p = new BlueberrySchemaParser(log);
+		p.setFrontEnd(fe);
+		p.append(text);
+		p.parse();
+		
+		Result result = new Result();
+		log.getIssues().forEach(pi -> result.issues.add(pi.toString()));
+		result.model.addAll(TestSchemas.dumpModel(p));
+		return result;
+	}
+	
+	private static class Result {
+		final List<String> issues = new ArrayList<>();
+		final List<String> model = new ArrayList<>();
+	}
+}
@@ -0,0 +1,65 @@
+/*
+Copyright (c) 2026  Blue Robotics
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of
+this software and associated documentation files (the "Software"), to deal in
+the Software without restriction, including without limitation the rights to
+use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+of the Software, and to permit persons to whom the Software is furnished to do
+so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.bluerobotics.blueberry.schema.parser.parsing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+
+import com.bluerobotics.blueberry.schema.parser.TestSchemas;
+import com.bluerobotics.blueberry.schema.parser.tokens.Coord;
+import com.bluerobotics.blueberry.schema.parser.tokens.Token;
+
+/**
+ * Checks that the cursor based scanner produces exactly the same tokens as the original Coord based lexer
+ */
+public class LexerEquivalenceTest {
+	
+	@Test
+	public void bundledSchemasLexIdentically() throws IOException {
+		for(String name : TestSchemas.BUNDLED) {
+			BlueberrySchemaParser scanner = TestSchemas.makeParser();
+			scanner.setLexer(BlueberrySchemaParser.Lexer.SCANNER);
+			scanner.append(TestSchemas.bundled(name));
+			
+			BlueberrySchemaParser coord = TestSchemas.makeParser();
+			coord.setLexer(BlueberrySchemaParser.Lexer.COORD);
+			coord.append(TestSchemas.bundled(name));
+			
+			Token[] expected = coord.getTokens();
+			Token[] actual = scanner.getTokens();
+			assertEquals(expected.length, actual.length, name+" token count");
+			for(int i = 0; i < expected.length; ++i) {
+				String where = name+" token "+i;
+				assertEquals(expected[i].getClass(), actual[i].getClass(), where);
+				assertEquals(expected[i].toString(), actual[i].toString(), where);
+				assertEquals(describe(expected[i].getStart()), describe(actual[i].getStart()), where+" start");
+				assertEquals(describe(expected[i].getEnd()), describe(actual[i].getEnd()), where+" end");
+			}
+		}
+	}
+	private static String describe(Coord c) {
+		return c == null ? "null" : c.filePath+":"+c.line+":"+c.index;
+	}
+}
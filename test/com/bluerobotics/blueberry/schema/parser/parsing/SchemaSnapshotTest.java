@@ -0,0 +1,99 @@
+/*
+Copyright (c) 2026  Blue Robotics
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of
+this software and associated documentation files (the "Software"), to deal in
+the Software without restriction, including without limitation the rights to
+use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+of the Software, and to permit persons to whom the Software is furnished to do
+so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.bluerobotics.blueberry.schema.parser.parsing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.bluerobotics.blueberry.schema.parser.TestSchemas;
+import com.bluerobotics.blueberry.schema.parser.fields.BlueModule;
+import com.bluerobotics.blueberry.schema.parser.tokens.Annotation;
+import com.bluerobotics.blueberry.schema.parser.tokens.Coord;
+import com.bluerobotics.blueberry.schema.parser.tokens.SchemaText;
+
+/**
+ * Checks that a model survives a round trip through a snapshot file and that unexpected snapshot contents are rejected
+ */
+public class SchemaSnapshotTest {
+	@TempDir
+	Path m_dir;
+	
+	@Test
+	public void loadedModelMatchesParsedModel() throws IOException {
+		for(String name : TestSchemas.SAMPLES) {
+			List<SchemaText> inputs = List.of(TestSchemas.sample(name));
+			File f = m_dir.resolve(name + SchemaSnapshot.FILE_EXTENSION).toFile();
+			
+			ParserIssueLogger parsedLog = new ParserIssueLogger((s, t) -> {});
+			BlueberrySchemaParser parsed = new BlueberrySchemaParser(parsedLog);
+			parsed.appendAll(inputs);
+			parsed.parse();
+			parsed.writeSnapshot(f, inputs);
+			
+			ParserIssueLogger loadedLog = new ParserIssueLogger((s, t) -> {});
+			BlueberrySchemaParser loaded = new BlueberrySchemaParser(loadedLog);
+			assertTrue(loaded.loadSnapshot(f, inputs), name);
+			assertEquals(TestSchemas.dumpModel(parsed), TestSchemas.dumpModel(loaded), name);
+			assertEquals(parsedLog.getIssues().toString(), loadedLog.getIssues().toString(), name);
+		}
+	}
+	@Test
+	public void changedInputIsStale() throws IOException {
+		String name = TestSchemas.SAMPLES[0];
+		List<SchemaText> inputs = List.of(TestSchemas.sample(name));
+		File f = m_dir.resolve("stale" + SchemaSnapshot.FILE_EXTENSION).toFile();
+		BlueberrySchemaParser parsed = TestSchemas.makeParser();
+		parsed.appendAll(inputs);
+		parsed.parse();
+		parsed.writeSnapshot(f, inputs);
+		
+		List<SchemaText> changed = List.of(SchemaText.of(name, new String[] {"module changed {", "};"}));
+		assertFalse(TestSchemas.makeParser().loadSnapshot(f, changed));
+	}
+	@Test
+	public void classesOutsideTheModelAreRejected() throws IOException {
+		String name = TestSchemas.SAMPLES[0];
+		List<SchemaText> inputs = List.of(TestSchemas.sample(name));
+		File f = m_dir.resolve("foreign" + SchemaSnapshot.FILE_EXTENSION).toFile();
+		BlueberrySchemaParser parsed = TestSchemas.makeParser();
+		parsed.appendAll(inputs);
+		parsed.parse();
+		BlueModule m = parsed.getModules().get(parsed.getModules().size() - 1);
+		Annotation a = new Annotation(m.getName(), Coord.NULL);
+		a.addParameter(new File("foreign"));
+		m.addAnnotation(a);
+		parsed.writeSnapshot(f, inputs);
+		
+		assertTrue(Files.size(f.toPath()) > 0);
+		assertFalse(TestSchemas.makeParser().loadSnapshot(f, inputs));
+	}
+}
@@ -0,0 +1,82 @@
+/*
+Copyright (c) 2026  Blue Robotics
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of
+this software and associated documentation files (the "Software"), to deal in
+the Software without restriction, including without limitation the rights to
+use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+of the Software, and to permit persons to whom the Software is furnished to do
+so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.bluerobotics.blueberry.schema.parser.tokens;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.bluerobotics.blueberry.schema.parser.parsing.ParserIssueLogger;
+import com.bluerobotics.blueberry.schema.parser.parsing.SchemaLoader;
+
+/**
+ * Checks how schema files are read from disk
+ */
+public class SchemaTextTest {
+	@TempDir
+	Path m_dir;
+	
+	@Test
+	public void invalidUtf8IsReplaced() throws IOException {
+		Path f = m_dir.resolve("bad.bsd");
+		byte[] bytes = {'a', 'b', (byte)0xff, 'c', '\r', '\n', (byte)0xc3, '\n', 'd'};
+		Files.write(f, bytes);
+		
+		SchemaText t = SchemaText.read(f, "bad.bsd");
+		assertEquals(3, t.getLineCount());
+		assertEquals("ab\uFFFDc", t.substring(0, 0, t.getLineLength(0)));
+		assertEquals("\uFFFD", t.substring(1, 0, t.getLineLength(1)));
+		assertEquals("d", t.substring(2, 0, t.getLineLength(2)));
+	}
+	@Test
+	public void largeFileIsReadWhole() throws IOException {
+		Path f = m_dir.resolve("large.bsd");
+		StringBuilder sb = new StringBuilder();
+		int lines = 0;
+		while(sb.length() < (2 << 20)) {
+			sb.append("const uint8 C").append(lines).append(" = 1;\n");
+			++lines;
+		}
+		Files.writeString(f, sb);
+		
+		SchemaText t = SchemaText.read(f, "large.bsd");
+		assertEquals(lines, t.getLineCount());
+		assertEquals("const uint8 C"+(lines - 1)+" = 1;", t.substring(lines - 1, 0, t.getLineLength(lines - 1)));
+	}
+	@Test
+	public void defaultExtensionsIncludeTxt() throws IOException {
+		Files.writeString(m_dir.resolve("a.bsd"), "");
+		Files.writeString(m_dir.resolve("b.txt"), "");
+		Files.writeString(m_dir.resolve("c.png"), "");
+		
+		List<Path> found = new SchemaLoader(new ParserIssueLogger((s, ty) -> {})).find(m_dir);
+		assertEquals(2, found.size());
+		assertTrue(found.stream().anyMatch(p -> p.getFileName().toString().equals("b.txt")));
+	}
+}
@@ -0,0 +1,92 @@
+/*
+Copyright (c) 2026  Blue Robotics
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of
+this software and associated documentation files (the "Software"), to deal in
+the Software without restriction, including without limitation the rights to
+use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+of the Software, and to permit persons to whom the Software is furnished to do
+so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.bluerobotics.blueberry.schema.parser.writers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.bluerobotics.blueberry.schema.parser.parsing.ParserIssueLogger;
+
+/**
+ * Checks that the file sink keeps its manifest relative to the output directory and only ever deletes files inside it
+ */
+public class FileSinkTest {
+	private static final String MANIFEST = ".blueberry-test.manifest";
+	@TempDir
+	Path m_dir;
+	
+	@Test
+	public void staleFilesAreRemoved() throws IOException {
+		Path out = m_dir.resolve("out");
+		FileSink sink = new FileSink(out.toFile());
+		sink.begin("test");
+		sink.write("a/one.txt", bytes("one"));
+		sink.write("two.txt", bytes("two"));
+		sink.finish(makeLog());
+		assertEquals(List.of("a/one.txt", "two.txt"), Files.readAllLines(out.resolve(MANIFEST), StandardCharsets.UTF_8));
+		
+		sink.begin("test");
+		sink.write("two.txt", bytes("two"));
+		sink.finish(makeLog());
+		assertFalse(Files.exists(out.resolve("a/one.txt")));
+		assertTrue(Files.exists(out.resolve("two.txt")));
+		assertEquals(List.of("two.txt"), Files.readAllLines(out.resolve(MANIFEST), StandardCharsets.UTF_8));
+	}
+	@Test
+	public void entriesOutsideTheDirectoryAreKept() throws IOException {
+		Path out = m_dir.resolve("out");
+		Files.createDirectories(out);
+		Path relative = Files.write(m_dir.resolve("relative.txt"), bytes("keep"));
+		Path absolute = Files.write(m_dir.resolve("absolute.txt"), bytes("keep"));
+		Files.write(out.resolve(MANIFEST), List.of("../relative.txt", absolute.toString(), "sub/../../relative.txt"), StandardCharsets.UTF_8);
+		
+		FileSink sink = new FileSink(out.toFile());
+		sink.begin("test");
+		sink.finish(makeLog());
+		assertTrue(Files.exists(relative));
+		assertTrue(Files.exists(absolute));
+	}
+	@Test
+	public void nestedDirectoryIsCreated() throws IOException {
+		Path out = m_dir.resolve("a/b/c");
+		FileSink sink = new FileSink(out.toFile());
+		sink.begin("test");
+		sink.finish(makeLog());
+		assertTrue(Files.isRegularFile(out.resolve(MANIFEST)));
+	}
+	private static byte[] bytes(String s) {
+		return s.getBytes(StandardCharsets.UTF_8);
+	}
+	private static ParserIssueLogger makeLog() {
+		return new ParserIssueLogger((s, t) -> {});
+	}
+}
@@ -0,0 +1,190 @@
+/*
+Copyright (c) 2026  Blue Robotics
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of
+this software and associated documentation files (the "Software"), to deal in
+the Software without restriction, including without limitation the rights to
+use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+of the Software, and to permit persons to whom the Software is furnished to do
+so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.bluerobotics.blueberry.schema.parser.writers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.LongUnaryOperator;
+
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+import com.bluerobotics.blueberry.schema.parser.parsing.BlueberrySchemaParser;
+import com.bluerobotics.blueberry.schema.parser.parsing.ParserIssueLogger;
+import com.bluerobotics.blueberry.schema.parser.tokens.SchemaText;
+
+/**
+ * Checks that generated Java messages can be read with wrapShared without allocating anything.
+ * The generated code is compiled in memory against a cut down stand-in for the transcoder runtime, with just what this schema needs.
+ */
+public class JavaWriterAllocationTest {
+	private static final int DECODES = 100000;
+	private static final long VALUE = 7;
+	private static final String[] SCHEMA = {
+		"module alloc {",
+		"	module msgs {",
+		"		@topic(\"reading\")",
+		"		message Reading {",
+		"			uint32 value;",
+		"			float level;",
+		"		};",
+		"	};",
+		"};",
+	};
+	private static final String RUNTIME = "com/bluerobotics/blueberry/transcoder/java/";
+	private static final String BUFFER = """
+		package com.bluerobotics.blueberry.transcoder.java;
+		import java.nio.ByteBuffer;
+		import java.nio.ByteOrder;
+		public class BlueberryBuffer {
+			private final ByteBuffer m_b;
+			public BlueberryBuffer(int n) { m_b = ByteBuffer.allocate(n).order(ByteOrder.LITTLE_ENDIAN); }
+			public int readUint16(int i) { return m_b.getShort(i) & 0xffff; }
+			public void writeUint16(int i, int v) { m_b.putShort(i, (short)v); }
+			public long readUint32(int i) { return m_b.getInt(i) & 0xffffffffL; }
+			public void writeUint32(int i, long v) { m_b.putInt(i, (int)v); }
+			public double readFloat32(int i) { return m_b.getFloat(i); }
+			public void writeFloat32(int i, double v) { m_b.putFloat(i, (float)v); }
+		}
+		""";
+	private static final String MESSAGE = """
+		package com.bluerobotics.blueberry.transcoder.java;
+		public class BlueberryMessage {
+			public static final int MIN_MAX_ORDINAL = 2;
+			public static final int MIN_MESSAGE_LENGTH = 8;
+			protected BlueberryBuffer m_buf;
+			protected BlueberryMessage(BlueberryBuffer buf) { m_buf = buf; }
+			protected void setupHeader(int key, int maxOrdinal, int length) { m_buf.writeUint32(0, key); m_buf.writeUint16(4, length / 4); m_buf.writeUint16(6, maxOrdinal); }
+			protected static boolean isModuleMessageKeyCorrect(BlueberryBuffer buf, int key) { return (int)buf.readUint32(0) == key; }
+			protected int getMaxOrdinal() { return m_buf.readUint16(6); }
+		}
+		""";
+	/**
+	 * decodes the same message over and over, either with wrap or wrapShared.
+	 * Each message is kept in a field so that the JIT can't do away with the allocations of wrap.
+	 */
+	private static final String DECODER = """
+		package alloc;
+		import java.util.function.LongUnaryOperator;
+		import com.bluerobotics.blueberry.transcoder.java.BlueberryBuffer;
+		import com.example.alloc.msgs.Reading;
+		public class %s implements LongUnaryOperator {
+			private final BlueberryBuffer m_buf = new BlueberryBuffer(64);
+			private Reading m_last;
+			public %s() { Reading.make(m_buf, %d, 1.5); }
+			@Override
+			public long applyAsLong(long n) {
+				long sum = 0;
+				for(long i = 0; i < n; ++i) {
+					m_last = Reading.%s(m_buf);
+					sum += m_last.getValue();
+				}
+				return sum;
+			}
+		}
+		""";
+	
+	/**
+	 * Loads the classes that were compiled in memory
+	 */
+	private static class MemoryClassLoader extends ClassLoader {
+		private final Map<String, byte[]> m_classes;
+		MemoryClassLoader(Map<String, byte[]> classes) {
+			super(JavaWriterAllocationTest.class.getClassLoader());
+			m_classes = classes;
+		}
+		@Override
+		protected Class<?> findClass(String name) throws ClassNotFoundException {
+			byte[] bs = m_classes.get(name.replace('.', '/') + ".class");
+			if(bs == null) {
+				throw new ClassNotFoundException(name);
+			}
+			return defineClass(name, bs, 0, bs.length);
+		}
+	}
+	
+	@Test
+	public void wrapSharedDoesNotAllocate() throws Exception {
+		java.lang.management.ThreadMXBean mx = ManagementFactory.getThreadMXBean();
+		Assumptions.assumeTrue(mx instanceof com.sun.management.ThreadMXBean, "no allocation counter on this JVM");
+		com.sun.management.ThreadMXBean tmx = (com.sun.management.ThreadMXBean)mx;
+		Assumptions.assumeTrue(tmx.isThreadAllocatedMemorySupported(), "no allocation counter on this JVM");
+		tmx.setThreadAllocatedMemoryEnabled(true);
+		
+		ClassLoader cl = compile();
+		long shared = countAllocatedBytes(tmx, makeDecoder(cl, "SharedDecoder"));
+		long wrapped = countAllocatedBytes(tmx, makeDecoder(cl, "WrapDecoder"));
+		//wrap makes a new message every time, which shows that the allocations are being counted
+		assertTrue(wrapped >= DECODES * 8L, "wrap allocated "+wrapped+" bytes");
+		//allow a little for the counter itself
+		assertTrue(shared < 1024, "wrapShared allocated "+shared+" bytes");
+	}
+	/**
+	 * generates the Java code for the schema and compiles it with the stand-in runtime and the decoders
+	 * @return a class loader for the compiled classes
+	 */
+	private static ClassLoader compile() {
+		ParserIssueLogger log = new ParserIssueLogger((s, t) -> {});
+		BlueberrySchemaParser p = new BlueberrySchemaParser(log);
+		p.append(SchemaText.of("alloc.bsd", SCHEMA));
+		p.parse();
+		MemorySink sink = new MemorySink();
+		JavaWriter jw = new JavaWriter(sink, p, "", "com.example", log);
+		jw.write();
+		assertFalse(log.isError(), log.getIssues().toString());
+		
+		TreeMap<String, byte[]> sources = new TreeMap<>(sink.getFiles());
+		sources.put(RUNTIME + "BlueberryBuffer.java", BUFFER.getBytes(StandardCharsets.UTF_8));
+		sources.put(RUNTIME + "BlueberryMessage.java", MESSAGE.getBytes(StandardCharsets.UTF_8));
+		sources.put("alloc/SharedDecoder.java", makeDecoderSource("SharedDecoder", "wrapShared"));
+		sources.put("alloc/WrapDecoder.java", makeDecoderSource("WrapDecoder", "wrap"));
+		
+		GeneratedJavaCompiler jc = new GeneratedJavaCompiler(log, List.of());
+		assertTrue(jc.compile(sources, jw::getOrigin), log.getIssues().toString());
+		return new MemoryClassLoader(jc.getClassFiles());
+	}
+	private static byte[] makeDecoderSource(String name, String method) {
+		return String.format(DECODER, name, name, VALUE, method).getBytes(StandardCharsets.UTF_8);
+	}
+	private static LongUnaryOperator makeDecoder(ClassLoader cl, String name) throws Exception {
+		return (LongUnaryOperator)cl.loadClass("alloc." + name).getConstructor().newInstance();
+	}
+	/**
+	 * runs a decoder once to load and initialize everything it uses and then again to count what it allocates
+	 */
+	private static long countAllocatedBytes(com.sun.management.ThreadMXBean tmx, LongUnaryOperator decoder) {
+		long id = Thread.currentThread().threadId();
+		decoder.applyAsLong(DECODES);
+		long before = tmx.getThreadAllocatedBytes(id);
+		long sum = decoder.applyAsLong(DECODES);
+		long after = tmx.getThreadAllocatedBytes(id);
+		assertEquals(VALUE * DECODES, sum);
+		return after - before;
+	}
+}
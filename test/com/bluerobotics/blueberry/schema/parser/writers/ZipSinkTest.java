@@ -0,0 +1,80 @@
+/*
+Copyright (c) 2026  Blue Robotics
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of
+this software and associated documentation files (the "Software"), to deal in
+the Software without restriction, including without limitation the rights to
+use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+of the Software, and to permit persons to whom the Software is furnished to do
+so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.bluerobotics.blueberry.schema.parser.writers;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.junit.jupiter.api.Test;
+
+import com.bluerobotics.blueberry.schema.parser.parsing.ParserIssueLogger;
+
+/**
+ * Checks that a zip sink makes the same archive whatever order the files are written in
+ */
+public class ZipSinkTest {
+	private static final String[] PATHS = {"b/two.txt", "a.txt", "b/one.txt", "c.txt"};
+	
+	@Test
+	public void entriesAreSortedByPath() throws IOException {
+		byte[] zip = makeZip(PATHS);
+		assertEquals(List.of("a.txt", "b/one.txt", "b/two.txt", "c.txt"), listEntries(zip));
+	}
+	@Test
+	public void writeOrderDoesNotChangeArchive() throws IOException {
+		String[] reversed = new String[PATHS.length];
+		for(int i = 0; i < PATHS.length; ++i) {
+			reversed[i] = PATHS[PATHS.length - 1 - i];
+		}
+		assertArrayEquals(makeZip(PATHS), makeZip(reversed));
+	}
+	private static byte[] makeZip(String[] paths) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try(ZipSink sink = new ZipSink(out)) {
+			sink.begin("test");
+			for(String path : paths) {
+				sink.write(path, path.getBytes(StandardCharsets.UTF_8));
+			}
+			sink.finish(new ParserIssueLogger((s, t) -> {}));
+		}
+		return out.toByteArray();
+	}
+	private static List<String> listEntries(byte[] zip) throws IOException {
+		ArrayList<String> result = new ArrayList<>();
+		try(ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(zip))) {
+			ZipEntry e;
+			while((e = in.getNextEntry()) != null) {
+				result.add(e.getName());
+			}
+		}
+		return result;
+	}
+}